@@ -0,0 +1,67 @@
+package com.csvreader;
+
+/**
+ * Suggests a buffer capacity from the lengths a buffer has had to hold so far.
+ * The suggestion follows a decaying average of the observed lengths, so a
+ * single oversized record only raises it for a while, after which the buffer
+ * can be shrunk back.
+ */
+public class AdaptiveSize {
+    // how quickly older observations are forgotten, as a power of two
+    private static final int DECAY_SHIFT = 4;
+
+    private final int minimum;
+    private final int maximum;
+    private final int multiplier;
+    // decaying average, scaled up by 2^DECAY_SHIFT to keep the precision
+    private long scaledAverage = 0;
+
+    /**
+     * @param minimum    The smallest capacity that will be suggested.
+     * @param maximum    The largest capacity that will be suggested.
+     * @param multiplier How many average lengths the buffer should be able to
+     *                   hold.
+     */
+    public AdaptiveSize(int minimum, int maximum, int multiplier) {
+        this.minimum = minimum;
+        this.maximum = Math.max(minimum, maximum);
+        this.multiplier = multiplier;
+    }
+
+    public void observe(int length) {
+        if (scaledAverage == 0) {
+            scaledAverage = (long) length << DECAY_SHIFT;
+        } else {
+            scaledAverage += length - (scaledAverage >> DECAY_SHIFT);
+        }
+    }
+
+    /**
+     * Gets the capacity suggested by the lengths observed so far, rounded up
+     * to a power of two.
+     *
+     * @return The suggested capacity.
+     */
+    public int target() {
+        long wanted = (scaledAverage >> DECAY_SHIFT) * multiplier;
+
+        if (wanted <= minimum) {
+            return minimum;
+        } else if (wanted >= maximum) {
+            return maximum;
+        }
+
+        return (int) Math.min(Long.highestOneBit(wanted - 1) << 1, maximum);
+    }
+
+    /**
+     * Whether a buffer of the given capacity has become so much larger than
+     * needed that it's worth reallocating it.
+     *
+     * @param capacity The current capacity of the buffer.
+     * @return Whether the buffer should be shrunk to {@link #target()}.
+     */
+    public boolean shouldShrink(int capacity) {
+        return capacity > minimum && capacity >= target() * 4L;
+    }
+}
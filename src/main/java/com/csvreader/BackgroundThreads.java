@@ -0,0 +1,36 @@
+package com.csvreader;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the threads that read ahead and inflate data for a reader when no
+ * {@link java.util.concurrent.ThreadFactory ThreadFactory} is set, see
+ * {@link UserSettings#withThreadFactory(ThreadFactory)}. These are virtual
+ * threads when the JVM has them, and daemon threads otherwise.
+ */
+final class BackgroundThreads {
+    static final ThreadFactory DEFAULT = createDefault();
+
+    private BackgroundThreads() {
+    }
+
+    private static ThreadFactory createDefault() {
+        try {
+            // Thread.ofVirtual().factory(), only there from Java 21 on
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+
+            return (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            AtomicInteger count = new AtomicInteger();
+
+            return runnable -> {
+                Thread thread = new Thread(runnable, "CsvReader background " + count.incrementAndGet());
+
+                thread.setDaemon(true);
+
+                return thread;
+            };
+        }
+    }
+}
@@ -0,0 +1,907 @@
+package com.csvreader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.text.NumberFormat;
+
+/**
+ * Runs the record parsing state machine of {@link CsvReader} directly over the
+ * undecoded bytes of an ASCII compatible charset. Only the boundaries of the
+ * columns are recorded while parsing, column contents are decoded on demand.
+ * The current record is always kept contiguous in the buffer, so the recorded
+ * boundaries stay valid until the next record is read.
+ */
+class ByteRecordParser {
+    // used to test eight bytes at a time for a given byte, see hasByte
+    private static final long LOW_BITS = 0x0101010101010101L;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+
+    private final UserSettings userSettings;
+    private final Charset charset;
+
+    // exactly one of these is the data source
+    private InputStream inputStream;
+    private FileChannel channel;
+    private long channelSize;
+    private int windowSize;
+
+    private ByteBuffer buffer;
+    // a second view of the buffer used to copy and decode ranges of it
+    private ByteBuffer copyView;
+    private byte[] copyBuffer = null;
+    // only created once a column has to be decoded into a view
+    private CharsetDecoder decoder = null;
+    // absolute offset in the source of buffer index 0
+    private long bufferOffset = 0;
+    private int position = 0;
+    private int count = 0;
+    private int lineStart = 0;
+    private int columnStart = 0;
+    // position of the qualifier that closed the current qualified column
+    private int closingQualifier = 0;
+    private int columnEnd = 0;
+    private boolean columnEscaped = false;
+
+    private int[] columnStarts;
+    private int[] columnEnds;
+    private boolean[] escaped;
+    private boolean[] qualified;
+    private int columnsCount = 0;
+    // see CsvReader.setProjection
+    private int[] projection = null;
+    private int projectedCount = 0;
+    // only set when the stream buffer is adaptively sized
+    private AdaptiveSize bufferSize = null;
+    // the size the stream buffer is shrunk back to, see
+    // UserSettings.withShrinkAfterRecords
+    private int initialCapacity = 0;
+    private int recordsBelowBaseline = 0;
+    private int peakCapacity = 0;
+    // set by the reader when it keeps metrics
+    ReaderMetrics metrics = null;
+
+    private boolean startedColumn = false;
+    private boolean startedWithQualifier = false;
+    private boolean hasMoreData = true;
+    private boolean hasReadNextLine = false;
+    private byte lastLetter = 0;
+    private long currentRecord = 0;
+
+    ByteRecordParser(InputStream inputStream, Charset charset, UserSettings userSettings, int bufferSize) {
+        this.inputStream = inputStream;
+        this.charset = charset;
+        this.userSettings = userSettings;
+        this.buffer = ByteBuffer.allocate(bufferSize);
+        this.copyView = buffer.duplicate();
+        this.initialCapacity = bufferSize;
+        this.peakCapacity = bufferSize;
+
+        if (userSettings.adaptiveBuffers()) {
+            this.bufferSize = new AdaptiveSize(bufferSize,
+                    Math.max(bufferSize, StaticSettings.MAX_ADAPTIVE_BUFFER_SIZE), 16);
+        }
+
+        allocateColumns(userSettings.initialColumnCount());
+    }
+
+    /**
+     * @param start Where in the file parsing starts, which has to be the
+     *              start of a record.
+     */
+    ByteRecordParser(FileChannel channel, Charset charset, UserSettings userSettings, int windowSize, long start)
+            throws IOException {
+        this.channel = channel;
+        this.channelSize = channel.size();
+        this.windowSize = windowSize;
+        this.charset = charset;
+        this.userSettings = userSettings;
+        this.bufferOffset = start;
+        this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, 0);
+        this.copyView = buffer.duplicate();
+
+        allocateColumns(userSettings.initialColumnCount());
+    }
+
+    private void allocateColumns(int initialColumnCount) {
+        columnStarts = new int[initialColumnCount];
+        columnEnds = new int[initialColumnCount];
+        escaped = new boolean[initialColumnCount];
+        qualified = new boolean[initialColumnCount];
+    }
+
+    /**
+     * Whether the byte parser can produce the same results as the char based
+     * parser for this charset and these settings. That's the case when every
+     * structural character is encoded as one byte that can't show up inside
+     * the encoding of another character.
+     */
+    static boolean supports(Charset charset, UserSettings userSettings, boolean useCustomRecordDelimiter) {
+        int maxLetter;
+
+        if (charset.equals(StandardCharsets.ISO_8859_1)) {
+            maxLetter = 0xFF;
+        } else if (charset.equals(StandardCharsets.UTF_8) || charset.equals(StandardCharsets.US_ASCII)) {
+            maxLetter = 0x7F;
+        } else {
+            return false;
+        }
+
+        // the backslash escapes count characters, not bytes
+        return userSettings.escapeMode() == EscapeMode.DOUBLED
+                && userSettings.delimiter() <= maxLetter
+                && (!userSettings.useTextQualifier || userSettings.textQualifier() <= maxLetter)
+                && (!userSettings.useComments || userSettings.comment <= maxLetter)
+                && (!useCustomRecordDelimiter || userSettings.recordDelimiter <= maxLetter);
+    }
+
+    int getColumnCount() {
+        if (projection != null) {
+            // columns missing from the record are left empty
+            return hasReadNextLine ? projectedCount : 0;
+        }
+
+        return columnsCount;
+    }
+
+    boolean isQualified(int columnIndex) {
+        return qualified[columnIndex];
+    }
+
+    boolean hasMoreData() {
+        return hasMoreData;
+    }
+
+    /**
+     * Reads another record, recording the boundaries of its columns.
+     *
+     * @param useCustomRecordDelimiter Whether the record delimiter from the
+     *                                 settings is used instead of CR and LF.
+     * @param recordNumber             The index of the record being read, used
+     *                                 in error messages.
+     * @param projection               Maps column indexes to their position
+     *                                 in the projection, or null to keep all
+     *                                 columns.
+     * @param projectedCount           The number of projected columns.
+     * @return Whether another record was successfully read or not.
+     */
+    boolean readRecord(boolean useCustomRecordDelimiter, long recordNumber, int[] projection, int projectedCount)
+            throws IOException {
+        currentRecord = recordNumber;
+        columnsCount = 0;
+        lineStart = position;
+        hasReadNextLine = false;
+
+        this.projection = projection;
+        this.projectedCount = projectedCount;
+
+        if (projection != null) {
+            if (projectedCount > columnStarts.length) {
+                growColumns(projectedCount);
+            }
+
+            for (int i = 0; i < projectedCount; i++) {
+                columnStarts[i] = 0;
+                columnEnds[i] = 0;
+                escaped[i] = false;
+                qualified[i] = false;
+            }
+        }
+
+        byte delimiter = (byte) userSettings.delimiter();
+        byte textQualifier = (byte) userSettings.textQualifier();
+        byte recordDelimiter = (byte) userSettings.recordDelimiter;
+        byte comment = (byte) userSettings.comment;
+        boolean useTextQualifier = userSettings.useTextQualifier;
+        boolean useComments = userSettings.useComments;
+        boolean trimWhitespace = userSettings.trimWhitespace();
+        boolean skipEmptyRecords = userSettings.skipEmptyRecords;
+
+        // the letters that can end an unqualified column, repeated over a
+        // whole word
+        long delimiterWord = repeat(delimiter);
+        long firstEndWord = repeat(useCustomRecordDelimiter ? recordDelimiter : Letters.CR);
+        long secondEndWord = repeat(useCustomRecordDelimiter ? recordDelimiter : Letters.LF);
+        long qualifierWord = repeat(textQualifier);
+
+        if (hasMoreData) {
+            do {
+                if (position == count) {
+                    fill();
+                } else {
+                    startedWithQualifier = false;
+
+                    byte currentLetter = buffer.get(position);
+
+                    if (useTextQualifier && currentLetter == textQualifier) {
+                        lastLetter = currentLetter;
+
+                        startedColumn = true;
+                        columnStart = position + 1;
+                        startedWithQualifier = true;
+                        boolean lastLetterWasQualifier = false;
+                        boolean eatingTrailingJunk = false;
+                        columnEscaped = false;
+
+                        position++;
+
+                        do {
+                            if (position == count) {
+                                fill();
+                            } else {
+                                if (!eatingTrailingJunk && !lastLetterWasQualifier) {
+                                    // only a qualifier means anything here
+                                    int next = skipWords(position, qualifierWord, qualifierWord, qualifierWord);
+
+                                    if (next > position) {
+                                        position = next;
+                                        lastLetter = buffer.get(position - 1);
+
+                                        checkColumnLength();
+
+                                        if (position == count) {
+                                            continue;
+                                        }
+                                    }
+                                }
+
+                                currentLetter = buffer.get(position);
+
+                                if (eatingTrailingJunk) {
+                                    if (currentLetter == delimiter) {
+                                        endColumn(columnStart, closingQualifier, columnEscaped);
+                                    } else if (isRecordDelimiter(currentLetter, useCustomRecordDelimiter,
+                                            recordDelimiter)) {
+                                        endColumn(columnStart, closingQualifier, columnEscaped);
+
+                                        endRecord();
+                                    }
+                                } else if (currentLetter == textQualifier) {
+                                    if (lastLetterWasQualifier) {
+                                        // doubled up qualifier
+                                        lastLetterWasQualifier = false;
+                                        columnEscaped = true;
+                                    } else {
+                                        closingQualifier = position;
+                                        lastLetterWasQualifier = true;
+                                    }
+                                } else if (lastLetterWasQualifier) {
+                                    if (currentLetter == delimiter) {
+                                        endColumn(columnStart, closingQualifier, columnEscaped);
+                                    } else if (isRecordDelimiter(currentLetter, useCustomRecordDelimiter,
+                                            recordDelimiter)) {
+                                        endColumn(columnStart, closingQualifier, columnEscaped);
+
+                                        endRecord();
+                                    } else {
+                                        eatingTrailingJunk = true;
+                                    }
+
+                                    lastLetterWasQualifier = false;
+                                }
+
+                                lastLetter = currentLetter;
+
+                                if (startedColumn) {
+                                    position++;
+
+                                    // a qualifier that may be the closing one
+                                    // isn't counted yet
+                                    if (!eatingTrailingJunk && !lastLetterWasQualifier) {
+                                        checkColumnLength();
+                                    }
+                                }
+                            }
+                        } while (hasMoreData && startedColumn);
+
+                        if (startedColumn) {
+                            // the data ended inside this column
+                            columnEnd = lastLetterWasQualifier || eatingTrailingJunk ? closingQualifier
+                                    : position;
+                        }
+                    } else if (currentLetter == delimiter) {
+                        // we encountered a column with no data, so
+                        // just send the end column
+
+                        lastLetter = currentLetter;
+
+                        endColumn(position, position, false);
+                    } else if (useCustomRecordDelimiter && currentLetter == recordDelimiter) {
+                        // this will skip blank lines
+                        if (startedColumn || columnsCount > 0 || !skipEmptyRecords) {
+                            endColumn(position, position, false);
+
+                            endRecord();
+                        } else {
+                            lineStart = position + 1;
+                        }
+
+                        lastLetter = currentLetter;
+                    } else if (!useCustomRecordDelimiter
+                            && (currentLetter == Letters.CR || currentLetter == Letters.LF)) {
+                        // this will skip blank lines
+                        if (startedColumn
+                                || columnsCount > 0
+                                || (!skipEmptyRecords
+                                        && (currentLetter == Letters.CR || lastLetter != Letters.CR))) {
+                            endColumn(position, position, false);
+
+                            endRecord();
+                        } else {
+                            lineStart = position + 1;
+                        }
+
+                        lastLetter = currentLetter;
+                    } else if (useComments && columnsCount == 0 && currentLetter == comment) {
+                        // encountered a comment character at the beginning of
+                        // the line so just ignore the rest of the line
+
+                        lastLetter = currentLetter;
+
+                        // leading whitespace before the comment character
+                        // doesn't start a column
+                        startedColumn = false;
+
+                        skipLine();
+                    } else if (trimWhitespace && (currentLetter == Letters.SPACE || currentLetter == Letters.TAB)) {
+                        // do nothing, this will trim leading whitespace
+                        // for both text qualified columns and non
+
+                        startedColumn = true;
+                        columnStart = position + 1;
+                    } else {
+                        // since the letter wasn't a special letter, this
+                        // will be the first letter of our current column
+
+                        startedColumn = true;
+                        columnStart = position;
+                        lastLetter = currentLetter;
+                        position++;
+
+                        do {
+                            if (position == count) {
+                                fill();
+                            } else {
+                                int next = skipWords(position, delimiterWord, firstEndWord, secondEndWord);
+
+                                if (next > position) {
+                                    position = next;
+                                    lastLetter = buffer.get(position - 1);
+
+                                    checkColumnLength();
+
+                                    if (position == count) {
+                                        continue;
+                                    }
+                                }
+
+                                currentLetter = buffer.get(position);
+
+                                if (currentLetter == delimiter) {
+                                    endColumn(columnStart, position, false);
+                                } else if (isRecordDelimiter(currentLetter, useCustomRecordDelimiter,
+                                        recordDelimiter)) {
+                                    endColumn(columnStart, position, false);
+
+                                    endRecord();
+                                }
+
+                                lastLetter = currentLetter;
+
+                                if (startedColumn) {
+                                    position++;
+
+                                    checkColumnLength();
+                                }
+                            }
+                        } while (hasMoreData && startedColumn);
+                    }
+
+                    if (hasMoreData) {
+                        position++;
+                    }
+                }
+            } while (hasMoreData && !hasReadNextLine);
+
+            // check to see if we hit the end of the file
+            // without processing the current record
+
+            if (startedColumn || lastLetter == delimiter) {
+                if (startedWithQualifier) {
+                    endColumn(columnStart, columnEnd, columnEscaped);
+                } else {
+                    endColumn(columnStart, position, false);
+                }
+
+                endRecord();
+            }
+        }
+
+        if (hasReadNextLine) {
+            // without the record delimiter
+            checkRecordLength((hasMoreData ? position - 1 : count) - lineStart);
+
+            if (position - lineStart > initialCapacity) {
+                recordsBelowBaseline = 0;
+            } else if (recordsBelowBaseline < userSettings.shrinkAfterRecords()) {
+                recordsBelowBaseline++;
+            }
+        }
+
+        if (bufferSize != null && hasReadNextLine) {
+            bufferSize.observe(position - lineStart);
+        }
+
+        return hasReadNextLine;
+    }
+
+    /**
+     * Skips whole words of eight bytes from the given position for as long as
+     * none of their bytes is one of the given letters.
+     *
+     * @return The position of the first word that may hold one of the letters,
+     *         or of the last few bytes that don't make up a whole word.
+     */
+    private int skipWords(int position, long first, long second, long third) {
+        int last = count - 8;
+
+        while (position <= last) {
+            long word = buffer.getLong(position);
+
+            if (hasByte(word, first) || hasByte(word, second) || hasByte(word, third)) {
+                break;
+            }
+
+            position += 8;
+        }
+
+        return position;
+    }
+
+    private static long repeat(int letter) {
+        return (letter & 0xFFL) * LOW_BITS;
+    }
+
+    /**
+     * Whether any of the bytes of a word matches the letter repeated in the
+     * second word. Matching bytes are zero in the xor of both, and the lowest
+     * zero byte is the first one whose high bit gets set by the borrow of
+     * the subtraction while being clear in the xor.
+     */
+    private static boolean hasByte(long word, long repeatedLetter) {
+        long difference = word ^ repeatedLetter;
+
+        return ((difference - LOW_BITS) & ~difference & HIGH_BITS) != 0;
+    }
+
+    private static boolean isRecordDelimiter(byte letter, boolean useCustomRecordDelimiter, byte recordDelimiter) {
+        return useCustomRecordDelimiter ? letter == recordDelimiter
+                : letter == Letters.CR || letter == Letters.LF;
+    }
+
+    private void checkRecordLength(int length) throws IOException {
+        if (length > userSettings.maxRecordLength()) {
+            throw new IOException("Maximum record length of "
+                    + NumberFormat.getIntegerInstance().format(userSettings.maxRecordLength())
+                    + " exceeded in record "
+                    + NumberFormat.getIntegerInstance().format(currentRecord) + ".");
+        }
+    }
+
+    private void checkColumnLength() throws IOException {
+        if (position - columnStart > userSettings.maxColumnLength()) {
+            throw new IOException("Maximum column length of "
+                    + NumberFormat.getIntegerInstance().format(userSettings.maxColumnLength())
+                    + " exceeded in column "
+                    + NumberFormat.getIntegerInstance().format(columnsCount)
+                    + " in record "
+                    + NumberFormat.getIntegerInstance().format(currentRecord) + ".");
+        }
+
+        if (userSettings.safetySwitch && position - columnStart > 100000) {
+            throw new IOException("Maximum column length of 100,000 exceeded in column "
+                    + NumberFormat.getIntegerInstance().format(columnsCount)
+                    + " in record "
+                    + NumberFormat.getIntegerInstance().format(currentRecord)
+                    + ". Set the SafetySwitch property to false"
+                    + " if you're expecting column lengths greater than 100,000 characters to"
+                    + " avoid this error.");
+        }
+    }
+
+    private void endColumn(int start, int end, boolean columnEscaped) throws IOException {
+        int slot = columnsCount;
+
+        if (projection != null) {
+            slot = columnsCount < projection.length ? projection[columnsCount] : -1;
+        }
+
+        // columns left out by the projection are not trimmed
+        if (!startedColumn) {
+            start = end;
+        } else if (slot > -1 && !startedWithQualifier && userSettings.trimWhitespace()) {
+            while (end > start && (buffer.get(end - 1) == Letters.SPACE || buffer.get(end - 1) == Letters.TAB)) {
+                end--;
+            }
+        }
+
+        startedColumn = false;
+
+        if (columnsCount >= 100000 && userSettings.safetySwitch) {
+            throw new IOException(
+                    "Maximum column count of 100,000 exceeded in record "
+                            + NumberFormat.getIntegerInstance().format(currentRecord)
+                            + ". Set the SafetySwitch property to false"
+                            + " if you're expecting more than 100,000 columns per record to"
+                            + " avoid this error.");
+        }
+
+        columnsCount++;
+
+        if (slot < 0) {
+            return;
+        } else if (slot == columnStarts.length) {
+            growColumns(columnStarts.length * 2);
+        }
+
+        columnStarts[slot] = start;
+        columnEnds[slot] = end;
+        escaped[slot] = columnEscaped;
+        qualified[slot] = startedWithQualifier;
+    }
+
+    private void growColumns(int newLength) {
+        if (metrics != null) {
+            metrics.columnArrayGrew();
+        }
+
+        int[] startsHolder = new int[newLength];
+        System.arraycopy(columnStarts, 0, startsHolder, 0, columnStarts.length);
+        columnStarts = startsHolder;
+
+        int[] endsHolder = new int[newLength];
+        System.arraycopy(columnEnds, 0, endsHolder, 0, columnEnds.length);
+        columnEnds = endsHolder;
+
+        boolean[] escapedHolder = new boolean[newLength];
+        System.arraycopy(escaped, 0, escapedHolder, 0, escaped.length);
+        escaped = escapedHolder;
+
+        boolean[] qualifiedHolder = new boolean[newLength];
+        System.arraycopy(qualified, 0, qualifiedHolder, 0, qualified.length);
+        qualified = qualifiedHolder;
+    }
+
+    private void endRecord() {
+        // this flag is used as a loop exit condition
+        // during parsing
+
+        hasReadNextLine = true;
+    }
+
+    /**
+     * Skips the rest of the current line using the standard end of line
+     * characters.
+     *
+     * @return Whether a line was successfully skipped or not.
+     */
+    boolean skipLine() throws IOException {
+        columnsCount = 0;
+
+        boolean skippedLine = false;
+
+        if (hasMoreData) {
+            boolean foundEol = false;
+
+            do {
+                if (position == count) {
+                    // nothing of the skipped line needs to be kept
+                    lineStart = position;
+
+                    fill();
+                } else {
+                    skippedLine = true;
+
+                    byte currentLetter = buffer.get(position);
+
+                    if (currentLetter == Letters.CR || currentLetter == Letters.LF) {
+                        foundEol = true;
+                    }
+
+                    lastLetter = currentLetter;
+
+                    if (!foundEol) {
+                        position++;
+                    }
+                }
+            } while (hasMoreData && !foundEol);
+
+            lineStart = position + 1;
+        }
+
+        return skippedLine;
+    }
+
+    /**
+     * Decodes the value of a column of the current record.
+     */
+    String decode(int columnIndex) {
+        int start = columnStarts[columnIndex];
+        int length = columnEnds[columnIndex] - start;
+
+        if (length == 0) {
+            return "";
+        }
+
+        String value = decode(start, length);
+
+        if (escaped[columnIndex]) {
+            value = CsvWriter.replace(value, userSettings.textQualifierEscaped(),
+                    userSettings.textQualifierPattern());
+        }
+
+        return value;
+    }
+
+    /**
+     * Points a view at the value of a column of the current record. Single
+     * byte text that needs no unescaping is read straight from the buffer,
+     * anything else is decoded into the view's own holder.
+     */
+    void view(int columnIndex, ColumnView view) {
+        int start = columnStarts[columnIndex];
+        int length = columnEnds[columnIndex] - start;
+
+        if (!escaped[columnIndex] && (charset.equals(StandardCharsets.ISO_8859_1) || isAscii(start, length))) {
+            view.set(buffer, start, length);
+            return;
+        }
+
+        if (decoder == null) {
+            decoder = charset.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        }
+
+        // none of the supported charsets decode a byte into more than one char
+        char[] chars = view.scratch(length);
+        CharBuffer out = CharBuffer.wrap(chars);
+
+        copyView.limit(start + length);
+        copyView.position(start);
+
+        decoder.reset();
+        decoder.decode(copyView, out, true);
+        decoder.flush(out);
+
+        int decoded = out.position();
+
+        if (escaped[columnIndex]) {
+            decoded = ColumnView.unescape(chars, decoded, userSettings.textQualifier());
+        }
+
+        view.set(chars, 0, decoded);
+    }
+
+    private boolean isAscii(int start, int length) {
+        for (int i = start; i < start + length; i++) {
+            if (buffer.get(i) < 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Decodes the undecoded text of the record that was last read.
+     */
+    String rawRecord() {
+        int end = hasMoreData ? position - 1 : count;
+
+        if (end <= lineStart) {
+            return "";
+        }
+
+        return decode(lineStart, end - lineStart);
+    }
+
+    private String decode(int start, int length) {
+        if (buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + start, length, charset);
+        }
+
+        if (copyBuffer == null || copyBuffer.length < length) {
+            copyBuffer = new byte[Math.max(length, StaticSettings.MAX_BUFFER_SIZE)];
+        }
+
+        copyView.limit(start + length);
+        copyView.position(start);
+        copyView.get(copyBuffer, 0, length);
+
+        return new String(copyBuffer, 0, length, charset);
+    }
+
+    /**
+     * Makes more data available after the current position, keeping
+     * everything from the start of the current record in the buffer.
+     */
+    private void fill() throws IOException {
+        int keep = Math.max(count - lineStart, 0);
+        int shift = count - keep;
+
+        checkRecordLength(keep);
+
+        if (channel != null) {
+            long keepOffset = bufferOffset + shift;
+            long available = channelSize - keepOffset;
+
+            if (available <= keep) {
+                hasMoreData = false;
+                return;
+            }
+
+            if (keep >= windowSize) {
+                if (windowSize == Integer.MAX_VALUE) {
+                    throw new IOException("Record starting at byte " + keepOffset
+                            + " is larger than the maximum mapping size.");
+                }
+
+                windowSize = (int) Math.min((long) windowSize * 2, Integer.MAX_VALUE);
+            }
+
+            long started = metrics != null ? System.nanoTime() : 0;
+
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, keepOffset, Math.min(windowSize, available));
+            copyView = buffer.duplicate();
+            count = buffer.limit();
+
+            if (metrics != null) {
+                metrics.refilled(started, count - keep, true);
+            }
+        } else {
+            byte[] data = buffer.array();
+
+            if (shift > 0) {
+                System.arraycopy(data, shift, data, 0, keep);
+            }
+
+            int capacity = data.length;
+
+            if (keep == capacity) {
+                // the current record doesn't fit, so the buffer needs to grow
+                if ((long) capacity * 2 > userSettings.maxBufferedLength()) {
+                    throw new IOException("Maximum buffered length of "
+                            + NumberFormat.getIntegerInstance().format(userSettings.maxBufferedLength())
+                            + " exceeded in record "
+                            + NumberFormat.getIntegerInstance().format(currentRecord) + ".");
+                }
+
+                capacity *= 2;
+            } else if (bufferSize != null) {
+                int target = bufferSize.target();
+
+                boolean grow = target > capacity && target <= userSettings.maxBufferedLength();
+
+                if (target > keep && (grow || bufferSize.shouldShrink(capacity))) {
+                    capacity = target;
+                }
+            } else if (capacity > initialCapacity && keep < initialCapacity
+                    && recordsBelowBaseline >= userSettings.shrinkAfterRecords()) {
+                // a larger record grew the buffer a while ago
+                capacity = initialCapacity;
+            }
+
+            if (capacity != data.length) {
+                if (metrics != null && capacity > data.length) {
+                    metrics.dataBufferGrew();
+                }
+
+                byte[] holder = new byte[capacity];
+
+                System.arraycopy(data, 0, holder, 0, keep);
+
+                data = holder;
+                buffer = ByteBuffer.wrap(data);
+                copyView = buffer.duplicate();
+                peakCapacity = Math.max(peakCapacity, capacity);
+            }
+
+            long started = metrics != null ? System.nanoTime() : 0;
+            int read = inputStream.read(data, keep, data.length - keep);
+
+            if (metrics != null) {
+                metrics.refilled(started, read, true);
+            }
+
+            if (read == -1) {
+                hasMoreData = false;
+                count = keep;
+            } else {
+                count = keep + read;
+            }
+        }
+
+        moveBy(shift);
+    }
+
+    /**
+     * Moves every position into the buffer after the data in it was moved
+     * back by the given number of bytes.
+     */
+    private void moveBy(int shift) {
+        bufferOffset += shift;
+        position -= shift;
+        lineStart -= shift;
+        columnStart -= shift;
+        closingQualifier -= shift;
+
+        int slots = projection != null ? projectedCount : columnsCount;
+
+        for (int i = 0; i < slots; i++) {
+            columnStarts[i] -= shift;
+            columnEnds[i] -= shift;
+        }
+    }
+
+    /**
+     * Gets the capacity of the stream buffer, which is 0 for a memory mapped
+     * file.
+     */
+    int capacity() {
+        return channel == null && buffer != null ? buffer.capacity() : 0;
+    }
+
+    int peakCapacity() {
+        return peakCapacity;
+    }
+
+    /**
+     * Shrinks the stream buffer back to its initial capacity, or to what the
+     * current record and the data after it need when that's more.
+     */
+    void trimBuffer() {
+        if (channel != null || buffer == null) {
+            return;
+        }
+
+        int keep = Math.max(count - lineStart, 0);
+        int shift = count - keep;
+        int capacity = Math.max(keep, initialCapacity);
+
+        if (capacity < buffer.capacity()) {
+            byte[] holder = new byte[capacity];
+
+            System.arraycopy(buffer.array(), shift, holder, 0, keep);
+
+            buffer = ByteBuffer.wrap(holder);
+            copyView = buffer.duplicate();
+            count = keep;
+
+            moveBy(shift);
+        }
+
+        recordsBelowBaseline = 0;
+    }
+
+    void close() throws IOException {
+        buffer = null;
+        copyView = null;
+
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+
+        if (inputStream != null) {
+            inputStream.close();
+            inputStream = null;
+        }
+    }
+}
@@ -5,8 +5,20 @@ public class ColumnBuffer {
 
 	public int position;
 
+	// / <summary>
+	// / The position in the buffer where the current column
+	// / starts. Everything before it belongs to the earlier
+	// / columns of the current record.
+	// / </summary>
+	public int columnStart;
+
 	public ColumnBuffer() {
-		buffer = new char[StaticSettings.INITIAL_COLUMN_BUFFER_SIZE];
+		this(StaticSettings.INITIAL_COLUMN_BUFFER_SIZE);
+	}
+
+	public ColumnBuffer(int size) {
+		buffer = new char[size];
 		position = 0;
+		columnStart = 0;
 	}
 }
\ No newline at end of file
@@ -0,0 +1,65 @@
+package com.csvreader;
+
+import java.io.IOException;
+
+/**
+ * A column of a {@link CsvReader} that was looked up by its header name once,
+ * see {@link CsvReader#getColumnHandle(String)}. Reading through the handle
+ * goes straight to the column's index, so no name is looked up per record.
+ */
+public final class ColumnHandle {
+    private final CsvReader reader;
+    private final String headerName;
+    private final int columnIndex;
+
+    ColumnHandle(CsvReader reader, String headerName, int columnIndex) {
+        this.reader = reader;
+        this.headerName = headerName;
+        this.columnIndex = columnIndex;
+    }
+
+    public String getHeaderName() {
+        return headerName;
+    }
+
+    /**
+     * Gets the index the column is read from, the one
+     * {@link CsvReader#get(int)} takes.
+     *
+     * @return The index of the column.
+     */
+    public int getIndex() {
+        return columnIndex;
+    }
+
+    public String get() throws IOException {
+        return reader.get(columnIndex);
+    }
+
+    /**
+     * See {@link CsvReader#getCharSequence(int)}.
+     */
+    public CharSequence getCharSequence() throws IOException {
+        return reader.getCharSequence(columnIndex);
+    }
+
+    public int getInt() throws IOException {
+        return reader.getInt(columnIndex);
+    }
+
+    public long getLong() throws IOException {
+        return reader.getLong(columnIndex);
+    }
+
+    public double getDouble() throws IOException {
+        return reader.getDouble(columnIndex);
+    }
+
+    public boolean getBoolean() throws IOException {
+        return reader.getBoolean(columnIndex);
+    }
+
+    public boolean isQualified() throws IOException {
+        return reader.isQualified(columnIndex);
+    }
+}
@@ -0,0 +1,150 @@
+package com.csvreader;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A {@link java.lang.CharSequence CharSequence} over a column of the current
+ * record that reads straight from the reader's buffers. One view is kept per
+ * column index and pointed at the new contents on every request, so the view
+ * is only valid until the next record is read.
+ */
+final class ColumnView implements CharSequence {
+    private char[] chars;
+    // single byte encoded text, only used by the byte parser
+    private ByteBuffer bytes;
+    private int start;
+    private int length;
+    // holds the column when it had to be decoded or unescaped first
+    private char[] scratch = null;
+
+    void set(char[] chars, int start, int length) {
+        this.chars = chars;
+        this.bytes = null;
+        this.start = start;
+        this.length = length;
+    }
+
+    void set(ByteBuffer bytes, int start, int length) {
+        this.chars = null;
+        this.bytes = bytes;
+        this.start = start;
+        this.length = length;
+    }
+
+    /**
+     * Gets a holder of at least the given size to decode a column into, which
+     * is reused between records.
+     */
+    char[] scratch(int size) {
+        if (scratch == null || scratch.length < size) {
+            scratch = new char[Math.max(size, StaticSettings.INITIAL_COLUMN_BUFFER_SIZE)];
+        }
+
+        return scratch;
+    }
+
+    /**
+     * Collapses every doubled text qualifier in place.
+     *
+     * @return The length of the unescaped text.
+     */
+    static int unescape(char[] chars, int length, char textQualifier) {
+        int written = 0;
+
+        for (int i = 0; i < length; i++) {
+            char letter = chars[i];
+
+            if (letter == textQualifier && i + 1 < length && chars[i + 1] == textQualifier) {
+                i++;
+            }
+
+            chars[written++] = letter;
+        }
+
+        return written;
+    }
+
+    /**
+     * Hashes the contents the same way {@link String#hashCode()} does.
+     */
+    int hash() {
+        int hash = 0;
+
+        if (chars != null) {
+            for (int i = start; i < start + length; i++) {
+                hash = 31 * hash + chars[i];
+            }
+        } else {
+            for (int i = start; i < start + length; i++) {
+                hash = 31 * hash + (bytes.get(i) & 0xFF);
+            }
+        }
+
+        return hash;
+    }
+
+    /**
+     * Whether the contents are the same as the value, without creating a
+     * String for them.
+     */
+    boolean contentEquals(String value) {
+        if (value.length() != length) {
+            return false;
+        }
+
+        for (int i = 0; i < length; i++) {
+            char letter = chars != null ? chars[start + i] : (char) (bytes.get(start + i) & 0xFF);
+
+            if (letter != value.charAt(i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("Index " + index + " is out of range for length " + length + ".");
+        }
+
+        return chars != null ? chars[start + index] : (char) (bytes.get(start + index) & 0xFF);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException("Range " + start + " to " + end + " is out of range for length "
+                    + length + ".");
+        }
+
+        return toString(this.start + start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        return toString(start, length);
+    }
+
+    private String toString(int offset, int count) {
+        if (count == 0) {
+            return "";
+        } else if (chars != null) {
+            return new String(chars, offset, count);
+        }
+
+        char[] holder = new char[count];
+
+        for (int i = 0; i < count; i++) {
+            holder[i] = (char) (bytes.get(offset + i) & 0xFF);
+        }
+
+        return new String(holder);
+    }
+}
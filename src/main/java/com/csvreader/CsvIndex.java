@@ -0,0 +1,191 @@
+package com.csvreader;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * Where every so many records of a file start, so that a {@link CsvReader}
+ * can move to a record without parsing everything before it, see
+ * {@link CsvReader#seekToRecord(long)}. Indexes are built with
+ * {@link ParallelCsvReader#buildIndex(int)} and usually kept next to the file
+ * they belong to, see {@link #sidecarFileName(String)}.
+ * <p>
+ * Checkpoints are only placed where a record is known to start, never inside
+ * a text qualified column, so a reader resumes from one without any other
+ * state. The index remembers the settings it was built with and the size and
+ * modification time of the file, and is refused when those don't match.
+ */
+public final class CsvIndex {
+    // "CSVI"
+    private static final int MAGIC = 0x43535649;
+    private static final int VERSION = 1;
+
+    private final long fileSize;
+    private final long lastModified;
+    private final String settings;
+    private final long recordCount;
+    // the index of the first record after each checkpoint, and the byte
+    // offset it starts at, both ascending
+    private final long[] records;
+    private final long[] offsets;
+
+    CsvIndex(long fileSize, long lastModified, String settings, long recordCount, long[] records,
+            long[] offsets) {
+        this.fileSize = fileSize;
+        this.lastModified = lastModified;
+        this.settings = settings;
+        this.recordCount = recordCount;
+        this.records = records;
+        this.offsets = offsets;
+    }
+
+    /**
+     * Gets the name of the file an index for the given file is kept in by
+     * default.
+     *
+     * @param fileName The path to the indexed file.
+     * @return The path to the index file.
+     */
+    public static String sidecarFileName(String fileName) {
+        return fileName + ".idx";
+    }
+
+    /**
+     * Gets the number of records in the indexed file, including the headers.
+     *
+     * @return The number of records in the indexed file.
+     */
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Writes the index to a file.
+     *
+     * @param fileName The path to the index file.
+     * @exception IOException Thrown if the index file can not be written.
+     */
+    public void write(String fileName) throws IOException {
+        if (fileName == null) {
+            throw new IllegalArgumentException("Parameter fileName can not be null.");
+        }
+
+        try (DataOutputStream output = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(fileName)))) {
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeLong(fileSize);
+            output.writeLong(lastModified);
+            output.writeUTF(settings);
+            output.writeLong(recordCount);
+            output.writeInt(records.length);
+
+            for (int i = 0; i < records.length; i++) {
+                output.writeLong(records[i]);
+                output.writeLong(offsets[i]);
+            }
+        }
+    }
+
+    /**
+     * Reads an index from a file.
+     *
+     * @param fileName The path to the index file.
+     * @return The index.
+     * @exception IOException Thrown if the index file can not be read or isn't
+     *                        an index.
+     */
+    public static CsvIndex read(String fileName) throws IOException {
+        if (fileName == null) {
+            throw new IllegalArgumentException("Parameter fileName can not be null.");
+        }
+
+        try (DataInputStream input = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(fileName)))) {
+            if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+                throw new IOException("File " + fileName + " is not a record index.");
+            }
+
+            long fileSize = input.readLong();
+            long lastModified = input.readLong();
+            String settings = input.readUTF();
+            long recordCount = input.readLong();
+            int count = input.readInt();
+            long[] records = new long[count];
+            long[] offsets = new long[count];
+
+            for (int i = 0; i < count; i++) {
+                records[i] = input.readLong();
+                offsets[i] = input.readLong();
+            }
+
+            return new CsvIndex(fileSize, lastModified, settings, recordCount, records, offsets);
+        }
+    }
+
+    /**
+     * Whether the index was built for the file as it is now, read with these
+     * settings.
+     */
+    boolean matches(String fileName, Charset charset, UserSettings userSettings, boolean useCustomRecordDelimiter) {
+        File file = new File(fileName);
+
+        return file.length() == fileSize && file.lastModified() == lastModified
+                && settings.equals(describe(charset, userSettings, useCustomRecordDelimiter));
+    }
+
+    /**
+     * Finds the last checkpoint at or before a record.
+     *
+     * @return The index of the checkpoint, or -1 when there is none.
+     */
+    int findCheckpoint(long record) {
+        int found = Arrays.binarySearch(records, record);
+
+        if (found < 0) {
+            return -found - 2;
+        }
+
+        // several checkpoints can share a record when there are
+        // empty lines or comments between them, the last one skips them
+        while (found + 1 < records.length && records[found + 1] == record) {
+            found++;
+        }
+
+        return found;
+    }
+
+    long checkpointRecord(int checkpoint) {
+        return records[checkpoint];
+    }
+
+    long checkpointOffset(int checkpoint) {
+        return offsets[checkpoint];
+    }
+
+    /**
+     * Describes every setting that decides where records start.
+     */
+    static String describe(Charset charset, UserSettings userSettings, boolean useCustomRecordDelimiter) {
+        StringBuilder description = new StringBuilder();
+
+        description.append(charset.name());
+        description.append(' ').append((int) userSettings.delimiter());
+        description.append(' ').append(userSettings.useTextQualifier ? (int) userSettings.textQualifier() : -1);
+        description.append(' ').append(userSettings.escapeMode());
+        description.append(' ').append(useCustomRecordDelimiter ? (int) userSettings.recordDelimiter : -1);
+        description.append(' ').append(userSettings.useComments ? (int) userSettings.comment : -1);
+        description.append(' ').append(userSettings.trimWhitespace());
+        description.append(' ').append(userSettings.skipEmptyRecords);
+
+        return description.toString();
+    }
+}
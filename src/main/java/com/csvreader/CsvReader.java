@@ -21,6 +21,7 @@
 package com.csvreader;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
@@ -28,30 +29,106 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
-import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.text.NumberFormat;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * A stream based parser for parsing delimited text data from a file or a
  * stream.
+ * <p>
+ * Files and {@link java.io.InputStream InputStream}s that hold gzip
+ * compressed data are recognized by their first bytes, and inflated on a
+ * thread of their own while they are parsed.
  */
 public class CsvReader implements AutoCloseable {
+    // what skipDoubledRecords() is looking at
+    private static final int SKIP_BETWEEN = 0;
+    private static final int SKIP_PLAIN = 1;
+    private static final int SKIP_QUALIFIED = 2;
+    private static final int SKIP_QUALIFIER = 3;
+    private static final int SKIP_JUNK = 4;
+    private static final int SKIP_COMMENT = 5;
+    private static final ColumnView[] NO_VIEWS = new ColumnView[0];
+
     private Reader inputStream = null;
+    private InputStream byteStream = null;
+    // the data of an in-memory source, which is parsed in place as the data
+    // buffer instead of being copied into one, see parse(CharSequence)
+    private char[] source = null;
+    private int sourceStart = 0;
+    private int sourceEnd = 0;
+    // in-memory data that isn't an array, copied straight into the data
+    // buffer as it's needed
+    private CharSequence text = null;
+    private int textPosition = 0;
+    // what ISO-8859-1 and US-ASCII data is read into, kept when the reader is
+    // reset, see Latin1Reader
+    private byte[] latin1Buffer = null;
     private String fileName = null;
     // this holds all the values for switches that the user is allowed to set
     private final UserSettings userSettings;
     private Charset charset = null;
     private boolean useCustomRecordDelimiter = false;
+    // only set when the data is parsed as bytes, see
+    // UserSettings.withByteParsing
+    private ByteRecordParser byteParser = null;
     // this will be our working buffer to hold data chunks
-    // read in from the data file
-    private DataBuffer dataBuffer = new DataBuffer();
-    private ColumnBuffer columnBuffer = new ColumnBuffer();
-    private RawRecordBuffer rawBuffer = new RawRecordBuffer();
+    // read in from the data file, allocated on first use
+    // from the sizes in the user settings
+    private DataBuffer dataBuffer = null;
+    private ColumnBuffer columnBuffer = null;
+    private RawRecordBuffer rawBuffer = null;
+    // only set when the buffers are adaptively sized
+    private AdaptiveSize dataBufferSize = null;
+    private AdaptiveSize columnBufferSize = null;
+    private AdaptiveSize rawBufferSize = null;
+    // the sizes the buffers were allocated with, which they are shrunk back
+    // to, see UserSettings.withShrinkAfterRecords
+    private int dataBufferBaseline = 0;
+    private int columnBufferBaseline = 0;
+    private int rawBufferBaseline = 0;
+    private int recordsBelowBaseline = 0;
+    private long peakBufferCapacity = 0;
+    // only set when metrics are kept, see UserSettings.withMetrics
+    private ReaderMetrics metrics = null;
+    private int recordLength = 0;
+    // where the columns of the current record are, either in the data
+    // buffer or, when they had to be copied out of it, in the column buffer
+    private int[] columnStarts = null;
+    private int[] columnEnds = null;
+    private boolean[] columnBuffered = null;
+    // qualified columns that are still escaped, see UserSettings.withLazyColumns
+    private boolean[] columnEscaped = null;
+    private ColumnView[] views = NO_VIEWS;
+    // maps the index of a column in the data to its position in the
+    // projection, or -1 when it's left out, see setProjection
+    private int[] projection = null;
+    // indexed like values, null for columns that aren't interned
+    private InternCache[] internCaches = null;
+    private int projectedCount = 0;
     private boolean[] isQualified = null;
+    // null until the raw record of the last record read is asked for
     private String rawRecord = "";
-    private HeadersHolder headersHolder = new HeadersHolder();
+    // where the rest of the raw record is in the data buffer, after the part
+    // that was copied to the raw buffer when the data buffer was refilled
+    private int rawStart = 0;
+    private int rawLength = 0;
+    // set by the constructors, or taken over from a pooled reader
+    private HeadersHolder headersHolder;
     // these are all more or less global loop variables
     // to keep from needing to pass them all into various
     // methods during parsing
@@ -60,11 +137,29 @@ public class CsvReader implements AutoCloseable {
     private boolean hasMoreData = true;
     private char lastLetter = '\0';
     private boolean hasReadNextLine = false;
+    // length of a lazily read qualified column up to its closing
+    // qualifier, or -1 when the closing qualifier hasn't been found
+    private int qualifiedLength = -1;
+    private boolean hasEscapes = false;
     private int columnsCount = 0;
     private long currentRecord = 0;
-    private String[] values = new String[StaticSettings.INITIAL_COLUMN_COUNT];
+    private String[] values;
     private boolean initialized = false;
+    // where in the file the data source is opened, see seekToRecord
+    private long sourceOffset = 0;
+    private CsvIndex index = null;
+    // handed to every RecordConsumer, see forEach
+    private CsvRecord record = null;
+    // whether a stream is looked at for gzip compressed data, which the
+    // chunks of a file never are
+    private boolean detectCompression = true;
+    // records read by readHeaders, which getCurrentRecord doesn't count
+    private long headerRecords = 0;
     private boolean closed = false;
+    // only set for readers handed out by a pool, which take them back when
+    // they are closed
+    private CsvReaderPool pool = null;
+
     /**
      * Creates a {@link main.java.com.csvreader.CsvReader CsvReader} object using a
      * file as the data source.
@@ -91,7 +186,9 @@ public class CsvReader implements AutoCloseable {
         this.userSettings = new UserSettings().withDelimiter(delimiter);
         this.charset = charset;
 
+        values = new String[StaticSettings.INITIAL_COLUMN_COUNT];
         isQualified = new boolean[values.length];
+        headersHolder = new HeadersHolder();
     }
 
     /**
@@ -131,9 +228,10 @@ public class CsvReader implements AutoCloseable {
 
         this.inputStream = inputStream;
         this.userSettings = new UserSettings().withDelimiter(delimiter);
-        initialized = true;
 
+        values = new String[StaticSettings.INITIAL_COLUMN_COUNT];
         isQualified = new boolean[values.length];
+        headersHolder = new HeadersHolder();
     }
 
     /**
@@ -157,7 +255,23 @@ public class CsvReader implements AutoCloseable {
      *                    parsing the data.
      */
     public CsvReader(InputStream inputStream, char delimiter, Charset charset) {
-        this(new InputStreamReader(inputStream, charset), delimiter);
+        if (inputStream == null) {
+            throw new IllegalArgumentException("Parameter inputStream can not be null.");
+        }
+
+        if (charset == null) {
+            throw new IllegalArgumentException("Parameter charset can not be null.");
+        }
+
+        // the stream is only wrapped once the first record is read, when
+        // it's known whether it will be parsed as bytes or as characters
+        this.byteStream = inputStream;
+        this.userSettings = new UserSettings().withDelimiter(delimiter);
+        this.charset = charset;
+
+        values = new String[StaticSettings.INITIAL_COLUMN_COUNT];
+        isQualified = new boolean[values.length];
+        headersHolder = new HeadersHolder();
     }
 
     /**
@@ -170,7 +284,92 @@ public class CsvReader implements AutoCloseable {
      *                    parsing the data.
      */
     public CsvReader(InputStream inputStream, Charset charset) {
-        this(new InputStreamReader(inputStream, charset));
+        this(inputStream, Letters.COMMA, charset);
+    }
+
+    /**
+     * Creates a reader over one chunk of a file that uses the settings of a
+     * {@link ParallelCsvReader}. The settings are shared, not copied.
+     */
+    CsvReader(InputStream inputStream, Charset charset, UserSettings userSettings,
+            boolean useCustomRecordDelimiter) {
+        this.byteStream = inputStream;
+        this.userSettings = userSettings;
+        this.charset = charset;
+        this.useCustomRecordDelimiter = useCustomRecordDelimiter;
+        this.detectCompression = false;
+
+        values = new String[StaticSettings.INITIAL_COLUMN_COUNT];
+        isQualified = new boolean[values.length];
+        headersHolder = new HeadersHolder();
+    }
+
+    /**
+     * Creates a reader for an in-memory source, which is set afterwards.
+     */
+    private CsvReader(char delimiter) {
+        this.userSettings = new UserSettings().withDelimiter(delimiter);
+
+        values = new String[StaticSettings.INITIAL_COLUMN_COUNT];
+        isQualified = new boolean[values.length];
+        headersHolder = new HeadersHolder();
+    }
+
+    /**
+     * Creates a reader for a {@link CsvReaderPool} that uses the settings of
+     * the pool. The settings are shared, not copied. It has no data source
+     * until it is {@link #reset(Reader) reset}.
+     */
+    CsvReader(CsvReaderPool pool, UserSettings userSettings) {
+        this.pool = pool;
+        this.userSettings = userSettings;
+        this.closed = true;
+
+        values = new String[StaticSettings.INITIAL_COLUMN_COUNT];
+        isQualified = new boolean[values.length];
+        headersHolder = new HeadersHolder();
+    }
+
+    /**
+     * Creates a reader for a {@link CsvReaderPool} that takes over the buffers
+     * of a reader of the pool that was closed. Every reader handed out is a
+     * new one, so a reference to a reader that was closed before can't close
+     * or use the buffers again once they are handed out to somebody else. The
+     * previous reader stays closed for good. A projection or interned columns
+     * set on the previous reader don't carry over.
+     */
+    CsvReader(CsvReaderPool pool, UserSettings userSettings, CsvReader previous) {
+        this.pool = pool;
+        this.userSettings = userSettings;
+        this.closed = true;
+
+        latin1Buffer = previous.latin1Buffer;
+        dataBuffer = previous.dataBuffer;
+        columnBuffer = previous.columnBuffer;
+        rawBuffer = previous.rawBuffer;
+        dataBufferSize = previous.dataBufferSize;
+        columnBufferSize = previous.columnBufferSize;
+        rawBufferSize = previous.rawBufferSize;
+        dataBufferBaseline = previous.dataBufferBaseline;
+        columnBufferBaseline = previous.columnBufferBaseline;
+        rawBufferBaseline = previous.rawBufferBaseline;
+        metrics = previous.metrics;
+        columnStarts = previous.columnStarts;
+        columnEnds = previous.columnEnds;
+        columnBuffered = previous.columnBuffered;
+        columnEscaped = previous.columnEscaped;
+        views = previous.views;
+        isQualified = previous.isQualified;
+        values = previous.values;
+        headersHolder = previous.headersHolder;
+
+        // the previous reader keeps nothing but its closed state, its getters
+        // check that before looking at anything else
+        previous.pool = null;
+        previous.latin1Buffer = null;
+        previous.dataBuffer = null;
+        previous.columnBuffer = null;
+        previous.rawBuffer = null;
     }
 
     public boolean getCaptureRawRecord() {
@@ -182,6 +381,20 @@ public class CsvReader implements AutoCloseable {
     }
 
     public String getRawRecord() {
+        if (rawRecord == null) {
+            // created on demand, decoded first when parsing bytes
+            if (byteParser != null) {
+                rawRecord = byteParser.rawRecord();
+            } else if (rawBuffer.position == 0) {
+                rawRecord = new String(dataBuffer.buffer, rawStart, rawLength);
+            } else if (rawLength == 0) {
+                rawRecord = new String(rawBuffer.buffer, 0, rawBuffer.position);
+            } else {
+                rawRecord = new String(rawBuffer.buffer, 0, rawBuffer.position)
+                        + new String(dataBuffer.buffer, rawStart, rawLength);
+            }
+        }
+
         return rawRecord;
     }
 
@@ -189,6 +402,15 @@ public class CsvReader implements AutoCloseable {
         return userSettings;
     }
 
+    /**
+     * Whether there is still data after the last record that was read. It's
+     * only false once a record has been ended by the end of the data instead
+     * of a record delimiter.
+     */
+    boolean hasMoreData() {
+        return byteParser != null ? byteParser.hasMoreData() : hasMoreData;
+    }
+
     public char getRecordDelimiter() {
         return userSettings.recordDelimiter;
     }
@@ -314,6 +536,94 @@ public class CsvReader implements AutoCloseable {
         return currentRecord - 1;
     }
 
+    /**
+     * Gets the counters this reader keeps when
+     * {@link UserSettings#withMetrics(boolean)} is set. They are the same
+     * object for the life of the reader, and keep counting when it's reset to
+     * another data source.
+     * 
+     * @return The counters, or null when no metrics are kept.
+     */
+    public ReaderMetrics getMetrics() {
+        if (metrics == null && userSettings.metrics()) {
+            metrics = new ReaderMetrics();
+
+            if (byteParser != null) {
+                byteParser.metrics = metrics;
+            }
+        }
+
+        return metrics;
+    }
+
+    /**
+     * Gets how much the buffers of this reader can hold right now, in
+     * characters, or in bytes when the data is parsed as bytes. Data in memory
+     * that is parsed in place and memory mapped files don't count.
+     * 
+     * @return The capacity of the buffers.
+     */
+    public long getBufferCapacity() {
+        if (byteParser != null) {
+            return byteParser.capacity();
+        } else if (columnBuffer == null) {
+            return 0;
+        }
+
+        return (source == null && dataBuffer != null ? (long) dataBuffer.buffer.length : 0)
+                + columnBuffer.buffer.length + rawBuffer.buffer.length;
+    }
+
+    /**
+     * Gets the largest {@link #getBufferCapacity()} since the data source was
+     * opened.
+     * 
+     * @return The peak capacity of the buffers.
+     */
+    public long getPeakBufferCapacity() {
+        return Math.max(peakBufferCapacity, byteParser != null ? byteParser.peakCapacity() : 0);
+    }
+
+    /**
+     * Shrinks the buffers that grew for a larger record back to the sizes they
+     * were allocated with, keeping what the current record and the data read
+     * after it still need. This happens on its own after
+     * {@link UserSettings#shrinkAfterRecords()} smaller records, calling it is
+     * for readers that are about to sit idle.
+     */
+    public void trimBuffers() {
+        if (byteParser != null) {
+            byteParser.trimBuffer();
+        } else if (columnBuffer != null) {
+            // a closed reader doesn't need anything it holds
+            columnBuffer.buffer = trimmed(columnBuffer.buffer, closed ? 0 : columnBuffer.position,
+                    columnBufferBaseline);
+            rawBuffer.buffer = trimmed(rawBuffer.buffer, closed ? 0 : rawBuffer.position, rawBufferBaseline);
+
+            if (source == null && dataBuffer != null) {
+                // positions in the data buffer stay where they are
+                dataBuffer.buffer = trimmed(dataBuffer.buffer, closed ? 0 : dataBuffer.count,
+                        dataBufferBaseline);
+            }
+
+            recordsBelowBaseline = 0;
+        }
+    }
+
+    private static char[] trimmed(char[] buffer, int used, int baseline) {
+        int length = Math.max(used, baseline);
+
+        if (buffer.length <= length) {
+            return buffer;
+        }
+
+        char[] holder = new char[length];
+
+        System.arraycopy(buffer, 0, holder, 0, used);
+
+        return holder;
+    }
+
     /**
      * Gets the count of headers read in by a previous call to
      * {@link main.java.com.csvreader.CsvReader#readHeaders readHeaders()}.
@@ -362,11 +672,19 @@ public class CsvReader implements AutoCloseable {
         for (int i = 0; i < headersHolder.length; i++) {
             headersHolder.indexByName.put(headers[i], i);
         }
+
+        headersHolder.buildLookup();
     }
 
     public String[] getValues() throws IOException {
         checkClosed();
 
+        for (int i = 0; i < columnsCount; i++) {
+            if (values[i] == null) {
+                values[i] = createValue(i);
+            }
+        }
+
         // need to return a clone, and can't use clone because values.Length
         // might be greater than columnsCount
         String[] clone = new String[columnsCount];
@@ -387,938 +705,2810 @@ public class CsvReader implements AutoCloseable {
         checkClosed();
 
         if (columnIndex > -1 && columnIndex < columnsCount) {
-            return values[columnIndex];
+            String value = values[columnIndex];
+
+            if (value == null) {
+                value = values[columnIndex] = createValue(columnIndex);
+            }
+
+            return value;
         } else {
             return "";
         }
     }
 
     /**
-     * Returns the current column value for a given column header name.
-     * 
-     * @param headerName
-     *                   The header name of the column.
-     * @return The current column value.
-     * @exception IOException Thrown if this object has already been closed.
+     * Creates the value of a column of the current record from the bounds
+     * recorded while parsing.
      */
-    public String get(String headerName) throws IOException {
-        checkClosed();
+    private String createValue(int columnIndex) {
+        if (internCaches != null && columnIndex < internCaches.length && internCaches[columnIndex] != null) {
+            return internCaches[columnIndex].intern(view(columnIndex));
+        }
 
-        return get(getIndex(headerName));
-    }
+        if (byteParser != null) {
+            return byteParser.decode(columnIndex);
+        }
 
-    /**
-     * Creates a {@link main.java.com.csvreader.CsvReader CsvReader} object using a
-     * string of data as the source. Uses ISO-8859-1 as the
-     * {@link java.nio.charset.Charset Charset}.
-     * 
-     * @param data The String of data to use as the source.
-     * @return A {@link main.java.com.csvreader.CsvReader CsvReader} object using
-     *         the String of data as the source.
-     */
-    public static CsvReader parse(String data) {
-        if (data == null) {
-            throw new IllegalArgumentException(
-                    "Parameter data can not be null.");
+        int start = columnStarts[columnIndex];
+        int length = columnEnds[columnIndex] - start;
+
+        if (length == 0) {
+            return "";
         }
 
-        return new CsvReader(new StringReader(data));
+        String value = new String(columnBuffered[columnIndex] ? columnBuffer.buffer : dataBuffer.buffer,
+                start, length);
+
+        if (columnEscaped[columnIndex]) {
+            value = CsvWriter.replace(value, userSettings.textQualifierEscaped(),
+                    userSettings.textQualifierPattern());
+        }
+
+        return value;
     }
 
     /**
-     * Reads another record.
+     * Returns the current column value for a given column index as a view
+     * over the reader's buffers, so no String needs to be created for it. The
+     * returned view is reused and is only valid until the next call to
+     * {@link main.java.com.csvreader.CsvReader#readRecord readRecord()},
+     * copy it with toString() to keep the value around.
      * 
-     * @return Whether another record was successfully read or not.
-     * @exception IOException Thrown if an error occurs while reading data from the
-     *                        source stream.
+     * @param columnIndex
+     *                    The index of the column.
+     * @return The current column value.
+     * @exception IOException
+     *                        Thrown if this object has already been closed.
      */
-    public boolean readRecord() throws IOException {
+    public CharSequence getCharSequence(int columnIndex) throws IOException {
         checkClosed();
 
-        columnsCount = 0;
-        rawBuffer.position = 0;
-
-        dataBuffer.lineStart = dataBuffer.position;
-
-        hasReadNextLine = false;
-
-        // check to see if we've already found the end of data
-
-        if (hasMoreData) {
-            // loop over the data stream until the end of data is found
-            // or the end of the record is found
-
-            do {
-                if (dataBuffer.position == dataBuffer.count) {
-                    checkDataLength();
-                } else {
-                    startedWithQualifier = false;
-
-                    // grab the current letter as a char
-
-                    char currentLetter = dataBuffer.buffer[dataBuffer.position];
-
-                    if (userSettings.useTextQualifier && currentLetter == userSettings.textQualifier()) {
-                        // this will be a text qualified column, so
-                        // we need to set startedWithQualifier to make it
-                        // enter the seperate branch to handle text
-                        // qualified columns
-
-                        lastLetter = currentLetter;
-
-                        // read qualified
-                        startedColumn = true;
-                        dataBuffer.columnStart = dataBuffer.position + 1;
-                        startedWithQualifier = true;
-                        boolean lastLetterWasQualifier = false;
-
-                        char escapeChar = userSettings.textQualifier();
-
-                        if (userSettings.escapeMode() == EscapeMode.BACKSLASH) {
-                            escapeChar = Letters.BACKSLASH;
-                        }
-
-                        boolean eatingTrailingJunk = false;
-                        boolean lastLetterWasEscape = false;
-                        boolean readingComplexEscape = false;
-                        ComplexEscape escape = ComplexEscape.UNICODE;
-                        int escapeLength = 0;
-                        char escapeValue = (char) 0;
-
-                        dataBuffer.position++;
-
-                        do {
-                            if (dataBuffer.position == dataBuffer.count) {
-                                checkDataLength();
-                            } else {
-                                // grab the current letter as a char
-
-                                currentLetter = dataBuffer.buffer[dataBuffer.position];
-
-                                if (eatingTrailingJunk) {
-                                    dataBuffer.columnStart = dataBuffer.position + 1;
-
-                                    if (currentLetter == userSettings.delimiter()) {
-                                        endColumn();
-                                    } else if ((!useCustomRecordDelimiter
-                                            && (currentLetter == Letters.CR || currentLetter == Letters.LF))
-                                            || (useCustomRecordDelimiter
-                                                    && currentLetter == userSettings.recordDelimiter)) {
-                                        endColumn();
-
-                                        endRecord();
-                                    }
-                                } else if (readingComplexEscape) {
-                                    escapeLength++;
-
-                                    switch (escape) {
-                                        case UNICODE:
-                                            escapeValue *= (char) 16;
-                                            escapeValue += hexToDec(currentLetter);
-
-                                            if (escapeLength == 4) {
-                                                readingComplexEscape = false;
-                                            }
-
-                                            break;
-                                        case OCTAL:
-                                            escapeValue *= (char) 8;
-                                            escapeValue += (char) (currentLetter - '0');
-
-                                            if (escapeLength == 3) {
-                                                readingComplexEscape = false;
-                                            }
-
-                                            break;
-                                        case DECIMAL:
-                                            escapeValue *= (char) 10;
-                                            escapeValue += (char) (currentLetter - '0');
-
-                                            if (escapeLength == 3) {
-                                                readingComplexEscape = false;
-                                            }
-
-                                            break;
-                                        case HEX:
-                                            escapeValue *= (char) 16;
-                                            escapeValue += hexToDec(currentLetter);
-
-                                            if (escapeLength == 2) {
-                                                readingComplexEscape = false;
-                                            }
-
-                                            break;
-                                    }
-
-                                    if (!readingComplexEscape) {
-                                        appendLetter(escapeValue);
-                                    } else {
-                                        dataBuffer.columnStart = dataBuffer.position + 1;
-                                    }
-                                } else if (currentLetter == userSettings.textQualifier()) {
-                                    if (lastLetterWasEscape) {
-                                        lastLetterWasEscape = false;
-                                        lastLetterWasQualifier = false;
-                                    } else {
-                                        updateCurrentValue();
-
-                                        if (userSettings.escapeMode() == EscapeMode.DOUBLED) {
-                                            lastLetterWasEscape = true;
-                                        }
-
-                                        lastLetterWasQualifier = true;
-                                    }
-                                } else if (userSettings.escapeMode() == EscapeMode.BACKSLASH
-                                        && lastLetterWasEscape) {
-                                    switch (currentLetter) {
-                                        case 'n':
-                                            appendLetter(Letters.LF);
-                                            break;
-                                        case 'r':
-                                            appendLetter(Letters.CR);
-                                            break;
-                                        case 't':
-                                            appendLetter(Letters.TAB);
-                                            break;
-                                        case 'b':
-                                            appendLetter(Letters.BACKSPACE);
-                                            break;
-                                        case 'f':
-                                            appendLetter(Letters.FORM_FEED);
-                                            break;
-                                        case 'e':
-                                            appendLetter(Letters.ESCAPE);
-                                            break;
-                                        case 'v':
-                                            appendLetter(Letters.VERTICAL_TAB);
-                                            break;
-                                        case 'a':
-                                            appendLetter(Letters.ALERT);
-                                            break;
-                                        case '0':
-                                        case '1':
-                                        case '2':
-                                        case '3':
-                                        case '4':
-                                        case '5':
-                                        case '6':
-                                        case '7':
-                                            escape = ComplexEscape.OCTAL;
-                                            readingComplexEscape = true;
-                                            escapeLength = 1;
-                                            escapeValue = (char) (currentLetter - '0');
-                                            dataBuffer.columnStart = dataBuffer.position + 1;
-                                            break;
-                                        case 'u':
-                                        case 'x':
-                                        case 'o':
-                                        case 'd':
-                                        case 'U':
-                                        case 'X':
-                                        case 'O':
-                                        case 'D':
-                                            switch (currentLetter) {
-                                                case 'u':
-                                                case 'U':
-                                                    escape = ComplexEscape.UNICODE;
-                                                    break;
-                                                case 'x':
-                                                case 'X':
-                                                    escape = ComplexEscape.HEX;
-                                                    break;
-                                                case 'o':
-                                                case 'O':
-                                                    escape = ComplexEscape.OCTAL;
-                                                    break;
-                                                case 'd':
-                                                case 'D':
-                                                    escape = ComplexEscape.DECIMAL;
-                                                    break;
-                                            }
-
-                                            readingComplexEscape = true;
-                                            escapeLength = 0;
-                                            escapeValue = (char) 0;
-                                            dataBuffer.columnStart = dataBuffer.position + 1;
-
-                                            break;
-                                        default:
-                                            break;
-                                    }
-
-                                    lastLetterWasEscape = false;
-
-                                    // can only happen for ESCAPE_MODE_BACKSLASH
-                                } else if (currentLetter == escapeChar) {
-                                    updateCurrentValue();
-                                    lastLetterWasEscape = true;
-                                } else {
-                                    if (lastLetterWasQualifier) {
-                                        if (currentLetter == userSettings.delimiter()) {
-                                            endColumn();
-                                        } else if ((!useCustomRecordDelimiter
-                                                && (currentLetter == Letters.CR || currentLetter == Letters.LF))
-                                                || (useCustomRecordDelimiter
-                                                        && currentLetter == userSettings.recordDelimiter)) {
-                                            endColumn();
-
-                                            endRecord();
-                                        } else {
-                                            dataBuffer.columnStart = dataBuffer.position + 1;
-
-                                            eatingTrailingJunk = true;
-                                        }
-
-                                        // make sure to clear the flag for next
-                                        // run of the loop
-
-                                        lastLetterWasQualifier = false;
-                                    }
-                                }
-
-                                // keep track of the last letter because we need
-                                // it for several key decisions
-
-                                lastLetter = currentLetter;
-
-                                if (startedColumn) {
-                                    dataBuffer.position++;
-
-                                    if (userSettings.safetySwitch && dataBuffer.position - dataBuffer.columnStart
-                                            + columnBuffer.position > 100000) {
-                                        close();
-
-                                        throw new IOException("Maximum column length of 100,000 exceeded in column "
-                                                + NumberFormat.getIntegerInstance().format(columnsCount)
-                                                + " in record "
-                                                + NumberFormat
-                                                        .getIntegerInstance()
-                                                        .format(
-                                                                currentRecord)
-                                                + ". Set the SafetySwitch property to false"
-                                                + " if you're expecting column lengths greater than 100,000 characters to"
-                                                + " avoid this error.");
-                                    }
-                                }
-                            } // end else
-
-                        } while (hasMoreData && startedColumn);
-                    } else if (currentLetter == userSettings.delimiter()) {
-                        // we encountered a column with no data, so
-                        // just send the end column
-
-                        lastLetter = currentLetter;
-
-                        endColumn();
-                    } else if (useCustomRecordDelimiter
-                            && currentLetter == userSettings.recordDelimiter) {
-                        // this will skip blank lines
-                        if (startedColumn || columnsCount > 0
-                                || !userSettings.skipEmptyRecords) {
-                            endColumn();
-
-                            endRecord();
-                        } else {
-                            dataBuffer.lineStart = dataBuffer.position + 1;
-                        }
-
-                        lastLetter = currentLetter;
-                    } else if (!useCustomRecordDelimiter
-                            && (currentLetter == Letters.CR || currentLetter == Letters.LF)) {
-                        // this will skip blank lines
-                        if (startedColumn
-                                || columnsCount > 0
-                                || (!userSettings.skipEmptyRecords
-                                        && (currentLetter == Letters.CR || lastLetter != Letters.CR))) {
-                            endColumn();
-
-                            endRecord();
-                        } else {
-                            dataBuffer.lineStart = dataBuffer.position + 1;
-                        }
-
-                        lastLetter = currentLetter;
-                    } else if (userSettings.useComments && columnsCount == 0
-                            && currentLetter == userSettings.comment) {
-                        // encountered a comment character at the beginning of
-                        // the line so just ignore the rest of the line
+        if (columnIndex > -1 && columnIndex < columnsCount) {
+            return view(columnIndex);
+        } else {
+            return "";
+        }
+    }
 
-                        lastLetter = currentLetter;
+    /**
+     * Points the view of a column of the current record at its contents.
+     */
+    private ColumnView view(int columnIndex) {
+        if (columnIndex >= views.length) {
+            ColumnView[] holder = new ColumnView[Math.max(columnsCount, views.length * 2)];
 
-                        skipLine();
-                    } else if (userSettings.trimWhitespace()
-                            && (currentLetter == Letters.SPACE || currentLetter == Letters.TAB)) {
-                        // do nothing, this will trim leading whitespace
-                        // for both text qualified columns and non
+            System.arraycopy(views, 0, holder, 0, views.length);
 
-                        startedColumn = true;
-                        dataBuffer.columnStart = dataBuffer.position + 1;
-                    } else {
-                        // since the letter wasn't a special letter, this
-                        // will be the first letter of our current column
+            views = holder;
+        }
 
-                        startedColumn = true;
-                        dataBuffer.columnStart = dataBuffer.position;
-                        boolean lastLetterWasBackslash = false;
-                        boolean readingComplexEscape = false;
-                        ComplexEscape escape = ComplexEscape.UNICODE;
-                        int escapeLength = 0;
-                        char escapeValue = (char) 0;
-
-                        boolean firstLoop = true;
-
-                        do {
-                            if (!firstLoop
-                                    && dataBuffer.position == dataBuffer.count) {
-                                checkDataLength();
-                            } else {
-                                if (!firstLoop) {
-                                    // grab the current letter as a char
-                                    currentLetter = dataBuffer.buffer[dataBuffer.position];
-                                }
-
-                                if (!userSettings.useTextQualifier
-                                        && userSettings.escapeMode() == EscapeMode.BACKSLASH
-                                        && currentLetter == Letters.BACKSLASH) {
-                                    if (lastLetterWasBackslash) {
-                                        lastLetterWasBackslash = false;
-                                    } else {
-                                        updateCurrentValue();
-                                        lastLetterWasBackslash = true;
-                                    }
-                                } else if (readingComplexEscape) {
-                                    escapeLength++;
-
-                                    switch (escape) {
-                                        case UNICODE:
-                                            escapeValue *= (char) 16;
-                                            escapeValue += hexToDec(currentLetter);
-
-                                            if (escapeLength == 4) {
-                                                readingComplexEscape = false;
-                                            }
-
-                                            break;
-                                        case OCTAL:
-                                            escapeValue *= (char) 8;
-                                            escapeValue += (char) (currentLetter - '0');
-
-                                            if (escapeLength == 3) {
-                                                readingComplexEscape = false;
-                                            }
-
-                                            break;
-                                        case DECIMAL:
-                                            escapeValue *= (char) 10;
-                                            escapeValue += (char) (currentLetter - '0');
-
-                                            if (escapeLength == 3) {
-                                                readingComplexEscape = false;
-                                            }
-
-                                            break;
-                                        case HEX:
-                                            escapeValue *= (char) 16;
-                                            escapeValue += hexToDec(currentLetter);
-
-                                            if (escapeLength == 2) {
-                                                readingComplexEscape = false;
-                                            }
-
-                                            break;
-                                    }
-
-                                    if (!readingComplexEscape) {
-                                        appendLetter(escapeValue);
-                                    } else {
-                                        dataBuffer.columnStart = dataBuffer.position + 1;
-                                    }
-                                } else if (userSettings.escapeMode() == EscapeMode.BACKSLASH
-                                        && lastLetterWasBackslash) {
-                                    switch (currentLetter) {
-                                        case 'n':
-                                            appendLetter(Letters.LF);
-                                            break;
-                                        case 'r':
-                                            appendLetter(Letters.CR);
-                                            break;
-                                        case 't':
-                                            appendLetter(Letters.TAB);
-                                            break;
-                                        case 'b':
-                                            appendLetter(Letters.BACKSPACE);
-                                            break;
-                                        case 'f':
-                                            appendLetter(Letters.FORM_FEED);
-                                            break;
-                                        case 'e':
-                                            appendLetter(Letters.ESCAPE);
-                                            break;
-                                        case 'v':
-                                            appendLetter(Letters.VERTICAL_TAB);
-                                            break;
-                                        case 'a':
-                                            appendLetter(Letters.ALERT);
-                                            break;
-                                        case '0':
-                                        case '1':
-                                        case '2':
-                                        case '3':
-                                        case '4':
-                                        case '5':
-                                        case '6':
-                                        case '7':
-                                            escape = ComplexEscape.OCTAL;
-                                            readingComplexEscape = true;
-                                            escapeLength = 1;
-                                            escapeValue = (char) (currentLetter - '0');
-                                            dataBuffer.columnStart = dataBuffer.position + 1;
-                                            break;
-                                        case 'u':
-                                        case 'x':
-                                        case 'o':
-                                        case 'd':
-                                        case 'U':
-                                        case 'X':
-                                        case 'O':
-                                        case 'D':
-                                            switch (currentLetter) {
-                                                case 'u':
-                                                case 'U':
-                                                    escape = ComplexEscape.UNICODE;
-                                                    break;
-                                                case 'x':
-                                                case 'X':
-                                                    escape = ComplexEscape.HEX;
-                                                    break;
-                                                case 'o':
-                                                case 'O':
-                                                    escape = ComplexEscape.OCTAL;
-                                                    break;
-                                                case 'd':
-                                                case 'D':
-                                                    escape = ComplexEscape.DECIMAL;
-                                                    break;
-                                            }
-
-                                            readingComplexEscape = true;
-                                            escapeLength = 0;
-                                            escapeValue = (char) 0;
-                                            dataBuffer.columnStart = dataBuffer.position + 1;
-
-                                            break;
-                                        default:
-                                            break;
-                                    }
-
-                                    lastLetterWasBackslash = false;
-                                } else {
-                                    if (currentLetter == userSettings.delimiter()) {
-                                        endColumn();
-                                    } else if ((!useCustomRecordDelimiter
-                                            && (currentLetter == Letters.CR || currentLetter == Letters.LF))
-                                            || (useCustomRecordDelimiter
-                                                    && currentLetter == userSettings.recordDelimiter)) {
-                                        endColumn();
-
-                                        endRecord();
-                                    }
-                                }
-
-                                // keep track of the last letter because we need
-                                // it for several key decisions
-
-                                lastLetter = currentLetter;
-                                firstLoop = false;
-
-                                if (startedColumn) {
-                                    dataBuffer.position++;
-
-                                    if (userSettings.safetySwitch
-                                            && dataBuffer.position
-                                                    - dataBuffer.columnStart
-                                                    + columnBuffer.position > 100000) {
-                                        close();
-
-                                        throw new IOException(
-                                                "Maximum column length of 100,000 exceeded in column "
-                                                        + NumberFormat
-                                                                .getIntegerInstance()
-                                                                .format(
-                                                                        columnsCount)
-                                                        + " in record "
-                                                        + NumberFormat
-                                                                .getIntegerInstance()
-                                                                .format(
-                                                                        currentRecord)
-                                                        + ". Set the SafetySwitch property to false"
-                                                        + " if you're expecting column lengths greater than 100,000 characters to"
-                                                        + " avoid this error.");
-                                    }
-                                }
-                            } // end else
-                        } while (hasMoreData && startedColumn);
-                    }
+        ColumnView view = views[columnIndex];
 
-                    if (hasMoreData) {
-                        dataBuffer.position++;
-                    }
-                } // end else
-            } while (hasMoreData && !hasReadNextLine);
+        if (view == null) {
+            view = views[columnIndex] = new ColumnView();
+        }
 
-            // check to see if we hit the end of the file
-            // without processing the current record
+        if (byteParser != null) {
+            byteParser.view(columnIndex, view);
+        } else {
+            char[] source = columnBuffered[columnIndex] ? columnBuffer.buffer : dataBuffer.buffer;
+            int start = columnStarts[columnIndex];
+            int length = columnEnds[columnIndex] - start;
 
-            if (startedColumn || lastLetter == userSettings.delimiter()) {
-                endColumn();
+            if (columnEscaped[columnIndex]) {
+                char[] chars = view.scratch(length);
 
-                endRecord();
-            }
-        }
+                System.arraycopy(source, start, chars, 0, length);
 
-        if (userSettings.captureRawRecord) {
-            if (hasMoreData) {
-                if (rawBuffer.position == 0) {
-                    rawRecord = new String(dataBuffer.buffer,
-                            dataBuffer.lineStart, dataBuffer.position
-                                    - dataBuffer.lineStart - 1);
-                } else {
-                    rawRecord = new String(rawBuffer.buffer, 0,
-                            rawBuffer.position)
-                            + new String(dataBuffer.buffer,
-                                    dataBuffer.lineStart, dataBuffer.position
-                                            - dataBuffer.lineStart - 1);
-                }
+                view.set(chars, 0, ColumnView.unescape(chars, length, userSettings.textQualifier()));
             } else {
-                // for hasMoreData to ever be false, all data would have had to
-                // have been
-                // copied to the raw buffer
-                rawRecord = new String(rawBuffer.buffer, 0, rawBuffer.position);
+                view.set(source, start, length);
             }
-        } else {
-            rawRecord = "";
         }
 
-        return hasReadNextLine;
+        return view;
     }
 
     /**
-     * @exception IOException Thrown if an error occurs while reading data from the
-     *                        source stream.
+     * Returns the current column value for a given column header name as a
+     * view over the reader's buffers. The returned view is only valid until
+     * the next call to {@link main.java.com.csvreader.CsvReader#readRecord
+     * readRecord()}.
+     * 
+     * @param headerName
+     *                   The header name of the column.
+     * @return The current column value.
+     * @exception IOException Thrown if this object has already been closed.
      */
-    private void checkDataLength() throws IOException {
-        if (!initialized) {
-            if (fileName != null) {
-                inputStream = new BufferedReader(new InputStreamReader(
-                        new FileInputStream(fileName), charset),
-                        StaticSettings.MAX_FILE_BUFFER_SIZE);
-            }
-
-            charset = null;
-            initialized = true;
-        }
-
-        updateCurrentValue();
-
-        if (userSettings.captureRawRecord && dataBuffer.count > 0) {
-            if (rawBuffer.buffer.length - rawBuffer.position < dataBuffer.count
-                    - dataBuffer.lineStart) {
-                int newLength = rawBuffer.buffer.length
-                        + Math.max(dataBuffer.count - dataBuffer.lineStart,
-                                rawBuffer.buffer.length);
-
-                char[] holder = new char[newLength];
-
-                System.arraycopy(rawBuffer.buffer, 0, holder, 0,
-                        rawBuffer.position);
-
-                rawBuffer.buffer = holder;
-            }
+    public CharSequence getCharSequence(String headerName) throws IOException {
+        checkClosed();
 
-            System.arraycopy(dataBuffer.buffer, dataBuffer.lineStart,
-                    rawBuffer.buffer, rawBuffer.position, dataBuffer.count
-                            - dataBuffer.lineStart);
+        return getCharSequence(getIndex(headerName));
+    }
 
-            rawBuffer.position += dataBuffer.count - dataBuffer.lineStart;
-        }
+    /**
+     * Returns the current column value for a given column index as an int. The
+     * value is parsed straight from the reader's buffers, without creating a
+     * String. Surrounding spaces and tabs are ignored when whitespace is
+     * trimmed, also in text qualified columns.
+     * 
+     * @param columnIndex
+     *                    The index of the column.
+     * @return The current column value as an int.
+     * @exception IOException
+     *                        Thrown if this object has already been closed.
+     * @exception NumberFormatException
+     *                        Thrown if the column doesn't hold a valid int.
+     */
+    public int getInt(int columnIndex) throws IOException {
+        CharSequence value = getCharSequence(columnIndex);
 
         try {
-            dataBuffer.count = inputStream.read(dataBuffer.buffer, 0,
-                    dataBuffer.buffer.length);
-        } catch (IOException ex) {
-            close();
-
-            throw ex;
+            return (int) FieldParser.parseLong(value, userSettings.trimWhitespace(), Integer.MIN_VALUE,
+                    Integer.MAX_VALUE);
+        } catch (NumberFormatException ex) {
+            throw new NumberFormatException(invalidValueMessage(columnIndex, "int", value));
         }
-
-        // if no more data could be found, set flag stating that
-        // the end of the data was found
-
-        if (dataBuffer.count == -1) {
-            hasMoreData = false;
-        }
-
-        dataBuffer.position = 0;
-        dataBuffer.lineStart = 0;
-        dataBuffer.columnStart = 0;
     }
 
     /**
-     * Read the first record of data as column headers.
+     * Returns the current column value for a given column header name as an
+     * int, see {@link main.java.com.csvreader.CsvReader#getInt(int)
+     * getInt(int)}.
      * 
-     * @return Whether the header record was successfully read or not.
-     * @exception IOException Thrown if an error occurs while reading data from the
-     *                        source stream.
+     * @param headerName
+     *                   The header name of the column.
+     * @return The current column value as an int.
+     * @exception IOException Thrown if this object has already been closed.
      */
-    public boolean readHeaders() throws IOException {
-        boolean result = readRecord();
+    public int getInt(String headerName) throws IOException {
+        checkClosed();
 
-        // copy the header data from the column array
-        // to the header string array
+        return getInt(getIndex(headerName));
+    }
+
+    /**
+     * Returns the current column value for a given column index as a long. The
+     * value is parsed straight from the reader's buffers, without creating a
+     * String. Surrounding spaces and tabs are ignored when whitespace is
+     * trimmed, also in text qualified columns.
+     * 
+     * @param columnIndex
+     *                    The index of the column.
+     * @return The current column value as a long.
+     * @exception IOException
+     *                        Thrown if this object has already been closed.
+     * @exception NumberFormatException
+     *                        Thrown if the column doesn't hold a valid long.
+     */
+    public long getLong(int columnIndex) throws IOException {
+        CharSequence value = getCharSequence(columnIndex);
+
+        try {
+            return FieldParser.parseLong(value, userSettings.trimWhitespace(), Long.MIN_VALUE, Long.MAX_VALUE);
+        } catch (NumberFormatException ex) {
+            throw new NumberFormatException(invalidValueMessage(columnIndex, "long", value));
+        }
+    }
+
+    /**
+     * Returns the current column value for a given column header name as a
+     * long, see {@link main.java.com.csvreader.CsvReader#getLong(int)
+     * getLong(int)}.
+     * 
+     * @param headerName
+     *                   The header name of the column.
+     * @return The current column value as a long.
+     * @exception IOException Thrown if this object has already been closed.
+     */
+    public long getLong(String headerName) throws IOException {
+        checkClosed();
+
+        return getLong(getIndex(headerName));
+    }
+
+    /**
+     * Returns the current column value for a given column index as a double,
+     * accepting the same formats as
+     * {@link java.lang.Double#parseDouble(String) Double.parseDouble}. Plain
+     * decimal values are parsed straight from the reader's buffers, without
+     * creating a String. Surrounding spaces and tabs are ignored when
+     * whitespace is trimmed, also in text qualified columns, and like the
+     * other typed getters any other surrounding whitespace makes the value
+     * invalid.
+     * 
+     * @param columnIndex
+     *                    The index of the column.
+     * @return The current column value as a double.
+     * @exception IOException
+     *                        Thrown if this object has already been closed.
+     * @exception NumberFormatException
+     *                        Thrown if the column doesn't hold a valid double.
+     */
+    public double getDouble(int columnIndex) throws IOException {
+        CharSequence value = getCharSequence(columnIndex);
+
+        try {
+            return FieldParser.parseDouble(value, userSettings.trimWhitespace());
+        } catch (NumberFormatException ex) {
+            throw new NumberFormatException(invalidValueMessage(columnIndex, "double", value));
+        }
+    }
+
+    /**
+     * Returns the current column value for a given column header name as a
+     * double, see {@link main.java.com.csvreader.CsvReader#getDouble(int)
+     * getDouble(int)}.
+     * 
+     * @param headerName
+     *                   The header name of the column.
+     * @return The current column value as a double.
+     * @exception IOException Thrown if this object has already been closed.
+     */
+    public double getDouble(String headerName) throws IOException {
+        checkClosed();
+
+        return getDouble(getIndex(headerName));
+    }
+
+    /**
+     * Returns the current column value for a given column index as a boolean.
+     * The value has to be true or false, in any case. Surrounding spaces and
+     * tabs are ignored when whitespace is trimmed, also in text qualified
+     * columns.
+     * 
+     * @param columnIndex
+     *                    The index of the column.
+     * @return The current column value as a boolean.
+     * @exception IOException
+     *                        Thrown if this object has already been closed.
+     * @exception IllegalArgumentException
+     *                        Thrown if the column doesn't hold true or false.
+     */
+    public boolean getBoolean(int columnIndex) throws IOException {
+        CharSequence value = getCharSequence(columnIndex);
+
+        try {
+            return FieldParser.parseBoolean(value, userSettings.trimWhitespace());
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException(invalidValueMessage(columnIndex, "boolean", value));
+        }
+    }
+
+    /**
+     * Returns the current column value for a given column header name as a
+     * boolean, see {@link main.java.com.csvreader.CsvReader#getBoolean(int)
+     * getBoolean(int)}.
+     * 
+     * @param headerName
+     *                   The header name of the column.
+     * @return The current column value as a boolean.
+     * @exception IOException Thrown if this object has already been closed.
+     */
+    public boolean getBoolean(String headerName) throws IOException {
+        checkClosed();
+
+        return getBoolean(getIndex(headerName));
+    }
+
+    private String invalidValueMessage(int columnIndex, String type, CharSequence value) {
+        return "Value \"" + value + "\" in column "
+                + NumberFormat.getIntegerInstance().format(columnIndex)
+                + " in record "
+                + NumberFormat.getIntegerInstance().format(currentRecord - 1)
+                + " is not a valid " + type + ".";
+    }
+
+    /**
+     * Returns the current column value for a given column header name.
+     * 
+     * @param headerName
+     *                   The header name of the column.
+     * @return The current column value.
+     * @exception IOException Thrown if this object has already been closed.
+     */
+    public String get(String headerName) throws IOException {
+        checkClosed();
+
+        return get(getIndex(headerName));
+    }
+
+    /**
+     * Creates a {@link main.java.com.csvreader.CsvReader CsvReader} object using a
+     * string of data as the source. Uses ISO-8859-1 as the
+     * {@link java.nio.charset.Charset Charset}.
+     * 
+     * @param data The String of data to use as the source.
+     * @return A {@link main.java.com.csvreader.CsvReader CsvReader} object using
+     *         the String of data as the source.
+     */
+    public static CsvReader parse(String data) {
+        return parse((CharSequence) data);
+    }
+
+    /**
+     * Creates a {@link main.java.com.csvreader.CsvReader CsvReader} object using
+     * characters in memory as the source. A {@link java.nio.CharBuffer
+     * CharBuffer} backed by an array, such as one from
+     * {@link java.nio.CharBuffer#wrap(char[]) CharBuffer.wrap(char[])}, is
+     * parsed in place, with that array as the data buffer, so it must not be
+     * changed while it's read. Anything else is copied straight into the data
+     * buffer as it's parsed, without a {@link java.io.Reader Reader} in
+     * between.
+     * 
+     * @param data The characters to use as the source.
+     * @return A {@link main.java.com.csvreader.CsvReader CsvReader} object using
+     *         the characters as the source.
+     */
+    public static CsvReader parse(CharSequence data) {
+        if (data == null) {
+            throw new IllegalArgumentException(
+                    "Parameter data can not be null.");
+        }
+
+        CsvReader reader = new CsvReader(Letters.COMMA);
+
+        reader.setSource(data);
+
+        return reader;
+    }
+
+    private void setSource(CharSequence data) {
+        if (data instanceof CharBuffer && ((CharBuffer) data).hasArray()) {
+            CharBuffer buffer = (CharBuffer) data;
+            int offset = buffer.arrayOffset();
+
+            source = buffer.array();
+            sourceStart = offset + buffer.position();
+            sourceEnd = offset + buffer.limit();
+        } else {
+            // a String can't be read in place, and copying all of it up front
+            // would take twice its memory
+            text = data;
+            textPosition = 0;
+        }
+    }
+
+    /**
+     * Copies the next part of an in-memory source that isn't an array into
+     * the data buffer.
+     * 
+     * @return The number of characters copied, or -1 at the end of the data.
+     */
+    private int readText(char[] buffer) {
+        int length = Math.min(buffer.length, text.length() - textPosition);
+
+        if (length <= 0) {
+            return -1;
+        }
+
+        int end = textPosition + length;
+
+        if (text instanceof String) {
+            ((String) text).getChars(textPosition, end, buffer, 0);
+        } else if (text instanceof StringBuilder) {
+            ((StringBuilder) text).getChars(textPosition, end, buffer, 0);
+        } else if (text instanceof CharBuffer) {
+            CharBuffer chars = ((CharBuffer) text).duplicate();
+
+            chars.position(chars.position() + textPosition);
+            chars.get(buffer, 0, length);
+        } else {
+            for (int i = 0; i < length; i++) {
+                buffer[i] = text.charAt(textPosition + i);
+            }
+        }
+
+        textPosition = end;
+
+        return length;
+    }
+
+    /**
+     * Creates a stream of the records of a file. Uses ISO-8859-1 as the
+     * {@link java.nio.charset.Charset Charset}.
+     * 
+     * @param path         The path to the file.
+     * @param userSettings The settings to parse the file with.
+     * @return The records of the file, see
+     *         {@link #lines(Path, Charset, UserSettings)}.
+     * @exception IOException Thrown if the file can not be opened.
+     */
+    public static Stream<String[]> lines(Path path, UserSettings userSettings) throws IOException {
+        return lines(path, StandardCharsets.ISO_8859_1, userSettings);
+    }
+
+    /**
+     * Creates a stream of the records of a file. A parallel stream parses
+     * parts of the file at the same time, cut at record boundaries. A gzip
+     * compressed file is read in one part. The file stays open until the
+     * stream is closed.
+     * 
+     * @param path         The path to the file.
+     * @param charset      The {@link java.nio.charset.Charset Charset} to use
+     *                     while parsing the data.
+     * @param userSettings The settings to parse the file with, which must not
+     *                     be changed while the stream is used. A record
+     *                     delimiter other than {@link Letters#NULL} is used
+     *                     instead of CR and LF.
+     * @return The values of every record of the file.
+     * @exception IOException Thrown if the file can not be opened.
+     */
+    public static Stream<String[]> lines(Path path, Charset charset, UserSettings userSettings) throws IOException {
+        if (path == null) {
+            throw new IllegalArgumentException("Parameter path can not be null.");
+        }
+
+        if (charset == null) {
+            throw new IllegalArgumentException("Parameter charset can not be null.");
+        }
+
+        if (userSettings == null) {
+            throw new IllegalArgumentException("Parameter userSettings can not be null.");
+        }
+
+        return lines(path, charset, userSettings, userSettings.recordDelimiter != Letters.NULL);
+    }
+
+    private static Stream<String[]> lines(Path path, Charset charset, UserSettings userSettings,
+            boolean useCustomRecordDelimiter) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+
+        try {
+            RecordSpliterator spliterator = new RecordSpliterator(channel, charset, userSettings,
+                    useCustomRecordDelimiter, InflatingInputStream.isCompressed(channel), 0, channel.size(),
+                    StaticSettings.PARALLEL_CHUNK_SIZE);
+
+            return StreamSupport.stream(spliterator, false).onClose(() -> {
+                spliterator.close();
+
+                try {
+                    channel.close();
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+
+            throw ex;
+        }
+    }
+
+    /**
+     * Creates a stream of the records that are left, read with this reader's
+     * settings. Closing the stream closes the reader, which shouldn't be used
+     * otherwise once the stream has been created.
+     * <p>
+     * When nothing has been read from a file yet and no projection is set, the
+     * stream reads the file the same way as
+     * {@link #lines(Path, Charset, UserSettings)}, so that a parallel stream
+     * parses parts of it at the same time.
+     * 
+     * @return The values of every record that is left.
+     * @exception IOException Thrown if this object has already been closed or the
+     *                        file can not be opened.
+     */
+    public Stream<String[]> stream() throws IOException {
+        checkClosed();
+
+        if (fileName != null && !initialized && sourceOffset == 0 && projection == null) {
+            return lines(Paths.get(fileName), charset, userSettings, useCustomRecordDelimiter)
+                    .onClose(this::close);
+        }
+
+        Spliterator<String[]> spliterator = new Spliterators.AbstractSpliterator<String[]>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super String[]> action) {
+                try {
+                    if (!readRecord()) {
+                        return false;
+                    }
+
+                    action.accept(getValues());
+
+                    return true;
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            }
+        };
+
+        return StreamSupport.stream(spliterator, false).onClose(this::close);
+    }
+
+    /**
+     * Reads every record that is left, passing it to the consumer. The consumer
+     * gets the same {@link CsvRecord} for every record, a view of the current
+     * record that is only valid while the consumer handles it.
+     * 
+     * @param consumer
+     *                 Handles each record.
+     * @return The number of records read.
+     * @exception IOException Thrown if an error occurs while reading data from the
+     *                        source stream, or by the consumer.
+     */
+    public long forEach(RecordConsumer consumer) throws IOException {
+        checkClosed();
+
+        if (consumer == null) {
+            throw new IllegalArgumentException("Parameter consumer can not be null.");
+        }
+
+        if (record == null) {
+            record = new CsvRecord(this);
+        }
+
+        long count = 0;
+
+        while (readRecord()) {
+            record.setValid(true);
+
+            try {
+                consumer.accept(record);
+            } finally {
+                record.setValid(false);
+            }
+
+            count++;
+        }
+
+        return count;
+    }
+
+    /**
+     * Reads another record.
+     * 
+     * @return Whether another record was successfully read or not.
+     * @exception IOException Thrown if an error occurs while reading data from the
+     *                        source stream.
+     */
+    public boolean readRecord() throws IOException {
+        if (metrics == null) {
+            if (!userSettings.metrics()) {
+                return nextRecord();
+            }
+
+            getMetrics();
+        }
+
+        boolean timed = metrics.startRecord();
+
+        try {
+            boolean recordRead = nextRecord();
+
+            if (recordRead) {
+                metrics.recordRead(columnsCount);
+            }
+
+            return recordRead;
+        } finally {
+            if (timed) {
+                metrics.stopParsing(ReaderMetrics.TIMED_RECORDS);
+            }
+        }
+    }
+
+    private boolean nextRecord() throws IOException {
+        checkClosed();
+        checkInit();
+
+        if (byteParser != null) {
+            return readByteRecord();
+        }
+
+        columnsCount = 0;
+        rawBuffer.position = 0;
+        // the last record's data is about to be overwritten
+        rawRecord = "";
+        recordLength = 0;
+
+        if (columnBufferSize != null && columnBufferSize.shouldShrink(columnBuffer.buffer.length)) {
+            columnBuffer.buffer = new char[columnBufferSize.target()];
+        }
+
+        columnBuffer.position = 0;
+        columnBuffer.columnStart = 0;
+
+        if (projection != null) {
+            clearProjectedColumns();
+        }
+
+        dataBuffer.lineStart = dataBuffer.position;
+
+        hasReadNextLine = false;
+
+        parseRecord();
+
+        if (projection != null) {
+            // columns missing from the record are left empty
+            columnsCount = hasReadNextLine ? projectedCount : 0;
+        }
+
+        if (hasReadNextLine) {
+            // what was read since the last refill, without the record
+            // delimiter, of the record that was just counted
+            checkRecordLength(recordLength + (hasMoreData ? Math.max(dataBuffer.position - dataBuffer.lineStart - 1, 0) : 0),
+                    currentRecord - 1);
+        }
+
+        if (userSettings.captureRawRecord) {
+            // only the bounds are kept, see getRawRecord
+            rawRecord = null;
+            rawStart = dataBuffer.lineStart;
+            // for hasMoreData to ever be false, all data would have had to
+            // have been copied to the raw buffer
+            rawLength = hasMoreData ? dataBuffer.position - dataBuffer.lineStart - 1 : 0;
+        }
+
+        if (dataBufferSize != null) {
+            adaptBuffers();
+        } else if (columnBuffer.buffer.length > columnBufferBaseline || rawBuffer.buffer.length > rawBufferBaseline) {
+            shrinkBuffers();
+        }
+
+        return hasReadNextLine;
+
+    }
+    /**
+     * Parses the next record with the settings read once per record instead of
+     * for every letter, handing each column to a parser for the escape mode.
+     * 
+     * @exception IOException Thrown if an error occurs while reading data from the
+     *                        source stream.
+     */
+    private void parseRecord() throws IOException {
+        if (!hasMoreData) {
+            return;
+        }
+
+        boolean backslashEscapes = userSettings.escapeMode() == EscapeMode.BACKSLASH;
+        char delimiter = userSettings.delimiter();
+        char textQualifier = userSettings.textQualifier();
+        char comment = userSettings.comment;
+        boolean useTextQualifier = userSettings.useTextQualifier;
+        boolean useComments = userSettings.useComments;
+        boolean trimWhitespace = userSettings.trimWhitespace();
+        boolean skipEmptyRecords = userSettings.skipEmptyRecords;
+        // the letters that end a record, the same one twice when a custom
+        // record delimiter is used
+        char firstEnd = useCustomRecordDelimiter ? userSettings.recordDelimiter : Letters.CR;
+        char secondEnd = useCustomRecordDelimiter ? userSettings.recordDelimiter : Letters.LF;
+
+        do {
+            if (dataBuffer.position == dataBuffer.count) {
+                checkDataLength();
+                continue;
+            }
+
+            startedWithQualifier = false;
+
+            char currentLetter = dataBuffer.buffer[dataBuffer.position];
+
+            if (useTextQualifier && currentLetter == textQualifier) {
+                if (backslashEscapes) {
+                    parseBackslashQualifiedColumn(delimiter, textQualifier, firstEnd, secondEnd);
+                } else {
+                    parseDoubledQualifiedColumn(delimiter, textQualifier, firstEnd, secondEnd);
+                }
+            } else if (currentLetter == delimiter) {
+                // we encountered a column with no data, so
+                // just send the end column
+
+                lastLetter = currentLetter;
+
+                endColumn();
+            } else if (currentLetter == firstEnd || currentLetter == secondEnd) {
+                // this will skip blank lines
+                if (startedColumn
+                        || columnsCount > 0
+                        || (!skipEmptyRecords && (useCustomRecordDelimiter || currentLetter == Letters.CR
+                                || lastLetter != Letters.CR))) {
+                    endColumn();
+
+                    endRecord();
+                } else {
+                    dataBuffer.lineStart = dataBuffer.position + 1;
+                }
+
+                lastLetter = currentLetter;
+            } else if (useComments && columnsCount == 0 && currentLetter == comment) {
+                // encountered a comment character at the beginning of
+                // the line so just ignore the rest of the line
+
+                lastLetter = currentLetter;
+
+                // leading whitespace before the comment character
+                // doesn't start a column
+                startedColumn = false;
+
+                skipLine();
+            } else if (trimWhitespace && (currentLetter == Letters.SPACE || currentLetter == Letters.TAB)) {
+                // do nothing, this will trim leading whitespace
+                // for both text qualified columns and non
+
+                startedColumn = true;
+                dataBuffer.columnStart = dataBuffer.position + 1;
+            } else if (backslashEscapes && !useTextQualifier) {
+                // backslashes only escape unqualified columns when
+                // there are no qualified ones
+                parseBackslashPlainColumn(delimiter, firstEnd, secondEnd);
+            } else {
+                parsePlainColumn(currentLetter, delimiter);
+            }
+
+            if (hasMoreData) {
+                dataBuffer.position++;
+            }
+        } while (hasMoreData && !hasReadNextLine);
+
+        // check to see if we hit the end of the file
+        // without processing the current record
+
+        if (startedColumn || lastLetter == delimiter) {
+            endColumn();
+
+            endRecord();
+        }
+    }
+
+    /**
+     * Parses a text qualified column for parseRecord() when
+     * qualifiers are escaped by doubling them, as in RFC 4180, starting at its
+     * opening qualifier.
+     */
+    private void parseDoubledQualifiedColumn(char delimiter, char textQualifier, char firstEnd, char secondEnd)
+            throws IOException {
+        boolean lazy = userSettings.lazyColumns();
+        boolean lastLetterWasQualifier = false;
+        boolean eatingTrailingJunk = false;
+
+        lastLetter = textQualifier;
+        startedColumn = true;
+        startedWithQualifier = true;
+        qualifiedLength = -1;
+        hasEscapes = false;
+        dataBuffer.columnStart = dataBuffer.position + 1;
+        dataBuffer.position++;
+
+        do {
+            if (dataBuffer.position == dataBuffer.count) {
+                checkDataLength();
+                continue;
+            }
+
+            if (!eatingTrailingJunk && !lastLetterWasQualifier) {
+                // only a qualifier means anything here
+                int next = skipUntil(dataBuffer.position, textQualifier);
+
+                if (next > dataBuffer.position) {
+                    dataBuffer.position = next;
+                    lastLetter = dataBuffer.buffer[next - 1];
+
+                    checkColumnLength();
+
+                    if (next == dataBuffer.count) {
+                        continue;
+                    }
+                }
+            }
+
+            char currentLetter = dataBuffer.buffer[dataBuffer.position];
+
+            if (eatingTrailingJunk) {
+                dataBuffer.columnStart = dataBuffer.position + 1;
+
+                if (currentLetter == delimiter) {
+                    endColumn();
+                } else if (currentLetter == firstEnd || currentLetter == secondEnd) {
+                    endColumn();
+
+                    endRecord();
+                }
+            } else if (currentLetter == textQualifier) {
+                if (lastLetterWasQualifier) {
+                    // a doubled qualifier, so the previous one didn't
+                    // close the column
+                    lastLetterWasQualifier = false;
+
+                    if (lazy) {
+                        qualifiedLength = -1;
+                        hasEscapes = true;
+                    }
+                } else {
+                    if (lazy) {
+                        qualifiedLength = columnBuffer.position - columnBuffer.columnStart
+                                + dataBuffer.position - dataBuffer.columnStart;
+                    } else {
+                        updateCurrentValue();
+                    }
+
+                    lastLetterWasQualifier = true;
+                }
+            } else if (lastLetterWasQualifier) {
+                if (currentLetter == delimiter) {
+                    endColumn();
+                } else if (currentLetter == firstEnd || currentLetter == secondEnd) {
+                    endColumn();
+
+                    endRecord();
+                } else {
+                    if (lazy) {
+                        // the column so far has to be kept
+                        // before the junk is skipped
+                        updateCurrentValue();
+                    }
+
+                    dataBuffer.columnStart = dataBuffer.position + 1;
+
+                    eatingTrailingJunk = true;
+                }
+
+                lastLetterWasQualifier = false;
+            }
+
+            lastLetter = currentLetter;
+
+            if (startedColumn) {
+                dataBuffer.position++;
+
+                checkColumnLength();
+            }
+        } while (hasMoreData && startedColumn);
+    }
+
+    /**
+     * Parses an unqualified column for parseRecord() when nothing in
+     * it is escaped, starting at its first letter, which is known not to end
+     * it.
+     */
+    private void parsePlainColumn(char firstLetter, char delimiter) throws IOException {
+        startedColumn = true;
+        dataBuffer.columnStart = dataBuffer.position;
+        lastLetter = firstLetter;
+        dataBuffer.position++;
+
+        checkColumnLength();
+
+        do {
+            if (dataBuffer.position == dataBuffer.count) {
+                checkDataLength();
+                continue;
+            }
+
+            int next = skipPlainLetters(dataBuffer.position);
+
+            if (next > dataBuffer.position) {
+                dataBuffer.position = next;
+                lastLetter = dataBuffer.buffer[next - 1];
+
+                checkColumnLength();
+
+                if (next == dataBuffer.count) {
+                    continue;
+                }
+            }
+
+            // the letter either separates or ends the record
+            char currentLetter = dataBuffer.buffer[dataBuffer.position];
+
+            endColumn();
+
+            if (currentLetter != delimiter) {
+                endRecord();
+            }
+
+            lastLetter = currentLetter;
+        } while (hasMoreData && startedColumn);
+    }
+
+    /**
+     * Parses a text qualified column for parseRecord() when
+     * qualifiers and special letters are escaped by backslashes, starting at
+     * its opening qualifier.
+     */
+    private void parseBackslashQualifiedColumn(char delimiter, char textQualifier, char firstEnd, char secondEnd)
+            throws IOException {
+        boolean lastLetterWasQualifier = false;
+        boolean lastLetterWasEscape = false;
+        boolean eatingTrailingJunk = false;
+        // the complex escape being read, if any
+        ComplexEscape escape = null;
+        int escapeLength = 0;
+        char escapeValue = (char) 0;
+
+        lastLetter = textQualifier;
+        startedColumn = true;
+        startedWithQualifier = true;
+        qualifiedLength = -1;
+        hasEscapes = false;
+        dataBuffer.columnStart = dataBuffer.position + 1;
+        dataBuffer.position++;
+
+        do {
+            if (dataBuffer.position == dataBuffer.count) {
+                checkDataLength();
+                continue;
+            }
+
+            if (!eatingTrailingJunk && !lastLetterWasQualifier && !lastLetterWasEscape && escape == null) {
+                // only a qualifier or a backslash means anything here
+                int next = skipUntil(dataBuffer.position, textQualifier, Letters.BACKSLASH);
+
+                if (next > dataBuffer.position) {
+                    dataBuffer.position = next;
+                    lastLetter = dataBuffer.buffer[next - 1];
+
+                    checkColumnLength();
+
+                    if (next == dataBuffer.count) {
+                        continue;
+                    }
+                }
+            }
+
+            char currentLetter = dataBuffer.buffer[dataBuffer.position];
+
+            if (eatingTrailingJunk) {
+                dataBuffer.columnStart = dataBuffer.position + 1;
+
+                if (currentLetter == delimiter) {
+                    endColumn();
+                } else if (currentLetter == firstEnd || currentLetter == secondEnd) {
+                    endColumn();
+
+                    endRecord();
+                }
+            } else if (escape != null) {
+                escapeValue = escapeDigit(escape, escapeValue, currentLetter);
+
+                if (++escapeLength == escapeDigits(escape)) {
+                    escape = null;
+
+                    appendLetter(escapeValue);
+                } else {
+                    dataBuffer.columnStart = dataBuffer.position + 1;
+                }
+            } else if (currentLetter == textQualifier) {
+                if (lastLetterWasEscape) {
+                    lastLetterWasEscape = false;
+                    lastLetterWasQualifier = false;
+                } else {
+                    updateCurrentValue();
+
+                    lastLetterWasQualifier = true;
+                }
+            } else if (lastLetterWasEscape) {
+                escape = unescape(currentLetter);
+                escapeLength = isOctalDigit(currentLetter) ? 1 : 0;
+                escapeValue = (char) (escapeLength == 1 ? currentLetter - '0' : 0);
+                lastLetterWasEscape = false;
+            } else if (currentLetter == Letters.BACKSLASH) {
+                updateCurrentValue();
+
+                lastLetterWasEscape = true;
+            } else if (lastLetterWasQualifier) {
+                if (currentLetter == delimiter) {
+                    endColumn();
+                } else if (currentLetter == firstEnd || currentLetter == secondEnd) {
+                    endColumn();
+
+                    endRecord();
+                } else {
+                    dataBuffer.columnStart = dataBuffer.position + 1;
+
+                    eatingTrailingJunk = true;
+                }
+
+                lastLetterWasQualifier = false;
+            }
+
+            lastLetter = currentLetter;
+
+            if (startedColumn) {
+                dataBuffer.position++;
+
+                checkColumnLength();
+            }
+        } while (hasMoreData && startedColumn);
+    }
+
+    /**
+     * Parses an unqualified column for parseRecord() when special
+     * letters are escaped by backslashes and there are no qualified columns,
+     * starting at its first letter, which is known not to end it.
+     */
+    private void parseBackslashPlainColumn(char delimiter, char firstEnd, char secondEnd) throws IOException {
+        boolean lastLetterWasBackslash = false;
+        // the complex escape being read, if any
+        ComplexEscape escape = null;
+        int escapeLength = 0;
+        char escapeValue = (char) 0;
+
+        startedColumn = true;
+        dataBuffer.columnStart = dataBuffer.position;
+
+        do {
+            if (dataBuffer.position == dataBuffer.count) {
+                checkDataLength();
+                continue;
+            }
+
+            if (!lastLetterWasBackslash && escape == null) {
+                int next = skipPlainLetters(dataBuffer.position, Letters.BACKSLASH);
+
+                if (next > dataBuffer.position) {
+                    dataBuffer.position = next;
+                    lastLetter = dataBuffer.buffer[next - 1];
+
+                    checkColumnLength();
+
+                    if (next == dataBuffer.count) {
+                        continue;
+                    }
+                }
+            }
+
+            char currentLetter = dataBuffer.buffer[dataBuffer.position];
+
+            if (currentLetter == Letters.BACKSLASH) {
+                if (lastLetterWasBackslash) {
+                    lastLetterWasBackslash = false;
+                } else {
+                    updateCurrentValue();
+
+                    lastLetterWasBackslash = true;
+                }
+            } else if (escape != null) {
+                escapeValue = escapeDigit(escape, escapeValue, currentLetter);
+
+                if (++escapeLength == escapeDigits(escape)) {
+                    escape = null;
+
+                    appendLetter(escapeValue);
+                } else {
+                    dataBuffer.columnStart = dataBuffer.position + 1;
+                }
+            } else if (lastLetterWasBackslash) {
+                escape = unescape(currentLetter);
+                escapeLength = isOctalDigit(currentLetter) ? 1 : 0;
+                escapeValue = (char) (escapeLength == 1 ? currentLetter - '0' : 0);
+                lastLetterWasBackslash = false;
+            } else if (currentLetter == delimiter) {
+                endColumn();
+            } else if (currentLetter == firstEnd || currentLetter == secondEnd) {
+                endColumn();
+
+                endRecord();
+            }
+
+            lastLetter = currentLetter;
+
+            if (startedColumn) {
+                dataBuffer.position++;
+
+                checkColumnLength();
+            }
+        } while (hasMoreData && startedColumn);
+    }
+
+    /**
+     * Handles the letter after a backslash, appending the letter a simple
+     * escape stands for.
+     * 
+     * @return The complex escape the letter starts, or null.
+     */
+    private ComplexEscape unescape(char letter) throws IOException {
+        ComplexEscape escape;
+
+        switch (letter) {
+            case 'n':
+                appendLetter(Letters.LF);
+                return null;
+            case 'r':
+                appendLetter(Letters.CR);
+                return null;
+            case 't':
+                appendLetter(Letters.TAB);
+                return null;
+            case 'b':
+                appendLetter(Letters.BACKSPACE);
+                return null;
+            case 'f':
+                appendLetter(Letters.FORM_FEED);
+                return null;
+            case 'e':
+                appendLetter(Letters.ESCAPE);
+                return null;
+            case 'v':
+                appendLetter(Letters.VERTICAL_TAB);
+                return null;
+            case 'a':
+                appendLetter(Letters.ALERT);
+                return null;
+            case 'u':
+            case 'U':
+                escape = ComplexEscape.UNICODE;
+                break;
+            case 'x':
+            case 'X':
+                escape = ComplexEscape.HEX;
+                break;
+            case 'd':
+            case 'D':
+                escape = ComplexEscape.DECIMAL;
+                break;
+            case 'o':
+            case 'O':
+                escape = ComplexEscape.OCTAL;
+                break;
+            default:
+                if (!isOctalDigit(letter)) {
+                    // the letter is kept as it is
+                    return null;
+                }
+
+                // the first digit of an octal escape
+                escape = ComplexEscape.OCTAL;
+                break;
+        }
+
+        dataBuffer.columnStart = dataBuffer.position + 1;
+
+        return escape;
+    }
+
+    private static boolean isOctalDigit(char letter) {
+        return letter >= '0' && letter <= '7';
+    }
+
+    /**
+     * Adds a digit to the value of a complex escape.
+     */
+    private static char escapeDigit(ComplexEscape escape, char value, char letter) {
+        switch (escape) {
+            case UNICODE:
+            case HEX:
+                return (char) (value * 16 + hexToDec(letter));
+            case OCTAL:
+                return (char) (value * 8 + letter - '0');
+            default:
+                return (char) (value * 10 + letter - '0');
+        }
+    }
+
+    /**
+     * Gets the number of digits of a complex escape.
+     */
+    private static int escapeDigits(ComplexEscape escape) {
+        switch (escape) {
+            case UNICODE:
+                return 4;
+            case HEX:
+                return 2;
+            default:
+                return 3;
+        }
+    }
+
+    /**
+     * Finds the next occurrence of either of two letters in the data buffer
+     * from the given position.
+     * 
+     * @return The position of the letter, or the count of the data buffer if
+     *         neither is there.
+     */
+    private int skipUntil(int position, char letter, char other) {
+        char[] buffer = dataBuffer.buffer;
+        int count = dataBuffer.count;
+
+        while (position < count && buffer[position] != letter && buffer[position] != other) {
+            position++;
+        }
+
+        return position;
+    }
+
+    /**
+     * Finds the next occurrence of a letter in the data buffer from the given
+     * position.
+     * 
+     * @return The position of the letter, or the count of the data buffer if
+     *         it's not there.
+     */
+    private int skipUntil(int position, char letter) {
+        char[] buffer = dataBuffer.buffer;
+        int count = dataBuffer.count;
+
+        while (position < count && buffer[position] != letter) {
+            position++;
+        }
+
+        return position;
+    }
+
+    /**
+     * Counts the records in a row that fit in the sizes the column and raw
+     * record buffers were allocated with, and shrinks the buffers back to
+     * those sizes once there have been enough of them.
+     */
+    private void shrinkBuffers() {
+        if (columnBuffer.position > columnBufferBaseline || rawBuffer.position > rawBufferBaseline) {
+            recordsBelowBaseline = 0;
+        } else if (++recordsBelowBaseline >= userSettings.shrinkAfterRecords()) {
+            columnBuffer.buffer = trimmed(columnBuffer.buffer, columnBuffer.position, columnBufferBaseline);
+            rawBuffer.buffer = trimmed(rawBuffer.buffer, rawBuffer.position, rawBufferBaseline);
+
+            recordsBelowBaseline = 0;
+        }
+    }
+
+    /**
+     * Feeds the lengths of the record that was just read to the adaptive
+     * sizes, and shrinks the raw record buffer once it is far larger than the
+     * records need. The column buffer still holds the columns of this record,
+     * so it's only shrunk when the next one is read.
+     */
+    private void adaptBuffers() {
+        recordLength += Math.max(dataBuffer.position - dataBuffer.lineStart, 0);
+
+        dataBufferSize.observe(recordLength);
+        rawBufferSize.observe(recordLength);
+        columnBufferSize.observe(columnBuffer.position);
+
+        // unless part of the raw record is still waiting in it
+        if (rawBuffer.position == 0 && rawBufferSize.shouldShrink(rawBuffer.buffer.length)) {
+            rawBuffer.buffer = new char[rawBufferSize.target()];
+        }
+    }
+
+    /**
+     * Reads another record through the byte parser. Column values are only
+     * decoded when they are requested.
+     */
+    private boolean readByteRecord() throws IOException {
+        boolean recordRead;
+
+        try {
+            recordRead = byteParser.readRecord(useCustomRecordDelimiter, currentRecord, projection,
+                    projectedCount);
+        } catch (IOException ex) {
+            close();
+
+            throw ex;
+        }
+
+        columnsCount = byteParser.getColumnCount();
+
+        if (columnsCount > values.length) {
+            values = new String[Math.max(columnsCount, values.length * 2)];
+        } else {
+            Arrays.fill(values, 0, columnsCount, null);
+        }
+
+        if (recordRead) {
+            currentRecord++;
+        }
+
+        rawRecord = userSettings.captureRawRecord ? null : "";
+
+        return recordRead;
+    }
+
+    /**
+     * Opens the data source on first use.
+     * 
+     * @exception IOException Thrown if the data source can not be opened.
+     */
+    private void checkInit() throws IOException {
+        if (!initialized) {
+            int initialColumnCount = userSettings.initialColumnCount();
+
+            // kept from the data the reader was reset from, as they are
+            // grown along with values
+            if (columnStarts == null) {
+                if (values.length != initialColumnCount) {
+                    values = new String[initialColumnCount];
+                    isQualified = new boolean[initialColumnCount];
+                }
+
+                columnStarts = new int[values.length];
+                columnEnds = new int[values.length];
+                columnBuffered = new boolean[values.length];
+                columnEscaped = new boolean[values.length];
+            }
+
+            openSource();
+
+            if (userSettings.metrics()) {
+                // the byte parser counts its own refills
+                ReaderMetrics metrics = getMetrics();
+
+                if (byteParser != null) {
+                    byteParser.metrics = metrics;
+                }
+            }
+
+            if (byteParser == null) {
+                int bufferSize = userSettings.bufferSize();
+                int columnSize = userSettings.initialColumnBufferSize();
+
+                if (source != null) {
+                    // the whole data is in the buffer from the start
+                    dataBuffer = new DataBuffer(source, sourceStart, sourceEnd);
+
+                    if (metrics != null) {
+                        metrics.charsRead(sourceEnd - sourceStart);
+                    }
+                } else if (dataBuffer == null) {
+                    dataBuffer = new DataBuffer(bufferSize);
+                } else {
+                    // what it holds is from before the source was opened
+                    // again
+                    dataBuffer.position = 0;
+                    dataBuffer.count = 0;
+                    dataBuffer.lineStart = 0;
+                    dataBuffer.columnStart = 0;
+                }
+
+                if (columnBuffer == null) {
+                    columnBuffer = new ColumnBuffer(columnSize);
+                    rawBuffer = new RawRecordBuffer(columnSize * initialColumnCount);
+                    dataBufferBaseline = bufferSize;
+                    columnBufferBaseline = columnBuffer.buffer.length;
+                    rawBufferBaseline = rawBuffer.buffer.length;
+
+                    if (userSettings.adaptiveBuffers()) {
+                        // keep room for a good number of average records in the
+                        // data buffer, and twice the average for the others
+                        dataBufferSize = new AdaptiveSize(bufferSize,
+                                Math.max(bufferSize, StaticSettings.MAX_ADAPTIVE_BUFFER_SIZE), 16);
+                        columnBufferSize = new AdaptiveSize(columnSize, Integer.MAX_VALUE, 2);
+                        rawBufferSize = new AdaptiveSize(rawBuffer.buffer.length, Integer.MAX_VALUE, 2);
+                    }
+                } else {
+                    columnBuffer.position = 0;
+                    columnBuffer.columnStart = 0;
+                    rawBuffer.position = 0;
+                }
+
+                peakBufferCapacity = Math.max(peakBufferCapacity, getBufferCapacity());
+            }
+
+            byteStream = null;
+            initialized = true;
+        }
+    }
+
+    /**
+     * Opens the data source, a file from the offset set by seekToRecord.
+     * 
+     * @exception IOException Thrown if the data source can not be opened.
+     */
+    private void openSource() throws IOException {
+        if (source != null || text != null) {
+            return;
+        }
+
+        // compressed files and files that are read ahead are read like any
+        // other stream
+        boolean file = fileName != null;
+        boolean compressed = false;
+
+        if (file && InflatingInputStream.isCompressed(fileName)) {
+            byteStream = InflatingInputStream.open(openFile(), userSettings.threadFactory());
+            file = false;
+            compressed = true;
+        } else if (byteStream != null && detectCompression) {
+            byteStream = InflatingInputStream.detect(byteStream, userSettings.threadFactory());
+            compressed = byteStream instanceof InflatingInputStream;
+        }
+
+        // compressed data is inflated ahead already
+        if (userSettings.readAhead() && !compressed
+                && (byteStream != null || (file && !userSettings.memoryMapping()))) {
+            byteStream = new ReadAheadInputStream(file ? openFile() : byteStream,
+                    StaticSettings.MAX_BYTE_BUFFER_SIZE, userSettings.threadFactory());
+            file = false;
+        }
+
+        // a Reader is already decoded
+        if (userSettings.byteParsing() && (file || byteStream != null)
+                && ByteRecordParser.supports(charset, userSettings, useCustomRecordDelimiter)) {
+            if (file && userSettings.memoryMapping()) {
+                byteParser = new ByteRecordParser(
+                        FileChannel.open(Paths.get(fileName), StandardOpenOption.READ),
+                        charset, userSettings, StaticSettings.MAX_MAPPED_WINDOW_SIZE, sourceOffset);
+            } else if (file) {
+                byteParser = new ByteRecordParser(openFile(), charset, userSettings, byteBufferSize());
+            } else {
+                byteParser = new ByteRecordParser(byteStream, charset, userSettings,
+                        byteBufferSize());
+            }
+        } else if (file && userSettings.memoryMapping()) {
+            inputStream = new MappedFileReader(fileName, charset, StaticSettings.MAX_MAPPED_WINDOW_SIZE,
+                    sourceOffset);
+        } else if ((file || byteStream != null) && isLatin1(charset)) {
+            if (latin1Buffer == null) {
+                latin1Buffer = new byte[byteBufferSize()];
+            }
+
+            inputStream = new Latin1Reader(file ? openFile() : byteStream, charset, latin1Buffer);
+        } else if (file) {
+            inputStream = new BufferedReader(new InputStreamReader(openFile(), charset),
+                    userSettings.fileBufferSize());
+        } else if (byteStream != null) {
+            inputStream = new InputStreamReader(byteStream, charset);
+        }
+    }
+
+    /**
+     * Whether every byte of a charset is a char of the same value, see
+     * Latin1Reader.
+     */
+    private static boolean isLatin1(Charset charset) {
+        return charset.equals(StandardCharsets.ISO_8859_1) || charset.equals(StandardCharsets.US_ASCII);
+    }
+
+    private FileInputStream openFile() throws IOException {
+        FileInputStream stream = new FileInputStream(fileName);
+
+        if (sourceOffset > 0) {
+            stream.getChannel().position(sourceOffset);
+        }
+
+        return stream;
+    }
+
+    private int byteBufferSize() {
+        return Math.max(userSettings.bufferSize(), StaticSettings.MAX_BYTE_BUFFER_SIZE);
+    }
+
+    /**
+     * @exception IOException Thrown if an error occurs while reading data from the
+     *                        source stream.
+     */
+    private void checkDataLength() throws IOException {
+        checkInit();
+
+        relocateColumns();
+        updateCurrentValue();
+
+        if (dataBuffer.count > 0) {
+            recordLength += Math.max(dataBuffer.count - dataBuffer.lineStart, 0);
+
+            checkRecordLength(recordLength, currentRecord);
+        }
+
+        if (userSettings.captureRawRecord && dataBuffer.count > 0) {
+            copyRawRecord();
+        }
+
+        if (dataBufferSize != null && source == null) {
+            // everything still needed has been copied out by now, so this
+            // is the moment the data buffer can be resized
+            int target = dataBufferSize.target();
+
+            // growing is only worth it as long as the limit isn't reached, the
+            // data buffer works at any size
+            boolean grow = target > dataBuffer.buffer.length && (long) target + columnBuffer.buffer.length
+                    + rawBuffer.buffer.length <= userSettings.maxBufferedLength();
+
+            if (grow || dataBufferSize.shouldShrink(dataBuffer.buffer.length)) {
+                dataBuffer.buffer = new char[target];
+
+                peakBufferCapacity = Math.max(peakBufferCapacity, getBufferCapacity());
+
+                if (metrics != null && grow) {
+                    metrics.dataBufferGrew();
+                }
+            }
+        }
+
+        fillDataBuffer();
+    }
+
+    /**
+     * Copies the part of the current record that is in the data buffer over
+     * to the raw record buffer, before the data buffer is refilled.
+     */
+    private void copyRawRecord() throws IOException {
+        if (rawBuffer.buffer.length - rawBuffer.position < dataBuffer.count
+                - dataBuffer.lineStart) {
+            int newLength = rawBuffer.buffer.length
+                    + Math.max(dataBuffer.count - dataBuffer.lineStart,
+                            rawBuffer.buffer.length);
+
+            rawBuffer.buffer = growBuffer(rawBuffer.buffer, rawBuffer.position, newLength);
+        }
+
+        System.arraycopy(dataBuffer.buffer, dataBuffer.lineStart,
+                rawBuffer.buffer, rawBuffer.position, dataBuffer.count
+                        - dataBuffer.lineStart);
+
+        rawBuffer.position += dataBuffer.count - dataBuffer.lineStart;
+    }
+
+    /**
+     * Reads the next data into the data buffer, replacing what it holds.
+     * 
+     * @exception IOException Thrown if an error occurs while reading data from the
+     *                        source stream.
+     */
+    private void fillDataBuffer() throws IOException {
+        long started = metrics != null ? System.nanoTime() : 0;
+
+        if (source != null) {
+            // all of an in-memory source was in the buffer already
+            dataBuffer.count = -1;
+        } else if (text != null) {
+            dataBuffer.count = readText(dataBuffer.buffer);
+        } else {
+            try {
+                dataBuffer.count = inputStream.read(dataBuffer.buffer, 0,
+                        dataBuffer.buffer.length);
+            } catch (IOException ex) {
+                close();
+
+                throw ex;
+            }
+        }
+
+        if (metrics != null && source == null) {
+            metrics.refilled(started, dataBuffer.count, false);
+        }
+
+        // if no more data could be found, set flag stating that
+        // the end of the data was found
+
+        if (dataBuffer.count == -1) {
+            hasMoreData = false;
+        }
+
+        dataBuffer.position = 0;
+        dataBuffer.lineStart = 0;
+        dataBuffer.columnStart = 0;
+    }
+
+    /**
+     * Finds the next letter from the given position that can end an
+     * unqualified column, with the settings read once instead of for every
+     * letter.
+     * 
+     * @return The position of that letter, or the count of the data buffer if
+     *         there is none.
+     */
+    private int skipPlainLetters(int position) {
+        char[] buffer = dataBuffer.buffer;
+        int count = dataBuffer.count;
+        char delimiter = userSettings.delimiter();
+
+        if (useCustomRecordDelimiter) {
+            char recordDelimiter = userSettings.recordDelimiter;
+
+            while (position < count) {
+                char letter = buffer[position];
+
+                if (letter == delimiter || letter == recordDelimiter) {
+                    break;
+                }
+
+                position++;
+            }
+        } else {
+            while (position < count) {
+                char letter = buffer[position];
+
+                if (letter == delimiter || letter == Letters.CR || letter == Letters.LF) {
+                    break;
+                }
+
+                position++;
+            }
+        }
+
+        return position;
+    }
+
+    /**
+     * Finds the next letter from the given position that can end an
+     * unqualified column or is the given letter.
+     * 
+     * @return The position of that letter, or the count of the data buffer if
+     *         there is none.
+     */
+    private int skipPlainLetters(int position, char other) {
+        char[] buffer = dataBuffer.buffer;
+        int count = dataBuffer.count;
+        char delimiter = userSettings.delimiter();
+        char firstEnd = useCustomRecordDelimiter ? userSettings.recordDelimiter : Letters.CR;
+        char secondEnd = useCustomRecordDelimiter ? userSettings.recordDelimiter : Letters.LF;
+
+        while (position < count) {
+            char letter = buffer[position];
+
+            if (letter == delimiter || letter == firstEnd || letter == secondEnd || letter == other) {
+                break;
+            }
+
+            position++;
+        }
+
+        return position;
+    }
+
+    /**
+     * @exception IOException Thrown if the current column has grown too long
+     *                        while the safety switch is on.
+     */
+    private void checkColumnLength() throws IOException {
+        int length = dataBuffer.position - dataBuffer.columnStart
+                + columnBuffer.position - columnBuffer.columnStart;
+
+        if (length > userSettings.maxColumnLength()) {
+            throw limitExceeded("Maximum column length of "
+                    + NumberFormat.getIntegerInstance().format(userSettings.maxColumnLength())
+                    + " exceeded in column "
+                    + NumberFormat.getIntegerInstance().format(columnsCount)
+                    + " in record "
+                    + NumberFormat.getIntegerInstance().format(currentRecord) + ".");
+        }
+
+        if (userSettings.safetySwitch && length > 100000) {
+            close();
+
+            throw new IOException("Maximum column length of 100,000 exceeded in column "
+                    + NumberFormat.getIntegerInstance().format(columnsCount)
+                    + " in record "
+                    + NumberFormat.getIntegerInstance().format(currentRecord)
+                    + ". Set the SafetySwitch property to false"
+                    + " if you're expecting column lengths greater than 100,000 characters to"
+                    + " avoid this error.");
+        }
+    }
+
+    /**
+     * Checks the length of the current record so far, which is counted
+     * whenever the data buffer is refilled and when the record ends.
+     */
+    private void checkRecordLength(int length, long record) throws IOException {
+        if (length > userSettings.maxRecordLength()) {
+            throw limitExceeded("Maximum record length of "
+                    + NumberFormat.getIntegerInstance().format(userSettings.maxRecordLength())
+                    + " exceeded in record "
+                    + NumberFormat.getIntegerInstance().format(record) + ".");
+        }
+    }
+
+    /**
+     * Grows one of the buffers, as long as all of them together stay within
+     * the maximum buffered length.
+     * 
+     * @param used How much of the buffer has to be kept.
+     * @return The grown buffer.
+     */
+    private char[] growBuffer(char[] buffer, int used, int newLength) throws IOException {
+        // data parsed in place isn't held by the reader
+        long buffered = (source == null ? (long) dataBuffer.buffer.length : 0) + columnBuffer.buffer.length
+                + rawBuffer.buffer.length - buffer.length + newLength;
+
+        if (buffered > userSettings.maxBufferedLength()) {
+            throw limitExceeded("Maximum buffered length of "
+                    + NumberFormat.getIntegerInstance().format(userSettings.maxBufferedLength())
+                    + " exceeded in record "
+                    + NumberFormat.getIntegerInstance().format(currentRecord) + ".");
+        }
+
+        char[] holder = new char[newLength];
+
+        System.arraycopy(buffer, 0, holder, 0, used);
+
+        peakBufferCapacity = Math.max(peakBufferCapacity, buffered);
+
+        if (metrics != null) {
+            if (buffer == rawBuffer.buffer) {
+                metrics.rawBufferGrew();
+            } else {
+                metrics.columnBufferGrew();
+            }
+        }
+
+        return holder;
+    }
+
+    /**
+     * Closes the reader, as data that goes over one of the limits in the user
+     * settings can't be read any further.
+     * 
+     * @return The exception to throw.
+     */
+    private IOException limitExceeded(String message) {
+        close();
+
+        return new IOException(message);
+    }
+
+    /**
+     * Copies the finished columns of the current record that are still in the
+     * data buffer over to the column buffer, before the data buffer is
+     * refilled. They go in front of whatever the current column already has
+     * in the column buffer, so that it stays in one piece.
+     */
+    private void relocateColumns() throws IOException {
+        int slots = projection != null ? projectedCount : columnsCount;
+        int length = 0;
+
+        for (int i = 0; i < slots; i++) {
+            if (!columnBuffered[i]) {
+                length += columnEnds[i] - columnStarts[i];
+            }
+        }
+
+        if (length == 0) {
+            return;
+        }
+
+        if (columnBuffer.buffer.length - columnBuffer.position < length) {
+            int newLength = columnBuffer.buffer.length + Math.max(length, columnBuffer.buffer.length);
+
+            columnBuffer.buffer = growBuffer(columnBuffer.buffer, columnBuffer.position, newLength);
+        }
+
+        System.arraycopy(columnBuffer.buffer, columnBuffer.columnStart, columnBuffer.buffer,
+                columnBuffer.columnStart + length, columnBuffer.position - columnBuffer.columnStart);
+
+        int position = columnBuffer.columnStart;
+
+        for (int i = 0; i < slots; i++) {
+            if (!columnBuffered[i]) {
+                int columnLength = columnEnds[i] - columnStarts[i];
+
+                System.arraycopy(dataBuffer.buffer, columnStarts[i], columnBuffer.buffer, position, columnLength);
+
+                columnStarts[i] = position;
+                columnEnds[i] = position + columnLength;
+                columnBuffered[i] = true;
+
+                position += columnLength;
+            }
+        }
+
+        columnBuffer.columnStart += length;
+        columnBuffer.position += length;
+    }
+
+    /**
+     * Read the first record of data as column headers.
+     * 
+     * @return Whether the header record was successfully read or not.
+     * @exception IOException Thrown if an error occurs while reading data from the
+     *                        source stream.
+     */
+    public boolean readHeaders() throws IOException {
+        // the headers are always read in full
+        int[] currentProjection = projection;
+        projection = null;
+
+        boolean result = readRecord();
+
+        projection = currentProjection;
+
+        // copy the header data from the column array
+        // to the header string array
 
         headersHolder.length = columnsCount;
 
-        headersHolder.headers = new String[columnsCount];
+        headersHolder.headers = new String[columnsCount];
+
+        for (int i = 0; i < headersHolder.length; i++) {
+            String columnValue = get(i);
+
+            headersHolder.headers[i] = columnValue;
+
+            // if there are duplicate header names, we will save the last one
+            headersHolder.indexByName.put(columnValue, i);
+        }
+
+        headersHolder.buildLookup();
+
+        if (result) {
+            currentRecord--;
+            headerRecords++;
+        }
+
+        columnsCount = 0;
+
+        return result;
+    }
+
+    /**
+     * Returns the column header value for a given column index.
+     * 
+     * @param columnIndex The index of the header column being requested.
+     * @return The value of the column header at the given column index.
+     * @exception IOException Thrown if this object has already been closed.
+     */
+    public String getHeader(int columnIndex) throws IOException {
+        checkClosed();
+
+        // check to see if we have read the header record yet
+
+        // check to see if the column index is within the bounds
+        // of our header array
+
+        if (columnIndex > -1 && columnIndex < headersHolder.length) {
+            // return the processed header data for this column
+
+            return headersHolder.headers[columnIndex];
+        } else {
+            return "";
+        }
+    }
+
+    public boolean isQualified(int columnIndex) throws IOException {
+        checkClosed();
+
+        if (columnIndex < columnsCount && columnIndex > -1) {
+            return byteParser != null ? byteParser.isQualified(columnIndex) : isQualified[columnIndex];
+        } else {
+            return false;
+        }
+    }
+
+    /**
+     * @exception IOException Thrown if a very rare extreme exception occurs during
+     *                        parsing, normally resulting from improper data format.
+     */
+    private void endColumn() throws IOException {
+        // only the bounds of the column are kept, the value itself is
+        // created when it's first requested
+        int start = 0;
+        int end = 0;
+        boolean buffered = false;
+        boolean escaped = false;
+        boolean skipped = skippingColumn();
+
+        // must be called before setting startedColumn = false
+        if (startedColumn && !skipped) {
+            if (columnBuffer.position == columnBuffer.columnStart) {
+                if (dataBuffer.columnStart < dataBuffer.position) {
+                    start = dataBuffer.columnStart;
+                    end = dataBuffer.position;
+
+                    if (userSettings.trimWhitespace() && !startedWithQualifier) {
+                        while (end > start && (dataBuffer.buffer[end - 1] == Letters.SPACE
+                                || dataBuffer.buffer[end - 1] == Letters.TAB)) {
+                            end--;
+                        }
+                    }
+                }
+            } else {
+                updateCurrentValue();
+
+                start = columnBuffer.columnStart;
+                end = columnBuffer.position;
+                buffered = true;
+
+                if (userSettings.trimWhitespace() && !startedWithQualifier) {
+                    while (end > start && (columnBuffer.buffer[end - 1] == Letters.SPACE
+                            || columnBuffer.buffer[end - 1] == Letters.TAB)) {
+                        end--;
+                    }
+                }
+
+                // the trimmed whitespace isn't needed anymore
+                columnBuffer.position = end;
+            }
+
+            if (startedWithQualifier && qualifiedLength > -1) {
+                // drops the closing qualifier and anything after it
+                end = start + qualifiedLength;
+            }
+
+            escaped = startedWithQualifier && hasEscapes;
+        }
+
+        qualifiedLength = -1;
+        hasEscapes = false;
+
+        columnBuffer.columnStart = columnBuffer.position;
+
+        startedColumn = false;
+
+        if (columnsCount >= 100000 && userSettings.safetySwitch) {
+            close();
+
+            throw new IOException(
+                    "Maximum column count of 100,000 exceeded in record "
+                            + NumberFormat.getIntegerInstance().format(
+                                    currentRecord)
+                            + ". Set the SafetySwitch property to false"
+                            + " if you're expecting more than 100,000 columns per record to"
+                            + " avoid this error.");
+        }
+
+        int slot = columnsCount;
+
+        columnsCount++;
+
+        if (skipped) {
+            return;
+        } else if (projection != null) {
+            // the slots of the projection are allocated up front
+            slot = projection[slot];
+        } else if (slot == values.length) {
+            // check to see if our current holder array for
+            // column chunks is still big enough to handle another
+            // column chunk
+
+            growColumns(values.length * 2);
+        }
+
+        values[slot] = null;
+
+        isQualified[slot] = startedWithQualifier;
+
+        columnStarts[slot] = start;
+        columnEnds[slot] = end;
+        columnBuffered[slot] = buffered;
+        columnEscaped[slot] = escaped;
+    }
+
+    private void growColumns(int newLength) {
+        if (metrics != null) {
+            metrics.columnArrayGrew();
+        }
+
+        String[] holder = new String[newLength];
+
+        System.arraycopy(values, 0, holder, 0, values.length);
+
+        values = holder;
+
+        boolean[] qualifiedHolder = new boolean[newLength];
+
+        System.arraycopy(isQualified, 0, qualifiedHolder, 0,
+                isQualified.length);
+
+        isQualified = qualifiedHolder;
+
+        int[] startsHolder = new int[newLength];
+
+        System.arraycopy(columnStarts, 0, startsHolder, 0, columnStarts.length);
+
+        columnStarts = startsHolder;
+
+        int[] endsHolder = new int[newLength];
+
+        System.arraycopy(columnEnds, 0, endsHolder, 0, columnEnds.length);
+
+        columnEnds = endsHolder;
+
+        boolean[] bufferedHolder = new boolean[newLength];
+
+        System.arraycopy(columnBuffered, 0, bufferedHolder, 0, columnBuffered.length);
+
+        columnBuffered = bufferedHolder;
+
+        boolean[] escapedHolder = new boolean[newLength];
+
+        System.arraycopy(columnEscaped, 0, escapedHolder, 0, columnEscaped.length);
+
+        columnEscaped = escapedHolder;
+    }
+
+    /**
+     * Whether the column being parsed is left out by the projection, in which
+     * case none of its contents need to be kept.
+     */
+    private boolean skippingColumn() {
+        return projection != null && (columnsCount >= projection.length || projection[columnsCount] < 0);
+    }
+
+    private void appendLetter(char letter) throws IOException {
+        if (skippingColumn()) {
+            dataBuffer.columnStart = dataBuffer.position + 1;
+            return;
+        }
+
+        if (columnBuffer.position == columnBuffer.buffer.length) {
+            int newLength = columnBuffer.buffer.length * 2;
+
+            columnBuffer.buffer = growBuffer(columnBuffer.buffer, columnBuffer.position, newLength);
+        }
+        columnBuffer.buffer[columnBuffer.position++] = letter;
+        dataBuffer.columnStart = dataBuffer.position + 1;
+    }
+
+    private void updateCurrentValue() throws IOException {
+        if (startedColumn && dataBuffer.columnStart < dataBuffer.position && !skippingColumn()) {
+            if (columnBuffer.buffer.length - columnBuffer.position < dataBuffer.position
+                    - dataBuffer.columnStart) {
+                int newLength = columnBuffer.buffer.length
+                        + Math.max(
+                                dataBuffer.position - dataBuffer.columnStart,
+                                columnBuffer.buffer.length);
+
+                columnBuffer.buffer = growBuffer(columnBuffer.buffer, columnBuffer.position, newLength);
+            }
+
+            System.arraycopy(dataBuffer.buffer, dataBuffer.columnStart,
+                    columnBuffer.buffer, columnBuffer.position,
+                    dataBuffer.position - dataBuffer.columnStart);
+
+            columnBuffer.position += dataBuffer.position
+                    - dataBuffer.columnStart;
+        }
+
+        dataBuffer.columnStart = dataBuffer.position + 1;
+    }
+
+    /**
+     * @exception IOException Thrown if an error occurs while reading data from the
+     *                        source stream.
+     */
+    private void endRecord() throws IOException {
+        // this flag is used as a loop exit condition
+        // during parsing
+
+        hasReadNextLine = true;
+
+        currentRecord++;
+    }
+
+    /**
+     * Gets the corresponding column index for a given column header name.
+     * 
+     * @param headerName The header name of the column.
+     * @return The column index for the given column header name. Returns -1 if not
+     *         found.
+     * @exception IOException Thrown if this object has already been closed.
+     */
+    public int getIndex(String headerName) throws IOException {
+        checkClosed();
+
+        int index = headersHolder.indexOf(headerName);
+
+        if (index != -1 && projection != null) {
+            return index < projection.length ? projection[index] : -1;
+        } else {
+            return index;
+        }
+    }
+
+    /**
+     * Gets a handle to the column with the given header name, which reads the
+     * column of the current record without looking the name up again. The
+     * column is found once, so the handle has to be asked for again after
+     * the headers or the projection change.
+     * 
+     * @param headerName The header name of the column.
+     * @return The handle to the column.
+     * @exception IOException Thrown if this object has already been closed.
+     */
+    public ColumnHandle getColumnHandle(String headerName) throws IOException {
+        checkClosed();
+
+        int columnIndex = getIndex(headerName);
+
+        if (columnIndex == -1) {
+            throw new IllegalArgumentException("Header " + headerName + " was not found.");
+        }
+
+        return new ColumnHandle(this, headerName, columnIndex);
+    }
+
+    /**
+     * Limits the columns that are parsed to the given ones. Columns that are
+     * left out are only scanned for where they end, so no time is spent on
+     * unescaping, trimming or copying them. From the next record read,
+     * {@link main.java.com.csvreader.CsvReader#get(int) get(int)},
+     * {@link main.java.com.csvreader.CsvReader#getValues getValues()} and
+     * {@link main.java.com.csvreader.CsvReader#getColumnCount getColumnCount()}
+     * only see the projected columns, in the order given here, and
+     * {@link main.java.com.csvreader.CsvReader#getIndex getIndex()} returns
+     * the position of a header in the projection. The header record is always
+     * read in full.
+     * 
+     * @param columnIndexes The indexes of the columns to parse.
+     */
+    public void setProjection(int... columnIndexes) {
+        if (columnIndexes == null) {
+            throw new IllegalArgumentException("Parameter columnIndexes can not be null.");
+        }
+
+        int maxIndex = -1;
+
+        for (int columnIndex : columnIndexes) {
+            if (columnIndex < 0) {
+                throw new IllegalArgumentException("Parameter columnIndexes can not contain negative indexes.");
+            }
+
+            maxIndex = Math.max(maxIndex, columnIndex);
+        }
+
+        int[] positions = new int[maxIndex + 1];
+
+        Arrays.fill(positions, -1);
+
+        for (int i = 0; i < columnIndexes.length; i++) {
+            if (positions[columnIndexes[i]] != -1) {
+                throw new IllegalArgumentException("Column " + columnIndexes[i]
+                        + " can not be projected more than once.");
+            }
+
+            positions[columnIndexes[i]] = i;
+        }
+
+        projection = positions;
+        projectedCount = columnIndexes.length;
+    }
+
+    /**
+     * Limits the columns that are parsed to the ones with the given header
+     * names, as read by a previous call to
+     * {@link main.java.com.csvreader.CsvReader#readHeaders readHeaders()}. See
+     * {@link main.java.com.csvreader.CsvReader#setProjection(int...)
+     * setProjection(int...)}.
+     * 
+     * @param headerNames The header names of the columns to parse.
+     * @exception IOException Thrown if this object has already been closed.
+     */
+    public void setProjection(String... headerNames) throws IOException {
+        checkClosed();
+
+        if (headerNames == null) {
+            throw new IllegalArgumentException("Parameter headerNames can not be null.");
+        }
+
+        int[] columnIndexes = new int[headerNames.length];
+
+        for (int i = 0; i < headerNames.length; i++) {
+            columnIndexes[i] = headersHolder.indexOf(headerNames[i]);
+
+            if (columnIndexes[i] == -1) {
+                throw new IllegalArgumentException("Header " + headerNames[i] + " was not found.");
+            }
+        }
+
+        setProjection(columnIndexes);
+    }
+
+    /**
+     * Goes back to parsing every column, from the next record read.
+     */
+    public void clearProjection() {
+        projection = null;
+        projectedCount = 0;
+    }
+
+    /**
+     * Keeps the distinct values of the given columns, so that every record
+     * with the same value in one of them gives the same String, which saves
+     * memory when records are kept around. Values are looked up straight from
+     * the reader's buffers, so nothing is allocated for a value that was seen
+     * before. This is meant for columns with only a few distinct values, each
+     * column keeps at most a fixed number of them and creates new Strings for
+     * the rest. The indexes are the ones
+     * {@link main.java.com.csvreader.CsvReader#get(int) get(int)} takes, so
+     * positions in the projection when one is set.
+     * 
+     * @param columnIndexes The indexes of the columns to intern.
+     */
+    public void setInterned(int... columnIndexes) {
+        if (columnIndexes == null) {
+            throw new IllegalArgumentException("Parameter columnIndexes can not be null.");
+        }
+
+        int maxIndex = internCaches != null ? internCaches.length - 1 : -1;
+
+        for (int columnIndex : columnIndexes) {
+            if (columnIndex < 0) {
+                throw new IllegalArgumentException("Parameter columnIndexes can not contain negative indexes.");
+            }
+
+            maxIndex = Math.max(maxIndex, columnIndex);
+        }
+
+        InternCache[] caches = new InternCache[maxIndex + 1];
+
+        if (internCaches != null) {
+            System.arraycopy(internCaches, 0, caches, 0, internCaches.length);
+        }
+
+        for (int columnIndex : columnIndexes) {
+            if (caches[columnIndex] == null) {
+                caches[columnIndex] = new InternCache();
+            }
+        }
+
+        internCaches = caches;
+    }
+
+    /**
+     * Keeps the distinct values of the columns with the given header names,
+     * as read by a previous call to
+     * {@link main.java.com.csvreader.CsvReader#readHeaders readHeaders()}. See
+     * {@link main.java.com.csvreader.CsvReader#setInterned(int...)
+     * setInterned(int...)}.
+     * 
+     * @param headerNames The header names of the columns to intern.
+     * @exception IOException Thrown if this object has already been closed.
+     */
+    public void setInterned(String... headerNames) throws IOException {
+        checkClosed();
+
+        if (headerNames == null) {
+            throw new IllegalArgumentException("Parameter headerNames can not be null.");
+        }
+
+        int[] columnIndexes = new int[headerNames.length];
+
+        for (int i = 0; i < headerNames.length; i++) {
+            columnIndexes[i] = getIndex(headerNames[i]);
+
+            if (columnIndexes[i] == -1) {
+                throw new IllegalArgumentException("Header " + headerNames[i] + " was not found.");
+            }
+        }
+
+        setInterned(columnIndexes);
+    }
+
+    /**
+     * Stops interning values, and forgets every value that was kept.
+     */
+    public void clearInterned() {
+        internCaches = null;
+    }
+
+    /**
+     * Empties the slots of the projected columns, as a record doesn't
+     * necessarily have all of them.
+     */
+    private void clearProjectedColumns() {
+        if (projectedCount > values.length) {
+            growColumns(projectedCount);
+        }
+
+        Arrays.fill(values, 0, projectedCount, null);
+        Arrays.fill(isQualified, 0, projectedCount, false);
+        Arrays.fill(columnStarts, 0, projectedCount, 0);
+        Arrays.fill(columnEnds, 0, projectedCount, 0);
+        Arrays.fill(columnBuffered, 0, projectedCount, false);
+        Arrays.fill(columnEscaped, 0, projectedCount, false);
+    }
+
+    public CsvIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Sets the index used by {@link #seekToRecord(long)}. Default is the
+     * sidecar index next to the file, when there is one.
+     * 
+     * @param index The index of the file, see
+     *              {@link ParallelCsvReader#buildIndex(int)}.
+     */
+    public void setIndex(CsvIndex index) {
+        this.index = index;
+    }
+
+    /**
+     * Moves to a record of the file, which becomes the next one read by
+     * {@link #readRecord()}. Records are counted the same way as
+     * {@link #getCurrentRecord()} counts them, so after {@link #readHeaders()}
+     * record 0 is the first one after the headers. Records skipped with
+     * {@link #skipRecord()} are counted.
+     * <p>
+     * Parsing starts over from the last checkpoint of the index before the
+     * record, or from the start of the file when there is no index.
+     * 
+     * @param recordNumber The index of the record.
+     * @exception IOException Thrown if the data source isn't a file, the index
+     *                        doesn't match the file, or an error occurs while
+     *                        reading data from the file.
+     */
+    public void seekToRecord(long recordNumber) throws IOException {
+        checkClosed();
+
+        if (recordNumber < 0) {
+            throw new IllegalArgumentException("Parameter recordNumber can not be negative.");
+        }
+
+        if (fileName == null) {
+            throw new IOException("Only records of a file can be sought.");
+        }
+
+        if (index == null) {
+            String sidecarFileName = CsvIndex.sidecarFileName(fileName);
+
+            if (new File(sidecarFileName).exists()) {
+                index = CsvIndex.read(sidecarFileName);
+            }
+        }
+
+        long fileRecord = recordNumber + headerRecords;
+        long checkpointRecord = 0;
+        long checkpointOffset = 0;
 
-        for (int i = 0; i < headersHolder.length; i++) {
-            String columnValue = get(i);
+        if (index != null) {
+            if (!index.matches(fileName, charset, userSettings, useCustomRecordDelimiter)) {
+                throw new IOException("The index of file " + fileName
+                        + " was built with other settings or for an older version of the file.");
+            }
 
-            headersHolder.headers[i] = columnValue;
+            int checkpoint = index.findCheckpoint(fileRecord);
 
-            // if there are duplicate header names, we will save the last one
-            headersHolder.indexByName.put(columnValue, i);
+            if (checkpoint != -1) {
+                checkpointRecord = index.checkpointRecord(checkpoint);
+                checkpointOffset = index.checkpointOffset(checkpoint);
+            }
         }
 
-        if (result) {
-            currentRecord--;
-        }
+        // the source is opened again at the checkpoint on the next read,
+        // where no record has been started yet
+        closeSource();
 
+        sourceOffset = checkpointOffset;
+        initialized = false;
+        hasMoreData = true;
+        startedColumn = false;
+        startedWithQualifier = false;
+        hasReadNextLine = false;
+        lastLetter = '\0';
         columnsCount = 0;
+        currentRecord = checkpointRecord - headerRecords;
 
-        return result;
+        // skipped records don't count, the records before the one sought do
+        currentRecord += skipRecords(fileRecord - checkpointRecord);
+
+        rawRecord = "";
     }
 
     /**
-     * Returns the column header value for a given column index.
+     * Starts over with another {@link java.io.Reader Reader} as the data
+     * source, as if this reader had just been created for it with the same
+     * settings. The current data source is closed. The buffers are kept, so
+     * parsing many small inputs with one reader allocates little more than the
+     * values themselves. Headers are cleared, while projections and interned
+     * columns are kept.
      * 
-     * @param columnIndex The index of the header column being requested.
-     * @return The value of the column header at the given column index.
-     * @exception IOException Thrown if this object has already been closed.
+     * @param inputStream The stream to use as the data source.
      */
-    public String getHeader(int columnIndex) throws IOException {
-        checkClosed();
+    public void reset(Reader inputStream) {
+        if (inputStream == null) {
+            throw new IllegalArgumentException("Parameter inputStream can not be null.");
+        }
 
-        // check to see if we have read the header record yet
+        rebind();
 
-        // check to see if the column index is within the bounds
-        // of our header array
+        this.inputStream = inputStream;
+    }
 
-        if (columnIndex > -1 && columnIndex < headersHolder.length) {
-            // return the processed header data for this column
+    /**
+     * Starts over with another {@link java.io.InputStream InputStream} as the
+     * data source, see {@link #reset(Reader)}.
+     * 
+     * @param inputStream The stream to use as the data source.
+     * @param charset     The {@link java.nio.charset.Charset Charset} to use while
+     *                    parsing the data.
+     */
+    public void reset(InputStream inputStream, Charset charset) {
+        if (inputStream == null) {
+            throw new IllegalArgumentException("Parameter inputStream can not be null.");
+        }
 
-            return headersHolder.headers[columnIndex];
-        } else {
-            return "";
+        if (charset == null) {
+            throw new IllegalArgumentException("Parameter charset can not be null.");
         }
+
+        rebind();
+
+        this.byteStream = inputStream;
+        this.charset = charset;
     }
 
-    public boolean isQualified(int columnIndex) throws IOException {
-        checkClosed();
+    /**
+     * Starts over with an array of bytes as the data source, see
+     * {@link #reset(Reader)}.
+     * 
+     * @param data    The bytes to use as the data source.
+     * @param charset The {@link java.nio.charset.Charset Charset} to use while
+     *                parsing the data.
+     */
+    public void reset(byte[] data, Charset charset) {
+        if (data == null) {
+            throw new IllegalArgumentException("Parameter data can not be null.");
+        }
 
-        if (columnIndex < columnsCount && columnIndex > -1) {
-            return isQualified[columnIndex];
-        } else {
-            return false;
+        reset(new ByteArrayInputStream(data), charset);
+    }
+
+    /**
+     * Starts over with characters in memory as the data source, see
+     * {@link #reset(Reader)} and {@link #parse(CharSequence)}.
+     * 
+     * @param data The characters to use as the source.
+     */
+    public void reset(CharSequence data) {
+        if (data == null) {
+            throw new IllegalArgumentException("Parameter data can not be null.");
         }
+
+        rebind();
+        setSource(data);
     }
 
     /**
-     * @exception IOException Thrown if a very rare extreme exception occurs during
-     *                        parsing, normally resulting from improper data format.
+     * Closes the current data source and forgets everything about the data
+     * read from it, keeping the buffers for the next one.
      */
-    private void endColumn() throws IOException {
-        String currentValue = "";
+    private void rebind() {
+        closeSource();
 
-        // must be called before setting startedColumn = false
-        if (startedColumn) {
-            if (columnBuffer.position == 0) {
-                if (dataBuffer.columnStart < dataBuffer.position) {
-                    int lastLetter = dataBuffer.position - 1;
+        if (source != null) {
+            // the data buffer is the source's array
+            source = null;
+            dataBuffer = null;
+        }
 
-                    if (userSettings.trimWhitespace() && !startedWithQualifier) {
-                        while (lastLetter >= dataBuffer.columnStart && (dataBuffer.buffer[lastLetter] == Letters.SPACE
-                                || dataBuffer.buffer[lastLetter] == Letters.TAB)) {
-                            lastLetter--;
-                        }
-                    }
+        text = null;
 
-                    currentValue = new String(dataBuffer.buffer,
-                            dataBuffer.columnStart, lastLetter
-                                    - dataBuffer.columnStart + 1);
-                }
-            } else {
-                updateCurrentValue();
+        fileName = null;
+        charset = null;
+        sourceOffset = 0;
+        index = null;
+        initialized = false;
+        closed = false;
+        hasMoreData = true;
+        startedColumn = false;
+        startedWithQualifier = false;
+        hasReadNextLine = false;
+        lastLetter = '\0';
+        qualifiedLength = -1;
+        hasEscapes = false;
+        columnsCount = 0;
+        currentRecord = 0;
+        headerRecords = 0;
+        recordLength = 0;
+        recordsBelowBaseline = 0;
+        peakBufferCapacity = 0;
+        rawRecord = "";
+        rawStart = 0;
+        rawLength = 0;
 
-                int lastLetter = columnBuffer.position - 1;
+        if (pool != null) {
+            useCustomRecordDelimiter = pool.useCustomRecordDelimiter;
+        }
 
-                if (userSettings.trimWhitespace() && !startedWithQualifier) {
-                    while (lastLetter >= 0 && (columnBuffer.buffer[lastLetter] == Letters.SPACE
-                            || columnBuffer.buffer[lastLetter] == Letters.TAB)) {
-                        lastLetter--;
+        headersHolder.headers = null;
+        headersHolder.length = 0;
+
+        if (headersHolder.indexByName == null) {
+            headersHolder.indexByName = new HashMap<>();
+            headersHolder.buildLookup();
+        } else if (!headersHolder.indexByName.isEmpty()) {
+            headersHolder.indexByName.clear();
+            headersHolder.buildLookup();
+        }
+    }
+
+    /**
+     * Skips the next record of data by parsing each column. Does not increment
+     * {@link main.java.com.csvreader.CsvReader#getCurrentRecord
+     * getCurrentRecord()}.
+     * 
+     * @return Whether another record was successfully skipped or not.
+     * @exception IOException Thrown if an error occurs while reading data from the
+     *                        source stream.
+     */
+    public boolean skipRecord() throws IOException {
+        return skipRecords(1) == 1;
+    }
+
+    /**
+     * Skips the next records of data. Does not increment
+     * {@link main.java.com.csvreader.CsvReader#getCurrentRecord
+     * getCurrentRecord()}. Records end in the same places as for
+     * {@link main.java.com.csvreader.CsvReader#readRecord readRecord()}, but
+     * when text qualifiers are doubled to escape them only the text
+     * qualifiers are followed to find those places, without keeping any
+     * columns. The values of the skipped records aren't available afterwards,
+     * the raw record is the one of the last skipped record.
+     * 
+     * @param count The number of records to skip.
+     * @return The number of records skipped, less than the count only when the
+     *         end of the data was reached.
+     * @exception IOException Thrown if an error occurs while reading data from the
+     *                        source stream.
+     */
+    public long skipRecords(long count) throws IOException {
+        checkClosed();
+
+        if (count < 0) {
+            throw new IllegalArgumentException("Parameter count can not be negative.");
+        }
+
+        long skipped = 0;
+
+        if (count > 0) {
+            checkInit();
+
+            if (metrics != null) {
+                metrics.startParsing();
+            }
+
+            try {
+                if (byteParser != null || userSettings.escapeMode() != EscapeMode.DOUBLED) {
+                    while (skipped < count && nextRecord()) {
+                        currentRecord--;
+                        skipped++;
                     }
+                } else if (hasMoreData) {
+                    skipped = skipDoubledRecords(count);
+                } else {
+                    // the same as for readRecord()
+                    rawRecord = "";
+                }
+            } finally {
+                if (metrics != null) {
+                    metrics.stopParsing(1);
+                    metrics.recordsSkipped(skipped);
                 }
-
-                currentValue = new String(columnBuffer.buffer, 0,
-                        lastLetter + 1);
             }
         }
 
-        columnBuffer.position = 0;
+        columnsCount = 0;
 
-        startedColumn = false;
+        return skipped;
+    }
 
-        if (columnsCount >= 100000 && userSettings.safetySwitch) {
-            close();
+    /**
+     * Skips records for skipRecords(), finding where they end the same way
+     * parseRecord() does.
+     * 
+     * @return The number of records skipped.
+     */
+    private long skipDoubledRecords(long count) throws IOException {
+        char delimiter = userSettings.delimiter();
+        char textQualifier = userSettings.textQualifier();
+        char comment = userSettings.comment;
+        boolean useTextQualifier = userSettings.useTextQualifier;
+        boolean useComments = userSettings.useComments;
+        boolean trimWhitespace = userSettings.trimWhitespace();
+        boolean skipEmptyRecords = userSettings.skipEmptyRecords;
+        boolean captureRawRecord = userSettings.captureRawRecord;
+        char firstEnd = useCustomRecordDelimiter ? userSettings.recordDelimiter : Letters.CR;
+        char secondEnd = useCustomRecordDelimiter ? userSettings.recordDelimiter : Letters.LF;
+        char[] buffer = dataBuffer.buffer;
+        int position = dataBuffer.position;
+        int end = dataBuffer.count;
+        char lastLetter = this.lastLetter;
+        int state = SKIP_BETWEEN;
+        // whether a column has been started and how many have ended, for
+        // telling empty lines from records
+        boolean startedColumn = false;
+        int columns = 0;
+        long skipped = 0;
+        // where the last skipped record is in the data buffer, as long as it
+        // still is, the raw buffer holds what came before
+        boolean recordEnded = false;
+        // whether the last record was ended by the end of the data
+        boolean endedByData = false;
+        int endedStart = 0;
+        int endedLength = 0;
 
-            throw new IOException(
-                    "Maximum column count of 100,000 exceeded in record "
-                            + NumberFormat.getIntegerInstance().format(
-                                    currentRecord)
-                            + ". Set the SafetySwitch property to false"
-                            + " if you're expecting more than 100,000 columns per record to"
-                            + " avoid this error.");
-        }
+        columnsCount = 0;
+        rawBuffer.position = 0;
+        rawRecord = "";
+        dataBuffer.lineStart = position;
+
+        while (skipped < count) {
+            if (position >= end) {
+                dataBuffer.position = position;
+
+                if (hasMoreData) {
+                    if (captureRawRecord && end > 0) {
+                        if (recordEnded) {
+                            // the data buffer is about to be overwritten
+                            keepRawRecord(endedStart, endedLength);
+                            recordEnded = false;
+                        }
 
-        // check to see if our current holder array for
-        // column chunks is still big enough to handle another
-        // column chunk
+                        copyRawRecord();
+                    }
 
-        if (columnsCount == values.length) {
-            // holder array needs to grow to be able to hold another column
-            int newLength = values.length * 2;
+                    fillDataBuffer();
 
-            String[] holder = new String[newLength];
+                    buffer = dataBuffer.buffer;
+                    position = 0;
+                    end = dataBuffer.count;
+                }
 
-            System.arraycopy(values, 0, holder, 0, values.length);
+                if (!hasMoreData) {
+                    // the last record doesn't need to be ended
+                    if (startedColumn || lastLetter == delimiter) {
+                        skipped++;
+                        endedByData = true;
+                    }
 
-            values = holder;
+                    break;
+                }
 
-            boolean[] qualifiedHolder = new boolean[newLength];
+                continue;
+            }
 
-            System.arraycopy(isQualified, 0, qualifiedHolder, 0,
-                    isQualified.length);
+            char letter = buffer[position];
+            boolean ended = false;
 
-            isQualified = qualifiedHolder;
-        }
+            switch (state) {
+                case SKIP_BETWEEN:
+                    if (useTextQualifier && letter == textQualifier) {
+                        state = SKIP_QUALIFIED;
+                        startedColumn = true;
+                        lastLetter = letter;
+                    } else if (letter == delimiter) {
+                        columns++;
+                        startedColumn = false;
+                        lastLetter = letter;
+                    } else if (letter == firstEnd || letter == secondEnd) {
+                        // this will skip blank lines
+                        if (startedColumn || columns > 0 || (!skipEmptyRecords
+                                && (useCustomRecordDelimiter || letter == Letters.CR || lastLetter != Letters.CR))) {
+                            ended = true;
+                        } else {
+                            dataBuffer.lineStart = position + 1;
+                        }
 
-        values[columnsCount] = currentValue;
+                        lastLetter = letter;
+                    } else if (useComments && columns == 0 && letter == comment) {
+                        state = SKIP_COMMENT;
+                        startedColumn = false;
+                        lastLetter = letter;
+                    } else if (trimWhitespace && (letter == Letters.SPACE || letter == Letters.TAB)) {
+                        startedColumn = true;
+                    } else {
+                        state = SKIP_PLAIN;
+                        startedColumn = true;
+                        lastLetter = letter;
+                    }
 
-        isQualified[columnsCount] = startedWithQualifier;
+                    break;
+                case SKIP_PLAIN:
+                    int next = skipPlainLetters(position);
 
-        currentValue = "";
+                    if (next > position) {
+                        position = next;
+                        lastLetter = buffer[next - 1];
 
-        columnsCount++;
-    }
+                        if (next == end) {
+                            continue;
+                        }
 
-    private void appendLetter(char letter) {
-        if (columnBuffer.position == columnBuffer.buffer.length) {
-            int newLength = columnBuffer.buffer.length * 2;
+                        letter = buffer[next];
+                    }
 
-            char[] holder = new char[newLength];
+                    // the letter either separates or ends the record
+                    columns++;
+                    startedColumn = false;
+                    state = SKIP_BETWEEN;
+                    ended = letter != delimiter;
+                    lastLetter = letter;
 
-            System.arraycopy(columnBuffer.buffer, 0, holder, 0,
-                    columnBuffer.position);
+                    break;
+                case SKIP_QUALIFIED:
+                    position = skipUntil(position, textQualifier);
 
-            columnBuffer.buffer = holder;
-        }
-        columnBuffer.buffer[columnBuffer.position++] = letter;
-        dataBuffer.columnStart = dataBuffer.position + 1;
-    }
+                    if (position == end) {
+                        lastLetter = buffer[end - 1];
 
-    private void updateCurrentValue() {
-        if (startedColumn && dataBuffer.columnStart < dataBuffer.position) {
-            if (columnBuffer.buffer.length - columnBuffer.position < dataBuffer.position
-                    - dataBuffer.columnStart) {
-                int newLength = columnBuffer.buffer.length
-                        + Math.max(
-                                dataBuffer.position - dataBuffer.columnStart,
-                                columnBuffer.buffer.length);
+                        continue;
+                    }
 
-                char[] holder = new char[newLength];
+                    state = SKIP_QUALIFIER;
+                    lastLetter = textQualifier;
+
+                    break;
+                case SKIP_QUALIFIER:
+                case SKIP_JUNK:
+                    if (state == SKIP_QUALIFIER && letter == textQualifier) {
+                        // a doubled qualifier, so the previous one didn't
+                        // close the column
+                        state = SKIP_QUALIFIED;
+                    } else if (letter == delimiter) {
+                        columns++;
+                        startedColumn = false;
+                        state = SKIP_BETWEEN;
+                    } else if (letter == firstEnd || letter == secondEnd) {
+                        columns++;
+                        startedColumn = false;
+                        state = SKIP_BETWEEN;
+                        ended = true;
+                    } else {
+                        state = SKIP_JUNK;
+                    }
 
-                System.arraycopy(columnBuffer.buffer, 0, holder, 0,
-                        columnBuffer.position);
+                    lastLetter = letter;
 
-                columnBuffer.buffer = holder;
-            }
+                    break;
+                default:
+                    // comments always end at the end of the line
+                    if (letter == Letters.CR || letter == Letters.LF) {
+                        state = SKIP_BETWEEN;
+                        dataBuffer.lineStart = position + 1;
 
-            System.arraycopy(dataBuffer.buffer, dataBuffer.columnStart,
-                    columnBuffer.buffer, columnBuffer.position,
-                    dataBuffer.position - dataBuffer.columnStart);
+                        if (!recordEnded) {
+                            rawBuffer.position = 0;
+                        }
+                    }
 
-            columnBuffer.position += dataBuffer.position
-                    - dataBuffer.columnStart;
-        }
+                    lastLetter = letter;
 
-        dataBuffer.columnStart = dataBuffer.position + 1;
-    }
+                    break;
+            }
 
-    /**
-     * @exception IOException Thrown if an error occurs while reading data from the
-     *                        source stream.
-     */
-    private void endRecord() throws IOException {
-        // this flag is used as a loop exit condition
-        // during parsing
+            position++;
 
-        hasReadNextLine = true;
+            if (ended) {
+                skipped++;
+                startedColumn = false;
+                columns = 0;
 
-        currentRecord++;
-    }
+                if (recordEnded) {
+                    // what the raw buffer holds is from the record before
+                    rawBuffer.position = 0;
+                }
 
-    /**
-     * Gets the corresponding column index for a given column header name.
-     * 
-     * @param headerName The header name of the column.
-     * @return The column index for the given column header name. Returns -1 if not
-     *         found.
-     * @exception IOException Thrown if this object has already been closed.
-     */
-    public int getIndex(String headerName) throws IOException {
-        checkClosed();
+                recordEnded = true;
+                endedStart = dataBuffer.lineStart;
+                endedLength = position - 1 - endedStart;
+                dataBuffer.lineStart = position;
+            }
+        }
 
-        Integer indexValue = headersHolder.indexByName.get(headerName);
+        dataBuffer.position = position;
+        this.startedColumn = false;
+        this.lastLetter = lastLetter;
 
-        if (indexValue != null) {
-            return indexValue.intValue();
-        } else {
-            return -1;
+        if (!captureRawRecord) {
+            rawRecord = "";
+        } else if (recordEnded) {
+            // only the bounds are kept, see getRawRecord
+            rawRecord = null;
+            rawStart = endedStart;
+            rawLength = endedLength;
+        } else if (endedByData) {
+            // all of it is in the raw buffer, like for the last record
+            // readRecord() reads
+            rawRecord = null;
+            rawStart = 0;
+            rawLength = 0;
+        } else if (skipped == 0) {
+            // only empty lines or comments were left, which the raw buffer
+            // may still hold
+            rawBuffer.position = 0;
+            rawRecord = "";
         }
+
+        return skipped;
     }
 
     /**
-     * Skips the next record of data by parsing each column. Does not increment
-     * {@link main.java.com.csvreader.CsvReader#getCurrentRecord
-     * getCurrentRecord()}.
-     * 
-     * @return Whether another record was successfully skipped or not.
-     * @exception IOException Thrown if an error occurs while reading data from the
-     *                        source stream.
+     * Creates the raw record of a record that was skipped, from its bounds in
+     * the data buffer and what the raw buffer holds, and empties the raw
+     * buffer for the record after it.
      */
-    public boolean skipRecord() throws IOException {
-        checkClosed();
-
-        boolean recordRead = false;
-
-        if (hasMoreData) {
-            recordRead = readRecord();
+    private void keepRawRecord(int start, int length) {
+        rawRecord = null;
+        rawStart = start;
+        rawLength = length;
 
-            if (recordRead) {
-                currentRecord--;
-            }
-        }
+        getRawRecord();
 
-        return recordRead;
+        rawBuffer.position = 0;
     }
 
     /**
@@ -1331,6 +3521,7 @@ public class CsvReader implements AutoCloseable {
      */
     public boolean skipLine() throws IOException {
         checkClosed();
+        checkInit();
 
         // clear public column values for current line
 
@@ -1338,6 +3529,20 @@ public class CsvReader implements AutoCloseable {
 
         boolean skippedLine = false;
 
+        if (byteParser != null) {
+            try {
+                skippedLine = byteParser.skipLine();
+            } catch (IOException ex) {
+                close();
+
+                throw ex;
+            }
+
+            rawRecord = "";
+
+            return skippedLine;
+        }
+
         if (hasMoreData) {
             boolean foundEol = false;
 
@@ -1369,6 +3574,7 @@ public class CsvReader implements AutoCloseable {
             } while (hasMoreData && !foundEol);
 
             columnBuffer.position = 0;
+            columnBuffer.columnStart = 0;
 
             dataBuffer.lineStart = dataBuffer.position + 1;
         }
@@ -1380,14 +3586,21 @@ public class CsvReader implements AutoCloseable {
     }
 
     /**
-     * Closes and releases all related resources.
+     * Closes and releases all related resources. A reader handed out by a
+     * {@link CsvReaderPool} only closes its data source and goes back to the
+     * pool, keeping its buffers. Closing it again does nothing, even once its
+     * buffers were handed out with another reader.
      */
     @Override
     public void close() {
         if (!closed) {
-            close(true);
+            close(pool == null);
 
             closed = true;
+
+            if (pool != null) {
+                pool.release(this);
+            }
         }
     }
 
@@ -1396,29 +3609,50 @@ public class CsvReader implements AutoCloseable {
      */
     private void close(boolean closing) {
         if (!closed) {
+            // the buffers the raw record is in are let go, or handed out
+            // with the next reader of a pool
+            if (rawRecord == null && initialized) {
+                getRawRecord();
+            }
+
             if (closing) {
                 charset = null;
                 headersHolder.headers = null;
                 headersHolder.indexByName = null;
-                dataBuffer.buffer = null;
-                columnBuffer.buffer = null;
-                rawBuffer.buffer = null;
-            }
-
-            try {
-                if (initialized) {
-                    inputStream.close();
-                }
-            } catch (Exception e) {
-                // just eat the exception
+                source = null;
+                text = null;
+                dataBuffer = null;
+                columnBuffer = null;
+                rawBuffer = null;
+                internCaches = null;
             }
 
-            inputStream = null;
+            closeSource();
 
             closed = true;
         }
     }
 
+    private void closeSource() {
+        try {
+            if (byteParser != null) {
+                peakBufferCapacity = Math.max(peakBufferCapacity, byteParser.peakCapacity());
+
+                byteParser.close();
+            } else if (inputStream != null) {
+                inputStream.close();
+            } else if (byteStream != null) {
+                byteStream.close();
+            }
+        } catch (Exception e) {
+            // just eat the exception
+        }
+
+        inputStream = null;
+        byteStream = null;
+        byteParser = null;
+    }
+
     /**
      * @exception IOException Thrown if this object has already been closed.
      */
@@ -1429,13 +3663,6 @@ public class CsvReader implements AutoCloseable {
         }
     }
 
-    /**
-     * 
-     */
-    protected void finalize() {
-        close(false);
-    }
-
     private static char hexToDec(char hex) {
         char result;
 
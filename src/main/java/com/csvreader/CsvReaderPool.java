@@ -0,0 +1,197 @@
+package com.csvreader;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+
+/**
+ * Hands out {@link CsvReader} objects that are used again once they are
+ * closed, for parsing many small inputs, such as the messages of a queue,
+ * without allocating the buffers of a new reader for each one. A reader is
+ * {@link CsvReader#reset(Reader) reset} to the input when it's handed out, and
+ * goes back to the pool when it's closed. Each reader handed out is a new
+ * object that takes over the buffers of a closed one, so a reader that is
+ * closed twice, or used after it was closed, never touches the reader handed
+ * out next.
+ * <p>
+ * Every thread keeps its own closed readers, so a reader is only ever used by
+ * the thread it was handed out to and the pool needs no locking. A reader
+ * that is closed by another thread goes to the closed readers of that thread.
+ * <p>
+ * All readers of a pool share its settings, which must not be changed while
+ * any of them is in use.
+ */
+public class CsvReaderPool {
+    // shared by all the readers of the pool
+    private final UserSettings userSettings;
+    // read by the readers whenever they are reset
+    boolean useCustomRecordDelimiter = false;
+    private int maxIdle = StaticSettings.MAX_IDLE_READERS;
+    private final ThreadLocal<ArrayDeque<CsvReader>> idle = ThreadLocal.withInitial(ArrayDeque::new);
+
+    /**
+     * Creates a {@link CsvReaderPool CsvReaderPool} object.
+     *
+     * @param delimiter The character to use as the column delimiter.
+     */
+    public CsvReaderPool(char delimiter) {
+        this.userSettings = new UserSettings().withDelimiter(delimiter);
+    }
+
+    /**
+     * Creates a {@link CsvReaderPool CsvReaderPool} object. Uses a comma as the
+     * column delimiter.
+     */
+    public CsvReaderPool() {
+        this(Letters.COMMA);
+    }
+
+    /**
+     * Gets the settings used by every reader of the pool.
+     *
+     * @return The settings used by every reader of the pool.
+     */
+    public UserSettings userSettings() {
+        return userSettings;
+    }
+
+    public char getRecordDelimiter() {
+        return userSettings.recordDelimiter;
+    }
+
+    /**
+     * Sets the character to use as the record delimiter.
+     *
+     * @param recordDelimiter The character to use as the record delimiter. Default
+     *                        is combination of standard end of line characters for
+     *                        Windows, Unix, or Mac.
+     */
+    public void setRecordDelimiter(char recordDelimiter) {
+        useCustomRecordDelimiter = true;
+        userSettings.recordDelimiter = recordDelimiter;
+    }
+
+    public int getMaxIdle() {
+        return maxIdle;
+    }
+
+    /**
+     * Sets how many closed readers each thread keeps, readers closed beyond
+     * that are let go. Default is 4.
+     *
+     * @param maxIdle The number of closed readers kept per thread.
+     */
+    public void setMaxIdle(int maxIdle) {
+        if (maxIdle < 0) {
+            throw new IllegalArgumentException("Parameter maxIdle can not be negative.");
+        }
+
+        this.maxIdle = maxIdle;
+    }
+
+    /**
+     * Gets a reader for a {@link java.io.Reader Reader}.
+     *
+     * @param inputStream The stream to use as the data source.
+     * @return A reader that goes back to the pool when it's closed.
+     */
+    public CsvReader acquire(Reader inputStream) {
+        if (inputStream == null) {
+            throw new IllegalArgumentException("Parameter inputStream can not be null.");
+        }
+
+        CsvReader reader = take();
+
+        reader.reset(inputStream);
+
+        return reader;
+    }
+
+    /**
+     * Gets a reader for an {@link java.io.InputStream InputStream}.
+     *
+     * @param inputStream The stream to use as the data source.
+     * @param charset     The {@link java.nio.charset.Charset Charset} to use while
+     *                    parsing the data.
+     * @return A reader that goes back to the pool when it's closed.
+     */
+    public CsvReader acquire(InputStream inputStream, Charset charset) {
+        if (inputStream == null) {
+            throw new IllegalArgumentException("Parameter inputStream can not be null.");
+        }
+
+        if (charset == null) {
+            throw new IllegalArgumentException("Parameter charset can not be null.");
+        }
+
+        CsvReader reader = take();
+
+        reader.reset(inputStream, charset);
+
+        return reader;
+    }
+
+    /**
+     * Gets a reader for an array of bytes.
+     *
+     * @param data    The bytes to use as the data source.
+     * @param charset The {@link java.nio.charset.Charset Charset} to use while
+     *                parsing the data.
+     * @return A reader that goes back to the pool when it's closed.
+     */
+    public CsvReader acquire(byte[] data, Charset charset) {
+        if (data == null) {
+            throw new IllegalArgumentException("Parameter data can not be null.");
+        }
+
+        if (charset == null) {
+            throw new IllegalArgumentException("Parameter charset can not be null.");
+        }
+
+        CsvReader reader = take();
+
+        reader.reset(data, charset);
+
+        return reader;
+    }
+
+    /**
+     * Gets a reader for characters in memory, which are parsed in place, see
+     * {@link CsvReader#parse(CharSequence)}.
+     *
+     * @param data The characters to use as the source.
+     * @return A reader that goes back to the pool when it's closed.
+     */
+    public CsvReader acquire(CharSequence data) {
+        if (data == null) {
+            throw new IllegalArgumentException("Parameter data can not be null.");
+        }
+
+        CsvReader reader = take();
+
+        reader.reset(data);
+
+        return reader;
+    }
+
+    private CsvReader take() {
+        CsvReader previous = idle.get().pollFirst();
+
+        return previous != null ? new CsvReader(this, userSettings, previous) : new CsvReader(this, userSettings);
+    }
+
+    /**
+     * Takes back a reader that was closed, on the thread that closed it.
+     */
+    void release(CsvReader reader) {
+        ArrayDeque<CsvReader> readers = idle.get();
+
+        if (readers.size() < maxIdle) {
+            // an idle reader doesn't hold on to what a large record grew
+            reader.trimBuffers();
+
+            readers.addFirst(reader);
+        }
+    }
+}
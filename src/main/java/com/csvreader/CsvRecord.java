@@ -0,0 +1,145 @@
+package com.csvreader;
+
+import java.io.IOException;
+
+/**
+ * A view of the current record of a {@link CsvReader}, handed to a
+ * {@link RecordConsumer}. Every reader has one view that is passed for all its
+ * records, so nothing is allocated per record besides the values that are
+ * asked for. The view is only valid while the consumer is handling the
+ * record.
+ */
+public final class CsvRecord {
+    private final CsvReader reader;
+    private boolean valid = false;
+
+    CsvRecord(CsvReader reader) {
+        this.reader = reader;
+    }
+
+    void setValid(boolean valid) {
+        this.valid = valid;
+    }
+
+    public long getRecordNumber() throws IOException {
+        checkValid();
+
+        return reader.getCurrentRecord();
+    }
+
+    public int getColumnCount() throws IOException {
+        checkValid();
+
+        return reader.getColumnCount();
+    }
+
+    public String getRawRecord() throws IOException {
+        checkValid();
+
+        return reader.getRawRecord();
+    }
+
+    /**
+     * Copies the values of the record into a new array.
+     *
+     * @return The values of the record.
+     * @exception IOException Thrown if the record is used outside of its
+     *                        consumer.
+     */
+    public String[] getValues() throws IOException {
+        checkValid();
+
+        return reader.getValues();
+    }
+
+    public String get(int columnIndex) throws IOException {
+        checkValid();
+
+        return reader.get(columnIndex);
+    }
+
+    public String get(String headerName) throws IOException {
+        checkValid();
+
+        return reader.get(headerName);
+    }
+
+    /**
+     * See {@link CsvReader#getCharSequence(int)}.
+     */
+    public CharSequence getCharSequence(int columnIndex) throws IOException {
+        checkValid();
+
+        return reader.getCharSequence(columnIndex);
+    }
+
+    public CharSequence getCharSequence(String headerName) throws IOException {
+        checkValid();
+
+        return reader.getCharSequence(headerName);
+    }
+
+    public int getInt(int columnIndex) throws IOException {
+        checkValid();
+
+        return reader.getInt(columnIndex);
+    }
+
+    public int getInt(String headerName) throws IOException {
+        checkValid();
+
+        return reader.getInt(headerName);
+    }
+
+    public long getLong(int columnIndex) throws IOException {
+        checkValid();
+
+        return reader.getLong(columnIndex);
+    }
+
+    public long getLong(String headerName) throws IOException {
+        checkValid();
+
+        return reader.getLong(headerName);
+    }
+
+    public double getDouble(int columnIndex) throws IOException {
+        checkValid();
+
+        return reader.getDouble(columnIndex);
+    }
+
+    public double getDouble(String headerName) throws IOException {
+        checkValid();
+
+        return reader.getDouble(headerName);
+    }
+
+    public boolean getBoolean(int columnIndex) throws IOException {
+        checkValid();
+
+        return reader.getBoolean(columnIndex);
+    }
+
+    public boolean getBoolean(String headerName) throws IOException {
+        checkValid();
+
+        return reader.getBoolean(headerName);
+    }
+
+    public boolean isQualified(int columnIndex) throws IOException {
+        checkValid();
+
+        return reader.isQualified(columnIndex);
+    }
+
+    /**
+     * @exception IOException Thrown if the record is used outside of its
+     *                        consumer.
+     */
+    private void checkValid() throws IOException {
+        if (!valid) {
+            throw new IOException("A record can only be used while it's being handled by its consumer.");
+        }
+    }
+}
@@ -44,6 +44,10 @@ public class CsvWriter implements AutoCloseable {
     private boolean initialized = false;
     private boolean closed = false;
     private String systemRecordDelimiter = System.getProperty("line.separator");
+    // only set when the writer encodes the data itself
+    private MeteredOutputStream meteredStream = null;
+    // only set when metrics are kept, see UserSettings.withMetrics
+    private WriterMetrics metrics = null;
 
     /**
      * Creates a {@link main.java.com.csvreader.CsvWriter CsvWriter} object using a
@@ -107,13 +111,37 @@ public class CsvWriter implements AutoCloseable {
      *                     writing the data.
      */
     public CsvWriter(OutputStream outputStream, char delimiter, Charset charset) {
+        this(new MeteredOutputStream(outputStream), delimiter, charset);
+    }
+
+    private CsvWriter(MeteredOutputStream outputStream, char delimiter, Charset charset) {
         this(new OutputStreamWriter(outputStream, charset), delimiter);
+
+        this.meteredStream = outputStream;
     }
 
     public UserSettings userSettings() {
         return userSettings;
     }
 
+    /**
+     * Gets the counters this writer keeps when
+     * {@link UserSettings#withMetrics(boolean)} is set.
+     * 
+     * @return The counters, or null when no metrics are kept.
+     */
+    public WriterMetrics getMetrics() {
+        if (metrics == null && userSettings.metrics()) {
+            metrics = new WriterMetrics();
+
+            if (meteredStream != null) {
+                meteredStream.metrics = metrics;
+            }
+        }
+
+        return metrics;
+    }
+
     public char getRecordDelimiter() {
         return userSettings.recordDelimiter;
     }
@@ -195,6 +223,10 @@ public class CsvWriter implements AutoCloseable {
             content = "";
         }
 
+        if (metrics != null) {
+            metrics.fieldWritten();
+        }
+
         if (!firstColumn) {
             outputStream.write(userSettings.delimiter());
         }
@@ -349,6 +381,10 @@ public class CsvWriter implements AutoCloseable {
             outputStream.write(systemRecordDelimiter);
         }
 
+        if (metrics != null) {
+            metrics.recordWritten();
+        }
+
         firstColumn = true;
     }
 
@@ -358,12 +394,17 @@ public class CsvWriter implements AutoCloseable {
     private void checkInit() throws IOException {
         if (!initialized) {
             if (fileName != null) {
-                outputStream = new BufferedWriter(new OutputStreamWriter(
-                        new FileOutputStream(fileName), charset));
+                meteredStream = new MeteredOutputStream(new FileOutputStream(fileName));
+                meteredStream.metrics = metrics;
+                outputStream = new BufferedWriter(new OutputStreamWriter(meteredStream, charset));
             }
 
             initialized = true;
         }
+
+        if (metrics == null && userSettings.metrics()) {
+            getMetrics();
+        }
     }
 
     /**
@@ -375,6 +416,10 @@ public class CsvWriter implements AutoCloseable {
      */
     public void flush() throws IOException {
         outputStream.flush();
+
+        if (metrics != null) {
+            metrics.flushed();
+        }
     }
 
     /**
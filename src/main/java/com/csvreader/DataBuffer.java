@@ -21,10 +21,25 @@ public class DataBuffer {
 	public int lineStart;
 
 	public DataBuffer() {
-		buffer = new char[StaticSettings.MAX_BUFFER_SIZE];
+		this(StaticSettings.MAX_BUFFER_SIZE);
+	}
+
+	public DataBuffer(int size) {
+		buffer = new char[size];
 		position = 0;
 		count = 0;
 		columnStart = 0;
 		lineStart = 0;
 	}
+
+	/**
+	 * Wraps data that is already in memory, which is read in place.
+	 */
+	public DataBuffer(char[] data, int start, int end) {
+		buffer = data;
+		position = start;
+		count = end;
+		columnStart = start;
+		lineStart = start;
+	}
 }
\ No newline at end of file
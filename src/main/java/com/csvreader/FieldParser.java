@@ -0,0 +1,218 @@
+package com.csvreader;
+
+/**
+ * Parses primitive values straight out of a column's characters, so that no
+ * String has to be created for them. Invalid values throw a
+ * {@link java.lang.NumberFormatException NumberFormatException} without a
+ * message, the caller adds where the value came from.
+ */
+final class FieldParser {
+    // every power of ten that a double holds exactly
+    private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+    // mantissas with up to this many digits are exactly representable
+    private static final int MAX_EXACT_DIGITS = 15;
+
+    private FieldParser() {
+    }
+
+    /**
+     * Parses a decimal integer the same way as
+     * {@link java.lang.Long#parseLong(String) Long.parseLong}, limited to the
+     * given range.
+     */
+    static long parseLong(CharSequence value, boolean trimWhitespace, long min, long max) {
+        int start = 0;
+        int end = value.length();
+
+        if (trimWhitespace) {
+            start = skipWhitespace(value, start, end);
+            end = trimWhitespace(value, start, end);
+        }
+
+        boolean negative = false;
+        // accumulates negatively, as the negative range is the larger one
+        long limit = -max;
+
+        if (start < end) {
+            char letter = value.charAt(start);
+
+            if (letter == '-') {
+                negative = true;
+                limit = min;
+                start++;
+            } else if (letter == '+') {
+                start++;
+            }
+        }
+
+        if (start == end) {
+            throw new NumberFormatException();
+        }
+
+        long multiplyLimit = limit / 10;
+        long result = 0;
+
+        for (int i = start; i < end; i++) {
+            int digit = value.charAt(i) - '0';
+
+            if (digit < 0 || digit > 9 || result < multiplyLimit) {
+                throw new NumberFormatException();
+            }
+
+            result *= 10;
+
+            if (result < limit + digit) {
+                throw new NumberFormatException();
+            }
+
+            result -= digit;
+        }
+
+        return negative ? result : -result;
+    }
+
+    /**
+     * Parses a double the same way as
+     * {@link java.lang.Double#parseDouble(String) Double.parseDouble}, except
+     * that surrounding whitespace is only ignored when it's trimmed, as for
+     * the other types. Plain decimals that can be converted exactly are
+     * handled here, anything else goes through Double.parseDouble.
+     */
+    static double parseDouble(CharSequence value, boolean trimWhitespace) {
+        int start = 0;
+        int end = value.length();
+
+        if (trimWhitespace) {
+            start = skipWhitespace(value, start, end);
+            end = trimWhitespace(value, start, end);
+        }
+
+        int i = start;
+        boolean negative = false;
+
+        if (i < end && (value.charAt(i) == '-' || value.charAt(i) == '+')) {
+            negative = value.charAt(i) == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean sawDigit = false;
+        boolean sawPoint = false;
+
+        for (; i < end; i++) {
+            char letter = value.charAt(i);
+
+            if (letter >= '0' && letter <= '9') {
+                sawDigit = true;
+
+                if (mantissa != 0 || letter != '0') {
+                    mantissa = mantissa * 10 + (letter - '0');
+                    digits++;
+                }
+
+                if (sawPoint) {
+                    exponent--;
+                }
+            } else if (letter == '.' && !sawPoint) {
+                sawPoint = true;
+            } else {
+                break;
+            }
+        }
+
+        if (sawDigit && i < end && (value.charAt(i) == 'e' || value.charAt(i) == 'E')) {
+            i++;
+
+            boolean negativeExponent = false;
+
+            if (i < end && (value.charAt(i) == '-' || value.charAt(i) == '+')) {
+                negativeExponent = value.charAt(i) == '-';
+                i++;
+            }
+
+            int exponentStart = i;
+            int explicitExponent = 0;
+
+            // anything larger is out of the fast range anyway
+            while (i < end && value.charAt(i) >= '0' && value.charAt(i) <= '9' && explicitExponent < 1000) {
+                explicitExponent = explicitExponent * 10 + (value.charAt(i) - '0');
+                i++;
+            }
+
+            if (i == exponentStart) {
+                sawDigit = false;
+            }
+
+            exponent += negativeExponent ? -explicitExponent : explicitExponent;
+        }
+
+        if (!sawDigit || i < end || digits > MAX_EXACT_DIGITS || exponent < -22 || exponent > 22) {
+            // Double.parseDouble ignores surrounding whitespace, which the
+            // other types don't when it isn't trimmed
+            if (start < end && (value.charAt(start) <= ' ' || value.charAt(end - 1) <= ' ')) {
+                throw new NumberFormatException();
+            }
+
+            // special values, suffixes, long mantissas and errors
+            return Double.parseDouble(value.subSequence(start, end).toString());
+        }
+
+        double result = exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+
+        return negative ? -result : result;
+    }
+
+    /**
+     * Parses true or false, ignoring case.
+     */
+    static boolean parseBoolean(CharSequence value, boolean trimWhitespace) {
+        int start = 0;
+        int end = value.length();
+
+        if (trimWhitespace) {
+            start = skipWhitespace(value, start, end);
+            end = trimWhitespace(value, start, end);
+        }
+
+        if (matches(value, start, end, "true")) {
+            return true;
+        } else if (matches(value, start, end, "false")) {
+            return false;
+        }
+
+        throw new NumberFormatException();
+    }
+
+    private static boolean matches(CharSequence value, int start, int end, String word) {
+        if (end - start != word.length()) {
+            return false;
+        }
+
+        for (int i = 0; i < word.length(); i++) {
+            if (Character.toLowerCase(value.charAt(start + i)) != word.charAt(i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static int skipWhitespace(CharSequence value, int start, int end) {
+        while (start < end && (value.charAt(start) == Letters.SPACE || value.charAt(start) == Letters.TAB)) {
+            start++;
+        }
+
+        return start;
+    }
+
+    private static int trimWhitespace(CharSequence value, int start, int end) {
+        while (end > start && (value.charAt(end - 1) == Letters.SPACE || value.charAt(end - 1) == Letters.TAB)) {
+            end--;
+        }
+
+        return end;
+    }
+}
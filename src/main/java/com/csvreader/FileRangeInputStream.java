@@ -0,0 +1,66 @@
+package com.csvreader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * An {@link java.io.InputStream InputStream} over a range of a file. Reads go
+ * to absolute positions of the channel, so any number of these streams can
+ * read from the same channel at the same time. Closing the stream leaves the
+ * channel open.
+ */
+final class FileRangeInputStream extends InputStream {
+    private final FileChannel channel;
+    private long position;
+    private final long end;
+
+    FileRangeInputStream(FileChannel channel, long start, long end) {
+        this.channel = channel;
+        this.position = start;
+        this.end = end;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] holder = new byte[1];
+
+        return read(holder, 0, 1) == -1 ? -1 : holder[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        if (position >= end) {
+            return -1;
+        } else if (length == 0) {
+            return 0;
+        }
+
+        ByteBuffer target = ByteBuffer.wrap(buffer, offset, (int) Math.min(length, end - position));
+        int read = channel.read(target, position);
+
+        if (read == -1) {
+            // the file was truncated while it was being read
+            return -1;
+        }
+
+        position += read;
+
+        return read;
+    }
+
+    @Override
+    public long skip(long count) {
+        long skipped = Math.max(0, Math.min(count, end - position));
+
+        position += skipped;
+
+        return skipped;
+    }
+
+    @Override
+    public int available() {
+        return (int) Math.min(end - position, Integer.MAX_VALUE);
+    }
+}
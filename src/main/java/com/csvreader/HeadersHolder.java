@@ -1,15 +1,108 @@
 package com.csvreader;
 
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Map;
 
 public class HeadersHolder {
 	public String[] headers;
 	public int length;
 	public HashMap<String, Integer> indexByName;
 
+	// a copy of indexByName laid out for lookups, see buildLookup
+	private String[] names;
+	private int[] hashes;
+	// -1 for empty slots
+	private int[] indexes;
+	private int mask;
+
 	public HeadersHolder() {
 		headers = null;
 		length = 0;
 		indexByName = new HashMap<>();
+		buildLookup();
+	}
+
+	/**
+	 * Copies indexByName into a table that finds every name with a single
+	 * probe when possible, by trying table sizes until no two names share a
+	 * slot. Has to be called whenever indexByName changes.
+	 */
+	void buildLookup() {
+		int size = indexByName.size();
+		int capacity = Integer.highestOneBit(Math.max(size, 1) * 2 - 1) * 2;
+		int maxCapacity = capacity * 8;
+
+		while (!fill(capacity) && capacity < maxCapacity) {
+			capacity *= 2;
+		}
+	}
+
+	/**
+	 * Lays the names out in a table of the given size.
+	 *
+	 * @return Whether every name got the slot it hashes to.
+	 */
+	private boolean fill(int capacity) {
+		names = new String[capacity];
+		hashes = new int[capacity];
+		indexes = new int[capacity];
+		mask = capacity - 1;
+
+		Arrays.fill(indexes, -1);
+
+		boolean perfect = true;
+
+		for (Map.Entry<String, Integer> entry : indexByName.entrySet()) {
+			String name = entry.getKey();
+			int hash = hash(name);
+			int slot = hash & mask;
+
+			while (indexes[slot] != -1) {
+				perfect = false;
+				slot = (slot + 1) & mask;
+			}
+
+			names[slot] = name;
+			hashes[slot] = hash;
+			indexes[slot] = entry.getValue().intValue();
+		}
+
+		return perfect;
+	}
+
+	/**
+	 * Gets the index of a header name, the same as indexByName would.
+	 *
+	 * @return The index, or -1 when there is no such header.
+	 */
+	int indexOf(String name) {
+		int hash = hash(name);
+		int slot = hash & mask;
+		int index;
+
+		while ((index = indexes[slot]) != -1) {
+			if (hashes[slot] == hash) {
+				String found = names[slot];
+
+				if (found == name || (name != null && name.equals(found))) {
+					return index;
+				}
+			}
+
+			slot = (slot + 1) & mask;
+		}
+
+		return -1;
+	}
+
+	private static int hash(String name) {
+		if (name == null) {
+			return 0;
+		}
+
+		int hash = name.hashCode();
+
+		return hash ^ (hash >>> 16);
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,562 @@
+package com.csvreader;
+
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.PushbackInputStream;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Inflates gzip compressed data on a thread of its own, so that inflating
+ * and parsing happen at the same time. The inflated data is handed over in
+ * blocks through a bounded queue.
+ * <p>
+ * Members that say how long they are, like the blocks of BGZF files written
+ * by bgzip, are inflated in parallel on the
+ * {@link java.util.concurrent.ForkJoinPool#commonPool() common pool}. Other
+ * members have to be inflated to find where they end, so they are inflated
+ * one after the other by the thread of the stream. Like
+ * {@link java.util.zip.GZIPInputStream GZIPInputStream}, anything after the
+ * last member that isn't another member is ignored.
+ * <p>
+ * The inflater thread stops when the stream is closed, and also when the
+ * stream is dropped without being closed while the queue is full, once it
+ * has been garbage collected.
+ */
+final class InflatingInputStream extends InputStream {
+    private static final int ID1 = 0x1F;
+    private static final int ID2 = 0x8B;
+    private static final int DEFLATE = 8;
+    private static final int FHCRC = 2;
+    private static final int FEXTRA = 4;
+    private static final int FNAME = 8;
+    private static final int FCOMMENT = 16;
+    // BGZF blocks never hold more than this, inflated or not, and members
+    // without a size are handed over in blocks of this size
+    private static final int BLOCK_SIZE = 64 * 1024;
+    private static final byte[] EMPTY = new byte[0];
+    // how often in milliseconds the inflater looks whether the stream is
+    // still used while the queue is full
+    private static final long CHECK_INTERVAL = 500;
+
+    private final Worker worker;
+    // inflated blocks in the order of the data, a null block ends it
+    private final BlockingQueue<Future<byte[]>> blocks;
+    private final Thread inflater;
+    // the block being read
+    private byte[] block = EMPTY;
+    private int position = 0;
+    private boolean ended = false;
+
+    private InflatingInputStream(InputStream source, ThreadFactory threadFactory) {
+        this.blocks = new ArrayBlockingQueue<Future<byte[]>>(
+                Math.max(2, ForkJoinPool.commonPool().getParallelism() * 2));
+        this.worker = new Worker(source, blocks, new WeakReference<InflatingInputStream>(this));
+        this.inflater = threadFactory.newThread(worker);
+
+        inflater.start();
+    }
+
+    /**
+     * Whether a file starts like gzip compressed data.
+     */
+    static boolean isCompressed(String fileName) throws IOException {
+        try (FileInputStream stream = new FileInputStream(fileName)) {
+            return stream.read() == ID1 && stream.read() == ID2;
+        }
+    }
+
+    /**
+     * Whether a file starts like gzip compressed data.
+     */
+    static boolean isCompressed(FileChannel channel) throws IOException {
+        ByteBuffer magic = ByteBuffer.allocate(2);
+
+        while (magic.hasRemaining() && channel.read(magic, magic.position()) != -1) {
+        }
+
+        return magic.position() == 2 && (magic.get(0) & 0xFF) == ID1 && (magic.get(1) & 0xFF) == ID2;
+    }
+
+    /**
+     * Starts inflating a stream that is known to hold gzip compressed data.
+     */
+    static InputStream open(InputStream source, ThreadFactory threadFactory) {
+        return new InflatingInputStream(source, threadFactory);
+    }
+
+    /**
+     * Looks at the first bytes of a stream, and starts inflating it when it
+     * holds gzip compressed data.
+     *
+     * @return A stream of the data, inflated when it was compressed.
+     */
+    static InputStream detect(InputStream source, ThreadFactory threadFactory) throws IOException {
+        PushbackInputStream stream = new PushbackInputStream(source, 2);
+        byte[] magic = new byte[2];
+        int count = 0;
+        int read;
+
+        while (count < magic.length && (read = stream.read(magic, count, magic.length - count)) != -1) {
+            count += read;
+        }
+
+        stream.unread(magic, 0, count);
+
+        if (count == 2 && (magic[0] & 0xFF) == ID1 && (magic[1] & 0xFF) == ID2) {
+            return new InflatingInputStream(stream, threadFactory);
+        }
+
+        return stream;
+    }
+
+    @Override
+    public int read() throws IOException {
+        return nextBlock() ? block[position++] & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        } else if (!nextBlock()) {
+            return -1;
+        }
+
+        int count = Math.min(length, block.length - position);
+
+        System.arraycopy(block, position, buffer, offset, count);
+
+        position += count;
+
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return block.length - position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!worker.closed) {
+            worker.closed = true;
+            inflater.interrupt();
+            worker.source.close();
+        }
+    }
+
+    /**
+     * Makes sure the block being read has data left, waiting for the next
+     * one when it doesn't.
+     *
+     * @return Whether there is data left.
+     */
+    private boolean nextBlock() throws IOException {
+        if (worker.closed) {
+            throw new IOException("Stream closed.");
+        }
+
+        while (position == block.length) {
+            if (ended) {
+                return false;
+            }
+
+            byte[] next;
+
+            try {
+                next = blocks.take().get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+
+                throw new InterruptedIOException("Interrupted while waiting for inflated data.");
+            } catch (ExecutionException ex) {
+                // the pool wraps what its tasks throw
+                for (Throwable cause = ex.getCause(); cause != null; cause = cause.getCause()) {
+                    if (cause instanceof IOException) {
+                        throw (IOException) cause;
+                    }
+                }
+
+                throw new IOException(ex.getCause());
+            }
+
+            if (next == null) {
+                ended = true;
+            } else {
+                block = next;
+                position = 0;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Inflates a member that was read whole, on the pool.
+     *
+     * @param member The compressed data of the member followed by its trailer.
+     */
+    private static byte[] inflateBlock(byte[] member) throws IOException {
+        int dataLength = member.length - 8;
+        long size = readInt(member, dataLength + 4) & 0xFFFFFFFFL;
+
+        if (size > BLOCK_SIZE) {
+            throw new ZipException("Corrupt GZIP member.");
+        }
+
+        byte[] output = new byte[(int) size];
+        Inflater inflater = new Inflater(true);
+
+        try {
+            inflater.setInput(member, 0, dataLength);
+
+            int count = 0;
+
+            while (count < output.length && !inflater.finished() && !inflater.needsInput()) {
+                count += inflater.inflate(output, count, output.length - count);
+            }
+
+            if (count != output.length) {
+                throw new ZipException("Corrupt GZIP member.");
+            }
+        } catch (DataFormatException ex) {
+            throw new ZipException(ex.getMessage());
+        } finally {
+            inflater.end();
+        }
+
+        CRC32 crc = new CRC32();
+
+        crc.update(output, 0, output.length);
+
+        checkTrailer(member, dataLength, crc.getValue(), size);
+
+        return output;
+    }
+
+    private static void checkTrailer(byte[] bytes, int offset, long crc, long size) throws ZipException {
+        if ((readInt(bytes, offset) & 0xFFFFFFFFL) != crc) {
+            throw new ZipException("Corrupt GZIP trailer.");
+        }
+
+        if ((readInt(bytes, offset + 4) & 0xFFFFFFFFL) != (size & 0xFFFFFFFFL)) {
+            throw new ZipException("Corrupt GZIP trailer.");
+        }
+    }
+
+    private static int readInt(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xFF) | (bytes[offset + 1] & 0xFF) << 8 | (bytes[offset + 2] & 0xFF) << 16
+                | (bytes[offset + 3] & 0xFF) << 24;
+    }
+
+    /**
+     * What runs on the inflater thread. It only holds on to the stream weakly,
+     * so a stream that is dropped without being closed can still be
+     * collected, and the thread stops once it is.
+     */
+    private static final class Worker implements Runnable {
+        private final InputStream source;
+        private final ForkJoinPool pool = ForkJoinPool.commonPool();
+        private final BlockingQueue<Future<byte[]>> blocks;
+        private final WeakReference<InflatingInputStream> stream;
+        private volatile boolean closed = false;
+        // the compressed data
+        private byte[] input = new byte[BLOCK_SIZE * 2];
+        private int inputPosition = 0;
+        private int inputLimit = 0;
+
+        private Worker(InputStream source, BlockingQueue<Future<byte[]>> blocks,
+                WeakReference<InflatingInputStream> stream) {
+            this.source = source;
+            this.blocks = blocks;
+            this.stream = stream;
+        }
+
+        /**
+         * Queues a block, waiting while the queue is full for as long as
+         * somebody can still take it.
+         */
+        private void put(Future<byte[]> block) throws InterruptedException {
+            while (!blocks.offer(block, CHECK_INTERVAL, TimeUnit.MILLISECONDS)) {
+                if (closed) {
+                    throw new InterruptedException();
+                }
+
+                if (stream.get() == null) {
+                    // the stream was dropped without being closed
+                    closed = true;
+
+                    try {
+                        source.close();
+                    } catch (IOException ex) {
+                        // nobody is left to tell
+                    }
+
+                    throw new InterruptedException();
+                }
+            }
+        }
+
+        /**
+         * Runs on the inflater thread until every member is queued.
+         */
+        @Override
+        public void run() {
+            try {
+                boolean first = true;
+
+                while (!closed && readMember(first)) {
+                    first = false;
+                }
+
+                put(CompletableFuture.completedFuture(null));
+            } catch (InterruptedException ex) {
+                // closed or dropped while the queue was full
+            } catch (IOException | RuntimeException ex) {
+                CompletableFuture<byte[]> failed = new CompletableFuture<byte[]>();
+
+                failed.completeExceptionally(ex);
+
+                try {
+                    put(failed);
+                } catch (InterruptedException closedEx) {
+                    // nobody is waiting for the data anymore
+                }
+            }
+        }
+
+        /**
+         * Queues the inflated data of the next member.
+         *
+         * @return Whether there was another member.
+         */
+        private boolean readMember(boolean first) throws IOException, InterruptedException {
+            if (!request(2) || (input[inputPosition] & 0xFF) != ID1 || (input[inputPosition + 1] & 0xFF) != ID2) {
+                if (first) {
+                    throw new ZipException("Not in GZIP format.");
+                }
+
+                return false;
+            }
+
+            require(10);
+
+            if (input[inputPosition + 2] != DEFLATE) {
+                throw new ZipException("Unsupported compression method.");
+            }
+
+            int flags = input[inputPosition + 3] & 0xFF;
+            int header = 10;
+            int memberSize = -1;
+
+            if ((flags & FEXTRA) != 0) {
+                require(header + 2);
+
+                int extraLength = unsignedShort(inputPosition + header);
+
+                header += 2;
+
+                require(header + extraLength);
+
+                int extraEnd = inputPosition + header + extraLength;
+
+                for (int i = inputPosition + header; i + 4 <= extraEnd; i += 4 + unsignedShort(i + 2)) {
+                    // the BGZF subfield, with the size of the member less one
+                    if (input[i] == 'B' && input[i + 1] == 'C' && unsignedShort(i + 2) == 2 && i + 6 <= extraEnd) {
+                        memberSize = unsignedShort(i + 4) + 1;
+                    }
+                }
+
+                header += extraLength;
+            }
+
+            if ((flags & FNAME) != 0) {
+                header = skipZeroTerminated(header);
+            }
+
+            if ((flags & FCOMMENT) != 0) {
+                header = skipZeroTerminated(header);
+            }
+
+            if ((flags & FHCRC) != 0) {
+                header += 2;
+            }
+
+            require(header);
+
+            if (memberSize == -1) {
+                inputPosition += header;
+
+                inflateMember();
+            } else {
+                if (memberSize < header + 8) {
+                    throw new ZipException("Corrupt GZIP member.");
+                }
+
+                require(memberSize);
+
+                byte[] member = Arrays.copyOfRange(input, inputPosition + header, inputPosition + memberSize);
+
+                inputPosition += memberSize;
+
+                put(pool.submit(() -> inflateBlock(member)));
+            }
+
+            return true;
+        }
+
+        /**
+         * Inflates a member that doesn't say how long it is, queueing its data as
+         * it comes.
+         */
+        private void inflateMember() throws IOException, InterruptedException {
+            Inflater inflater = new Inflater(true);
+            CRC32 crc = new CRC32();
+            long size = 0;
+
+            try {
+                byte[] output = new byte[BLOCK_SIZE];
+                int count = 0;
+
+                while (!inflater.finished()) {
+                    if (inflater.needsInput()) {
+                        if (inputPosition == inputLimit && !fill()) {
+                            throw new EOFException("Unexpected end of GZIP data.");
+                        }
+
+                        inflater.setInput(input, inputPosition, inputLimit - inputPosition);
+                        inputPosition = inputLimit;
+                    }
+
+                    try {
+                        count += inflater.inflate(output, count, output.length - count);
+                    } catch (DataFormatException ex) {
+                        throw new ZipException(ex.getMessage());
+                    }
+
+                    if (inflater.needsDictionary()) {
+                        throw new ZipException("Corrupt GZIP member.");
+                    }
+
+                    if (count == output.length || (inflater.finished() && count > 0)) {
+                        crc.update(output, 0, count);
+                        size += count;
+
+                        put(CompletableFuture.completedFuture(
+                                count == output.length ? output : Arrays.copyOf(output, count)));
+
+                        output = new byte[BLOCK_SIZE];
+                        count = 0;
+                    }
+                }
+
+                // the inflater was handed more than the member
+                inputPosition = inputLimit - inflater.getRemaining();
+            } finally {
+                inflater.end();
+            }
+
+            require(8);
+
+            checkTrailer(inputPosition, crc.getValue(), size);
+
+            inputPosition += 8;
+        }
+
+        private void checkTrailer(int offset, long crc, long size) throws ZipException {
+            InflatingInputStream.checkTrailer(input, offset, crc, size);
+        }
+
+        private int skipZeroTerminated(int header) throws IOException {
+            do {
+                require(header + 1);
+            } while (input[inputPosition + header++] != 0);
+
+            return header;
+        }
+
+        private int unsignedShort(int offset) {
+            return (input[offset] & 0xFF) | (input[offset + 1] & 0xFF) << 8;
+        }
+
+        /**
+         * Makes sure a number of bytes of compressed data are available.
+         */
+        private void require(int count) throws IOException {
+            if (!request(count)) {
+                throw new EOFException("Unexpected end of GZIP data.");
+            }
+        }
+
+        /**
+         * Reads compressed data until a number of bytes are available.
+         *
+         * @return Whether they are, false at the end of the data.
+         */
+        private boolean request(int count) throws IOException {
+            if (count > input.length) {
+                byte[] holder = new byte[Math.max(count, input.length * 2)];
+
+                System.arraycopy(input, inputPosition, holder, 0, inputLimit - inputPosition);
+
+                inputLimit -= inputPosition;
+                inputPosition = 0;
+                input = holder;
+            }
+
+            while (inputLimit - inputPosition < count) {
+                if (!fill()) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        /**
+         * Reads more compressed data after what is left.
+         *
+         * @return Whether there was more.
+         */
+        private boolean fill() throws IOException {
+            if (inputPosition > 0) {
+                System.arraycopy(input, inputPosition, input, 0, inputLimit - inputPosition);
+
+                inputLimit -= inputPosition;
+                inputPosition = 0;
+            }
+
+            if (inputLimit == input.length) {
+                return true;
+            }
+
+            int read = source.read(input, inputLimit, input.length - inputLimit);
+
+            if (read == -1) {
+                return false;
+            }
+
+            inputLimit += read;
+
+            return true;
+        }
+    }
+}
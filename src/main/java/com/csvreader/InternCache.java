@@ -0,0 +1,55 @@
+package com.csvreader;
+
+/**
+ * The distinct values of one column, so that a column holding only a few
+ * distinct values gives the same String for every record instead of a new
+ * one. Values are looked up straight from the reader's buffers by the hash of
+ * their characters, so a value that was seen before doesn't allocate
+ * anything.
+ * <p>
+ * The cache stops taking new values once it holds
+ * {@link StaticSettings#MAX_INTERNED_VALUES} of them, values that aren't in
+ * it by then are created as usual.
+ */
+final class InternCache {
+    private final String[] values;
+    private final int[] hashes;
+    private final int mask;
+    private int size = 0;
+
+    InternCache() {
+        // at most half full, which keeps the probe sequences short
+        int capacity = Integer.highestOneBit(StaticSettings.MAX_INTERNED_VALUES * 2 - 1) * 2;
+
+        values = new String[capacity];
+        hashes = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * Gets the canonical String for the contents of a view.
+     */
+    String intern(ColumnView view) {
+        int hash = view.hash();
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        String value;
+
+        while ((value = values[slot]) != null) {
+            if (hashes[slot] == hash && view.contentEquals(value)) {
+                return value;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+
+        value = view.toString();
+
+        if (size < StaticSettings.MAX_INTERNED_VALUES) {
+            values[slot] = value;
+            hashes[slot] = hash;
+            size++;
+        }
+
+        return value;
+    }
+}
@@ -0,0 +1,94 @@
+package com.csvreader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * A {@link java.io.Reader Reader} for ISO-8859-1 and US-ASCII data, which map
+ * every byte to the char of the same value. Bytes are read in large blocks and
+ * widened straight into the caller's buffer, without the
+ * {@link java.io.InputStreamReader InputStreamReader} and
+ * {@link java.io.BufferedReader BufferedReader} in between, which both copy
+ * through buffers of their own.
+ * <p>
+ * The widening itself is left to the charset's decoder, as the JDK widens
+ * single byte charsets with an intrinsic that is faster than a loop over the
+ * bytes. Bytes that aren't US-ASCII become U+FFFD when the data is US-ASCII,
+ * the same as an InputStreamReader replaces them.
+ */
+final class Latin1Reader extends Reader {
+    private InputStream inputStream;
+    private final byte[] buffer;
+    private final ByteBuffer bytes;
+    private final CharsetDecoder decoder;
+    // the caller's buffer, wrapped once as long as it's the same one
+    private char[] target = null;
+    private CharBuffer chars = null;
+
+    /**
+     * @param buffer The buffer the bytes are read into, which can be used
+     *               again once this reader is closed.
+     */
+    Latin1Reader(InputStream inputStream, Charset charset, byte[] buffer) {
+        this.inputStream = inputStream;
+        this.buffer = buffer;
+        this.bytes = ByteBuffer.wrap(buffer);
+        this.decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+        bytes.limit(0);
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+        if (inputStream == null) {
+            throw new IOException("Stream closed.");
+        }
+
+        if (len == 0) {
+            return 0;
+        }
+
+        while (!bytes.hasRemaining()) {
+            int read = inputStream.read(buffer, 0, buffer.length);
+
+            if (read == -1) {
+                return -1;
+            }
+
+            bytes.position(0);
+            bytes.limit(read);
+        }
+
+        if (cbuf != target) {
+            target = cbuf;
+            chars = CharBuffer.wrap(cbuf);
+        }
+
+        chars.limit(off + len);
+        chars.position(off);
+
+        // every byte is a char, so this can't fail or need more bytes
+        decoder.decode(bytes, chars, false);
+
+        return chars.position() - off;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (inputStream != null) {
+            try {
+                inputStream.close();
+            } finally {
+                inputStream = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.csvreader;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A {@link java.io.Reader Reader} over a memory mapped file. The file is mapped
+ * with {@link java.nio.channels.FileChannel#map FileChannel.map} in windows of
+ * at most 2 GB and decoded straight from the mapped region into the caller's
+ * buffer, so there is no intermediate stream or buffered reader copy.
+ */
+public class MappedFileReader extends Reader {
+    private FileChannel channel;
+    private final long size;
+    private final int windowSize;
+    private final CharsetDecoder decoder;
+    private ByteBuffer window;
+    private long windowStart;
+    private boolean endOfInput = false;
+    // holds the low surrogate of a pair when the caller asked for one char only
+    private char pending = Letters.NULL;
+    private boolean hasPending = false;
+
+    public MappedFileReader(String fileName, Charset charset) throws IOException {
+        this(fileName, charset, StaticSettings.MAX_MAPPED_WINDOW_SIZE);
+    }
+
+    public MappedFileReader(String fileName, Charset charset, int windowSize) throws IOException {
+        this(fileName, charset, windowSize, 0);
+    }
+
+    /**
+     * @param start Where in the file reading starts, which has to be the start
+     *              of a character.
+     */
+    MappedFileReader(String fileName, Charset charset, int windowSize, long start) throws IOException {
+        if (windowSize < 16) {
+            throw new IllegalArgumentException("Parameter windowSize can not be smaller than 16.");
+        }
+
+        this.channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ);
+        this.size = channel.size();
+        this.windowSize = windowSize;
+        this.decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+        map(Math.min(start, size));
+    }
+
+    /**
+     * Gets the size of the mapped file in bytes.
+     *
+     * @return The size of the mapped file in bytes.
+     */
+    public long size() {
+        return size;
+    }
+
+    private void map(long position) throws IOException {
+        window = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                Math.min(windowSize, size - position));
+        windowStart = position;
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+        if (channel == null) {
+            throw new IOException("Stream closed.");
+        }
+
+        if (len == 0) {
+            return 0;
+        }
+
+        if (hasPending) {
+            hasPending = false;
+            cbuf[off] = pending;
+            return 1;
+        }
+
+        if (len == 1) {
+            // a surrogate pair can't be decoded into a single char, so go
+            // through a small holder and keep the second half for later
+            char[] pair = new char[2];
+            int read = read(pair, 0, 2);
+
+            if (read == 2) {
+                pending = pair[1];
+                hasPending = true;
+            }
+
+            if (read > 0) {
+                cbuf[off] = pair[0];
+                return 1;
+            }
+
+            return read;
+        }
+
+        CharBuffer out = CharBuffer.wrap(cbuf, off, len);
+
+        while (out.position() == off && !endOfInput) {
+            boolean lastWindow = windowStart + window.limit() == size;
+
+            CoderResult result = decoder.decode(window, out, lastWindow);
+
+            if (result.isUnderflow()) {
+                if (lastWindow) {
+                    decoder.flush(out);
+                    endOfInput = true;
+                } else {
+                    // whatever is left is the start of a character that
+                    // continues in the next window
+                    map(windowStart + window.position());
+                }
+            } else if (result.isError()) {
+                result.throwException();
+            }
+        }
+
+        int read = out.position() - off;
+
+        return read == 0 ? -1 : read;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            window = null;
+
+            try {
+                channel.close();
+            } finally {
+                channel = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.csvreader;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Counts what the encoder of a {@link CsvWriter} hands to the output stream,
+ * and how long the stream takes to take it, once the writer has
+ * {@link WriterMetrics}. The encoder writes whole chunks, so the counting
+ * costs next to nothing per column.
+ */
+final class MeteredOutputStream extends FilterOutputStream {
+    // null as long as the writer doesn't keep metrics
+    WriterMetrics metrics = null;
+
+    MeteredOutputStream(OutputStream out) {
+        super(out);
+    }
+
+    @Override
+    public void write(int letter) throws IOException {
+        if (metrics == null) {
+            out.write(letter);
+        } else {
+            long started = System.nanoTime();
+
+            out.write(letter);
+
+            metrics.written(started, 1);
+        }
+    }
+
+    @Override
+    public void write(byte[] data, int offset, int length) throws IOException {
+        if (metrics == null) {
+            out.write(data, offset, length);
+        } else {
+            long started = System.nanoTime();
+
+            out.write(data, offset, length);
+
+            metrics.written(started, length);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (metrics == null) {
+            out.flush();
+        } else {
+            long started = System.nanoTime();
+
+            out.flush();
+
+            metrics.written(started, 0);
+        }
+    }
+}
@@ -0,0 +1,810 @@
+package com.csvreader;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Reads a single large file with several threads. The file is cut into chunks
+ * of about the same size, which are parsed at the same time on a
+ * {@link java.util.concurrent.ForkJoinPool ForkJoinPool}. The records are
+ * handed over either one at a time in the order of the file, or chunk by chunk
+ * by the threads of the pool.
+ * <p>
+ * A record delimiter inside a text qualified column doesn't end the record,
+ * so where a chunk's first record starts depends on whether the chunk begins
+ * inside a qualified column. Each chunk is scanned for both cases, and the
+ * number of text qualifiers in all chunks before it decides which one it is.
+ * That's exact as long as text qualifiers are only used around columns and
+ * doubled inside them. A qualifier anywhere else, such as in the middle of an
+ * unqualified column, makes a chunk end in the middle of a record, which is
+ * noticed. The record that was cut off is then found by following the
+ * structure of the data from the start of the chunk, see
+ * {@link RecordStructure}, only that record is parsed again together with the
+ * rest of it, and the chunks after it are found again from where it ends. When
+ * the structure can't be followed byte by byte, because of backslash escapes,
+ * the rest of the file is parsed by one thread. Either way the records are
+ * always the same as a {@link CsvReader} reads.
+ * <p>
+ * The file is only split when the delimiters and text qualifiers are single
+ * bytes in its charset, which are ISO-8859-1, US-ASCII and UTF-8, and not
+ * when comments are used together with a custom record delimiter, which
+ * comment lines don't end at. Otherwise it's parsed as one chunk.
+ * <p>
+ * A gzip compressed file can't be cut into chunks, so it's parsed by the
+ * thread calling {@link #forEach(RecordHandler)} while it's inflated by
+ * others, and its records are handed over in batches.
+ */
+public class ParallelCsvReader {
+    // how many records of a file parsed by one thread are handed over at once
+    private static final int BATCH_SIZE = 1024;
+
+    private final String fileName;
+    private final Charset charset;
+    // shared by the readers of all the chunks
+    private final UserSettings userSettings;
+    private boolean useCustomRecordDelimiter = false;
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+    private int chunkSize = StaticSettings.PARALLEL_CHUNK_SIZE;
+    private boolean ordered = true;
+
+    /**
+     * Handles the records of a {@link ParallelCsvReader}.
+     */
+    public interface RecordHandler {
+        /**
+         * @param recordNumber The index of the record in the file, the same as
+         *                     {@link CsvReader#getCurrentRecord()} for it.
+         * @param values       The values of the record's columns.
+         */
+        void handle(long recordNumber, String[] values);
+    }
+
+    /**
+     * Creates a {@link ParallelCsvReader ParallelCsvReader} object using a file
+     * as the data source.
+     *
+     * @param fileName  The path to the file to use as the data source.
+     * @param delimiter The character to use as the column delimiter.
+     * @param charset   The {@link java.nio.charset.Charset Charset} to use while
+     *                  parsing the data.
+     */
+    public ParallelCsvReader(String fileName, char delimiter, Charset charset) throws FileNotFoundException {
+        if (fileName == null) {
+            throw new IllegalArgumentException("Parameter fileName can not be null.");
+        }
+
+        if (charset == null) {
+            throw new IllegalArgumentException("Parameter charset can not be null.");
+        }
+
+        if (!new File(fileName).exists()) {
+            throw new FileNotFoundException("File " + fileName + " does not exist.");
+        }
+
+        this.fileName = fileName;
+        this.charset = charset;
+        this.userSettings = new UserSettings().withDelimiter(delimiter);
+    }
+
+    /**
+     * Creates a {@link ParallelCsvReader ParallelCsvReader} object using a file
+     * as the data source. Uses ISO-8859-1 as the
+     * {@link java.nio.charset.Charset Charset}.
+     *
+     * @param fileName  The path to the file to use as the data source.
+     * @param delimiter The character to use as the column delimiter.
+     */
+    public ParallelCsvReader(String fileName, char delimiter) throws FileNotFoundException {
+        this(fileName, delimiter, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Creates a {@link ParallelCsvReader ParallelCsvReader} object using a file
+     * as the data source. Uses a comma as the column delimiter and ISO-8859-1
+     * as the {@link java.nio.charset.Charset Charset}.
+     *
+     * @param fileName The path to the file to use as the data source.
+     */
+    public ParallelCsvReader(String fileName) throws FileNotFoundException {
+        this(fileName, Letters.COMMA);
+    }
+
+    /**
+     * Gets the settings used to parse every chunk. They must not be changed
+     * while the file is being read.
+     *
+     * @return The settings used to parse every chunk.
+     */
+    public UserSettings userSettings() {
+        return userSettings;
+    }
+
+    public char getRecordDelimiter() {
+        return userSettings.recordDelimiter;
+    }
+
+    /**
+     * Sets the character to use as the record delimiter.
+     *
+     * @param recordDelimiter The character to use as the record delimiter. Default
+     *                        is combination of standard end of line characters for
+     *                        Windows, Unix, or Mac.
+     */
+    public void setRecordDelimiter(char recordDelimiter) {
+        useCustomRecordDelimiter = true;
+        userSettings.recordDelimiter = recordDelimiter;
+    }
+
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Sets the pool that parses the chunks. Default is the
+     * {@link java.util.concurrent.ForkJoinPool#commonPool() common pool}.
+     *
+     * @param pool The pool that parses the chunks.
+     */
+    public void setPool(ForkJoinPool pool) {
+        if (pool == null) {
+            throw new IllegalArgumentException("Parameter pool can not be null.");
+        }
+
+        this.pool = pool;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Sets how many bytes of the file each task parses. The records of a chunk
+     * are kept in memory until they are handled, for about twice as many chunks
+     * as the pool has threads. Default is 256 KB.
+     *
+     * @param chunkSize The size of a chunk in bytes.
+     */
+    public void setChunkSize(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Parameter chunkSize must be greater than zero.");
+        }
+
+        this.chunkSize = chunkSize;
+    }
+
+    public boolean getOrdered() {
+        return ordered;
+    }
+
+    /**
+     * Sets whether the records are handled in the order of the file, one at a
+     * time by the thread calling {@link #forEach(RecordHandler)}, or chunk by
+     * chunk by the threads of the pool as soon as each chunk is done. The
+     * handler has to be thread safe in the latter case. Default is true.
+     *
+     * @param ordered Whether the records are handled in the order of the file.
+     */
+    public void setOrdered(boolean ordered) {
+        this.ordered = ordered;
+    }
+
+    /**
+     * Reads the whole file, passing every record to the handler.
+     *
+     * @param handler Handles the records.
+     * @return The number of records read.
+     * @exception IOException Thrown if an error occurs while reading data from the
+     *                        file.
+     */
+    public long forEach(RecordHandler handler) throws IOException {
+        if (handler == null) {
+            throw new IllegalArgumentException("Parameter handler can not be null.");
+        }
+
+        int window = window();
+        ArrayDeque<ForkJoinTask<?>> handlers = new ArrayDeque<ForkJoinTask<?>>();
+
+        try {
+            long recordCount = read(true, (start, firstRecord, chunk) -> {
+                if (ordered) {
+                    handle(handler, firstRecord, chunk.records);
+                } else {
+                    while (handlers.size() >= window) {
+                        handlers.poll().join();
+                    }
+
+                    handlers.add(pool.submit(() -> handle(handler, firstRecord, chunk.records)));
+                }
+            });
+
+            while (!handlers.isEmpty()) {
+                handlers.poll().join();
+            }
+
+            return recordCount;
+        } finally {
+            // the handler isn't called anymore once this returns
+            for (ForkJoinTask<?> task : handlers) {
+                task.cancel(false);
+                task.quietlyJoin();
+            }
+        }
+    }
+
+    /**
+     * Builds an index of the file for {@link CsvReader#seekToRecord(long)},
+     * reading the file the same way as {@link #forEach(RecordHandler)}.
+     *
+     * @param recordInterval About how many records there are between the
+     *                       checkpoints of the index. Checkpoints can only be
+     *                       placed where chunks start, so they are at least a
+     *                       chunk apart.
+     * @return The index.
+     * @exception IOException Thrown if an error occurs while reading data from the
+     *                        file, or the file is compressed.
+     */
+    public CsvIndex buildIndex(int recordInterval) throws IOException {
+        if (recordInterval <= 0) {
+            throw new IllegalArgumentException("Parameter recordInterval must be greater than zero.");
+        }
+
+        if (InflatingInputStream.isCompressed(fileName)) {
+            throw new IOException("File " + fileName + " is compressed, so it can not be indexed.");
+        }
+
+        File file = new File(fileName);
+        long fileSize = file.length();
+        long lastModified = file.lastModified();
+        long[][] checkpoints = { new long[16], new long[16] };
+        int[] checkpointCount = { 0 };
+
+        long recordCount = read(false, (start, firstRecord, chunk) -> {
+            int count = checkpointCount[0];
+
+            if (start != -1 && (count == 0 || firstRecord - checkpoints[0][count - 1] >= recordInterval)) {
+                if (count == checkpoints[0].length) {
+                    checkpoints[0] = Arrays.copyOf(checkpoints[0], count * 2);
+                    checkpoints[1] = Arrays.copyOf(checkpoints[1], count * 2);
+                }
+
+                checkpoints[0][count] = firstRecord;
+                checkpoints[1][count] = start;
+                checkpointCount[0]++;
+            }
+        });
+
+        return new CsvIndex(fileSize, lastModified,
+                CsvIndex.describe(charset, userSettings, useCustomRecordDelimiter), recordCount,
+                Arrays.copyOf(checkpoints[0], checkpointCount[0]), Arrays.copyOf(checkpoints[1], checkpointCount[0]));
+    }
+
+    /**
+     * Parses the file chunk by chunk, passing the chunks to the handler in
+     * order, on the calling thread.
+     *
+     * @param keepRecords Whether the values of the records are kept, or they
+     *                    are only counted.
+     * @return The number of records read.
+     */
+    private long read(boolean keepRecords, ChunkHandler handler) throws IOException {
+        int window = window();
+        ArrayDeque<Chunk> chunks = new ArrayDeque<Chunk>();
+
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+            if (InflatingInputStream.isCompressed(channel)) {
+                return readCompressed(channel, handler);
+            }
+
+            long size = channel.size();
+            Boundaries boundaries = new Boundaries(channel, size, window);
+            boolean exact = RecordStructure.isExact(charset, userSettings, useCustomRecordDelimiter);
+            long recordCount = 0;
+
+            try {
+                while (true) {
+                    while (chunks.size() < window && boundaries.hasNext()) {
+                        chunks.add(parseNext(channel, boundaries, keepRecords));
+                    }
+
+                    if (chunks.isEmpty()) {
+                        break;
+                    }
+
+                    Chunk chunk = chunks.poll();
+                    ParsedChunk parsed = join(chunk.task);
+
+                    if (!parsed.clean && chunk.end < size) {
+                        // the chunk ended in the middle of a record, so the
+                        // chunks after it were found from a wrong count of
+                        // qualifiers
+                        cancel(chunks);
+                        boundaries.cancel();
+
+                        ParsedChunk rest = exact ? parseRest(channel, chunk, parsed, size, keepRecords) : null;
+
+                        if (rest == null) {
+                            // the structure can't be followed, so the rest
+                            // of the file is parsed in one go
+                            try (CsvReader reader = new CsvReader(
+                                    new FileRangeInputStream(channel, chunk.start, size), charset,
+                                    userSettings, useCustomRecordDelimiter)) {
+                                return readBatches(reader, chunk.start, recordCount, keepRecords, handler);
+                            }
+                        }
+
+                        parsed = rest;
+                        boundaries.restart(chunk.start + rest.length);
+                    }
+
+                    handler.handle(chunk.start, recordCount, parsed);
+
+                    recordCount += parsed.recordCount;
+                }
+            } finally {
+                // nothing may touch the file once this returns
+                cancel(chunks);
+                boundaries.cancel();
+            }
+
+            return recordCount;
+        }
+    }
+
+    /**
+     * Parses a compressed file on the calling thread, passing its records to
+     * the handler in batches.
+     *
+     * @return The number of records read.
+     */
+    private long readCompressed(FileChannel channel, ChunkHandler handler) throws IOException {
+        try (CsvReader reader = new CsvReader(
+                InflatingInputStream.open(new FileRangeInputStream(channel, 0, channel.size()),
+                        userSettings.threadFactory()), charset,
+                userSettings, useCustomRecordDelimiter)) {
+            return readBatches(reader, -1, 0, true, handler);
+        }
+    }
+
+    /**
+     * Reads the rest of the records on the calling thread, passing them to
+     * the handler in batches.
+     *
+     * @param start       Where the first batch starts in the file, or -1.
+     *                    Where the others start isn't known.
+     * @param firstRecord The index of the first record read.
+     * @return The number of records read before and by the reader.
+     */
+    private static long readBatches(CsvReader reader, long start, long firstRecord, boolean keepRecords,
+            ChunkHandler handler) throws IOException {
+        List<String[]> records = keepRecords ? new ArrayList<String[]>() : null;
+        long recordCount = firstRecord;
+        int batchSize = 0;
+
+        while (reader.readRecord()) {
+            if (keepRecords) {
+                records.add(reader.getValues());
+            }
+
+            if (++batchSize == BATCH_SIZE) {
+                handler.handle(start, recordCount, new ParsedChunk(records, batchSize, true, -1));
+
+                recordCount += batchSize;
+                records = keepRecords ? new ArrayList<String[]>() : null;
+                batchSize = 0;
+                start = -1;
+            }
+        }
+
+        if (batchSize > 0) {
+            handler.handle(start, recordCount, new ParsedChunk(records, batchSize, true, -1));
+
+            recordCount += batchSize;
+        }
+
+        return recordCount;
+    }
+
+    /**
+     * Parses a chunk that ended in the middle of a record again up to where
+     * the record ends, only parsing the record that was cut off.
+     *
+     * @return The chunk up to where the record ends, or null when the
+     *         records found by following the structure aren't those parsed.
+     */
+    private ParsedChunk parseRest(FileChannel channel, Chunk chunk, ParsedChunk parsed, long size,
+            boolean keepRecords) throws IOException {
+        RecordStructure structure = new RecordStructure(userSettings, useCustomRecordDelimiter);
+        long end = structure.find(channel, chunk.start, chunk.end, size);
+
+        end = end == -1 ? size : end;
+
+        ParsedChunk cut = parse(channel, structure.lastStart(), end, keepRecords);
+
+        if (parsed.recordCount == 0 || cut.recordCount != 1 || (!cut.clean && end < size)) {
+            return null;
+        }
+
+        List<String[]> records = null;
+
+        if (keepRecords) {
+            records = new ArrayList<String[]>(parsed.records.subList(0, parsed.records.size() - 1));
+            records.addAll(cut.records);
+        }
+
+        return new ParsedChunk(records, parsed.recordCount, true, end - chunk.start);
+    }
+
+    /**
+     * Cancels the chunks being parsed, waiting for them to stop.
+     */
+    private static void cancel(ArrayDeque<Chunk> chunks) {
+        for (Chunk chunk : chunks) {
+            chunk.task.cancel(false);
+            chunk.task.quietlyJoin();
+        }
+
+        chunks.clear();
+    }
+
+    /**
+     * How many chunks are worked on at once, enough to keep every thread busy
+     * while the oldest chunk is being handled.
+     */
+    private int window() {
+        return pool.getParallelism() * 2;
+    }
+
+    private static void handle(RecordHandler handler, long firstRecord, List<String[]> records) {
+        for (int i = 0; i < records.size(); i++) {
+            handler.handle(firstRecord + i, records.get(i));
+        }
+    }
+
+    /**
+     * Starts parsing the next chunk on the pool.
+     */
+    private Chunk parseNext(FileChannel channel, Boundaries boundaries, boolean keepRecords) throws IOException {
+        long end = boundaries.next();
+        long start = boundaries.start();
+
+        return new Chunk(start, end, pool.submit(() -> {
+            try {
+                return parse(channel, start, end, keepRecords);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }));
+    }
+
+    /**
+     * Parses the records between two positions of the file.
+     */
+    private ParsedChunk parse(FileChannel channel, long start, long end, boolean keepRecords) throws IOException {
+        List<String[]> records = keepRecords ? new ArrayList<String[]>() : null;
+        long recordCount = 0;
+        boolean clean = true;
+
+        try (CsvReader reader = new CsvReader(new FileRangeInputStream(channel, start, end), charset,
+                userSettings, useCustomRecordDelimiter)) {
+            while (reader.readRecord()) {
+                if (keepRecords) {
+                    records.add(reader.getValues());
+                }
+
+                recordCount++;
+
+                // a record that was ended by the end of the chunk
+                // instead of a record delimiter continues in the next one
+                clean = reader.hasMoreData();
+            }
+        }
+
+        return new ParsedChunk(records, recordCount, clean, end - start);
+    }
+
+    /**
+     * Waits for a task, letting through the IOException it failed with.
+     */
+    private static <T> T join(ForkJoinTask<T> task) throws IOException {
+        try {
+            return task.join();
+        } catch (RuntimeException ex) {
+            for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+                if (cause instanceof UncheckedIOException) {
+                    throw ((UncheckedIOException) cause).getCause();
+                }
+            }
+
+            throw ex;
+        }
+    }
+
+    /**
+     * Counts the text qualifiers between two positions of the file, and finds
+     * where the first record after each record delimiter starts when the
+     * qualifiers before it are even and when they are odd.
+     */
+    private Scan scan(FileChannel channel, long start, long end, long size) throws IOException {
+        byte textQualifier = (byte) userSettings.textQualifier();
+        byte recordDelimiter = (byte) userSettings.recordDelimiter;
+        boolean useTextQualifier = userSettings.useTextQualifier;
+        ByteBuffer buffer = ByteBuffer.allocate(StaticSettings.MAX_BYTE_BUFFER_SIZE);
+        byte[] bytes = buffer.array();
+        boolean oddQualifiers = false;
+        boolean lastLetterWasCR = false;
+        long outside = -1;
+        long inside = -1;
+        long position = start;
+
+        // without qualifiers only the first boundary matters
+        while (position < end && (useTextQualifier || outside == -1)) {
+            buffer.clear();
+            buffer.limit((int) Math.min(bytes.length, end - position));
+
+            int read = channel.read(buffer, position);
+
+            if (read == -1) {
+                break;
+            }
+
+            for (int i = 0; i < read; i++) {
+                byte letter = bytes[i];
+                long boundary = -1;
+
+                if (lastLetterWasCR) {
+                    lastLetterWasCR = false;
+
+                    // a CR followed by an LF only ends the record after the LF
+                    if (letter != Letters.LF) {
+                        boundary = position + i;
+                    }
+                }
+
+                if (useTextQualifier && letter == textQualifier) {
+                    oddQualifiers = !oddQualifiers;
+                } else if (useCustomRecordDelimiter) {
+                    if (letter == recordDelimiter) {
+                        boundary = position + i + 1;
+                    }
+                } else if (letter == Letters.LF) {
+                    boundary = position + i + 1;
+                } else if (letter == Letters.CR) {
+                    lastLetterWasCR = true;
+                }
+
+                if (boundary != -1) {
+                    // an odd number of qualifiers closes a column the
+                    // chunk started in
+                    if (oddQualifiers) {
+                        inside = inside == -1 ? boundary : inside;
+                    } else {
+                        outside = outside == -1 ? boundary : outside;
+                    }
+                }
+            }
+
+            position += read;
+        }
+
+        if (lastLetterWasCR && end < size) {
+            ByteBuffer next = ByteBuffer.allocate(1);
+
+            if (channel.read(next, end) == 1 && next.get(0) != Letters.LF) {
+                if (oddQualifiers) {
+                    inside = inside == -1 ? end : inside;
+                } else {
+                    outside = outside == -1 ? end : outside;
+                }
+            }
+        }
+
+        return new Scan(oddQualifiers, outside, inside);
+    }
+
+    /**
+     * Whether record boundaries can be found by looking at single bytes of the
+     * file.
+     */
+    private boolean splittable() {
+        int maxLetter;
+
+        if (charset.equals(StandardCharsets.ISO_8859_1)) {
+            maxLetter = 0xFF;
+        } else if (charset.equals(StandardCharsets.UTF_8) || charset.equals(StandardCharsets.US_ASCII)) {
+            // bytes below 0x80 are never part of a longer character
+            maxLetter = 0x7F;
+        } else {
+            return false;
+        }
+
+        // a comment line only ends at a CR or LF, so a custom record
+        // delimiter in it doesn't end a record, and whether a chunk starts in
+        // a comment line can't be told from the chunk
+        return (!userSettings.useTextQualifier || userSettings.textQualifier() <= maxLetter)
+                && (!useCustomRecordDelimiter || (userSettings.recordDelimiter <= maxLetter
+                        && !userSettings.useComments));
+    }
+
+    private static final class Chunk {
+        private final long start;
+        private final long end;
+        private final ForkJoinTask<ParsedChunk> task;
+
+        private Chunk(long start, long end, ForkJoinTask<ParsedChunk> task) {
+            this.start = start;
+            this.end = end;
+            this.task = task;
+        }
+    }
+
+    private static final class ParsedChunk {
+        // only kept when the records are handled
+        private final List<String[]> records;
+        private final long recordCount;
+        // whether the last record ended with a record delimiter
+        private final boolean clean;
+        // the bytes parsed, -1 when not known
+        private final long length;
+
+        private ParsedChunk(List<String[]> records, long recordCount, boolean clean, long length) {
+            this.records = records;
+            this.recordCount = recordCount;
+            this.clean = clean;
+            this.length = length;
+        }
+    }
+
+    private interface ChunkHandler {
+        /**
+         * @param start       Where the chunk starts in the file, or -1 for
+         *                    batches of records read in one go when that
+         *                    isn't known.
+         * @param firstRecord The index of the first record of the chunk.
+         * @param chunk       The parsed chunk.
+         */
+        void handle(long start, long firstRecord, ParsedChunk chunk);
+    }
+
+    /**
+     * What a chunk looks like to the boundary search.
+     */
+    private static final class Scan {
+        // the text qualifiers in the chunk
+        private final boolean oddQualifiers;
+        // where the first record starts, for the chunk starting outside and
+        // inside a qualified column, or -1 when no record starts in it
+        private final long outside;
+        private final long inside;
+
+        private Scan(boolean oddQualifiers, long outside, long inside) {
+            this.oddQualifiers = oddQualifiers;
+            this.outside = outside;
+            this.inside = inside;
+        }
+    }
+
+    /**
+     * Finds where the chunks of the file start, scanning a few chunks ahead on
+     * the pool.
+     */
+    private final class Boundaries {
+        private final FileChannel channel;
+        private final long size;
+        private final int window;
+        private long chunkCount;
+        private final ArrayDeque<ForkJoinTask<Scan>> scans = new ArrayDeque<ForkJoinTask<Scan>>();
+        // where the first chunk starts, scans are lined up from there
+        private long base = 0;
+        private long nextScan = 0;
+        private long nextChunk = 0;
+        private long start = 0;
+        private long end = 0;
+        // whether the next chunk starts inside a qualified column
+        private boolean inside = false;
+
+        private Boundaries(FileChannel channel, long size, int window) {
+            this.channel = channel;
+            this.size = size;
+            this.window = window;
+            this.chunkCount = chunkCount(size);
+        }
+
+        private long chunkCount(long length) {
+            return splittable() ? Math.max(1, (length + chunkSize - 1) / chunkSize) : 1;
+        }
+
+        /**
+         * Starts over from a position where a record is known to start,
+         * forgetting the count of qualifiers so far.
+         */
+        private void restart(long position) {
+            cancel();
+
+            base = position;
+            chunkCount = chunkCount(size - position);
+            nextScan = 0;
+            nextChunk = 0;
+            start = position;
+            end = position;
+            inside = false;
+        }
+
+        private boolean hasNext() {
+            return end < size;
+        }
+
+        /**
+         * Gets where the chunk returned by the last call to next() starts.
+         */
+        private long start() {
+            return start;
+        }
+
+        /**
+         * Moves to the next chunk.
+         *
+         * @return Where the chunk ends.
+         */
+        private long next() throws IOException {
+            start = end;
+
+            while (nextChunk < chunkCount) {
+                while (scans.size() < window && nextScan < chunkCount) {
+                    long scanStart = base + nextScan * chunkSize;
+                    long scanEnd = Math.min(scanStart + chunkSize, size);
+
+                    scans.add(pool.submit(() -> {
+                        try {
+                            return scan(channel, scanStart, scanEnd, size);
+                        } catch (IOException ex) {
+                            throw new UncheckedIOException(ex);
+                        }
+                    }));
+                    nextScan++;
+                }
+
+                Scan scan = join(scans.poll());
+                // the first chunk starts with the file, its scan only
+                // counts the qualifiers
+                long boundary = nextChunk == 0 ? -1 : inside ? scan.inside : scan.outside;
+
+                inside ^= scan.oddQualifiers;
+                nextChunk++;
+
+                // a chunk without a boundary belongs to the one before
+                if (boundary != -1 && boundary < size) {
+                    end = boundary;
+
+                    return end;
+                }
+            }
+
+            end = size;
+
+            return end;
+        }
+
+        private void cancel() {
+            for (ForkJoinTask<Scan> scan : scans) {
+                scan.cancel(false);
+                scan.quietlyJoin();
+            }
+
+            scans.clear();
+        }
+    }
+}
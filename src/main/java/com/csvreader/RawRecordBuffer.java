@@ -6,7 +6,11 @@ public class RawRecordBuffer {
 	public int position;
 
 	public RawRecordBuffer() {
-		buffer = new char[StaticSettings.INITIAL_COLUMN_BUFFER_SIZE * StaticSettings.INITIAL_COLUMN_COUNT];
+		this(StaticSettings.INITIAL_COLUMN_BUFFER_SIZE * StaticSettings.INITIAL_COLUMN_COUNT);
+	}
+
+	public RawRecordBuffer(int size) {
+		buffer = new char[size];
 		position = 0;
 	}
 }
\ No newline at end of file
@@ -0,0 +1,157 @@
+package com.csvreader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Reads a stream on a thread of its own, one buffer ahead of the reader, so
+ * that waiting for the source and parsing happen at the same time. There are
+ * two buffers, one being read from and one being filled, which are swapped
+ * when the one being read from runs out.
+ */
+final class ReadAheadInputStream extends InputStream {
+    private final InputStream source;
+    // buffers that were read from and can be filled again
+    private final BlockingQueue<Block> empty = new ArrayBlockingQueue<Block>(2);
+    // filled buffers in the order of the data
+    private final BlockingQueue<Block> filled = new ArrayBlockingQueue<Block>(2);
+    private final Thread reader;
+    private volatile boolean closed = false;
+    // the buffer being read from
+    private Block block;
+    private int position = 0;
+    private boolean ended = false;
+    // what reading the source failed with, thrown from then on
+    private IOException failure = null;
+
+    ReadAheadInputStream(InputStream source, int bufferSize, ThreadFactory threadFactory) {
+        this.source = source;
+        this.block = new Block(bufferSize);
+
+        empty.add(new Block(bufferSize));
+
+        reader = threadFactory.newThread(this::readAhead);
+        reader.start();
+    }
+
+    @Override
+    public int read() throws IOException {
+        return nextBlock() ? block.data[position++] & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        } else if (!nextBlock()) {
+            return -1;
+        }
+
+        int count = Math.min(length, block.length - position);
+
+        System.arraycopy(block.data, position, buffer, offset, count);
+
+        position += count;
+
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return block.length - position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            reader.interrupt();
+            source.close();
+        }
+    }
+
+    /**
+     * Makes sure the buffer being read from has data left, swapping it for
+     * the one that was filled in the meantime when it doesn't.
+     *
+     * @return Whether there is data left.
+     */
+    private boolean nextBlock() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed.");
+        }
+
+        while (position == block.length) {
+            if (failure != null) {
+                throw failure;
+            } else if (ended) {
+                return false;
+            }
+
+            Block next;
+
+            try {
+                next = filled.take();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+
+                throw new InterruptedIOException("Interrupted while waiting for data.");
+            }
+
+            if (next.error != null) {
+                failure = next.error;
+            } else if (next.length == -1) {
+                ended = true;
+            } else {
+                // the other buffer is filled while this one is read
+                empty.add(block);
+
+                block = next;
+                position = 0;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Runs on the reading thread until the end of the source.
+     */
+    private void readAhead() {
+        try {
+            int read;
+
+            do {
+                Block next = empty.take();
+
+                try {
+                    read = source.read(next.data, 0, next.data.length);
+                } catch (IOException ex) {
+                    next.error = closed ? null : ex;
+                    read = -1;
+                }
+
+                next.length = read;
+
+                filled.put(next);
+            } while (read != -1 && !closed);
+        } catch (InterruptedException ex) {
+            // closed while waiting for a buffer
+        }
+    }
+
+    private static final class Block {
+        private final byte[] data;
+        // -1 at the end of the source
+        private int length = 0;
+        private IOException error = null;
+
+        private Block(int size) {
+            data = new byte[size];
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.csvreader;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * The counters a {@link CsvReader} keeps once
+ * {@link UserSettings#withMetrics(boolean)} is set, see
+ * {@link CsvReader#getMetrics()}. The counters are updated as the reader goes
+ * and can be registered as an MXBean as they are. Only the thread reading
+ * updates them, with ordered writes that cost no more than plain ones, so
+ * another thread, such as one serving JMX, always sees whole values that are
+ * at most a few updates behind. Each counter is read on its own, so two
+ * counters, also those of a {@link #snapshot()}, which gives a copy that stays
+ * the same, can be a record apart.
+ * <p>
+ * Comparing {@link #getReadNanos()} to {@link #getParseNanos()} tells whether
+ * reading is held up by the data source or by parsing. Taking the time costs
+ * about as much as parsing a short record, so only every 16th record read is
+ * timed and the time spent parsing is estimated from those; everything else
+ * is counted exactly.
+ */
+public final class ReaderMetrics implements ReaderMetricsMXBean {
+    // records read per record timed, a power of two
+    static final int TIMED_RECORDS = 16;
+
+    private static final AtomicLongFieldUpdater<ReaderMetrics> RECORDS = updater("records");
+    private static final AtomicLongFieldUpdater<ReaderMetrics> FIELDS = updater("fields");
+    private static final AtomicLongFieldUpdater<ReaderMetrics> SKIPPED_RECORDS = updater("skippedRecords");
+    private static final AtomicLongFieldUpdater<ReaderMetrics> CHARS_READ = updater("charsRead");
+    private static final AtomicLongFieldUpdater<ReaderMetrics> BYTES_READ = updater("bytesRead");
+    private static final AtomicLongFieldUpdater<ReaderMetrics> REFILLS = updater("refills");
+    private static final AtomicLongFieldUpdater<ReaderMetrics> COLUMN_BUFFER_GROWTHS = updater("columnBufferGrowths");
+    private static final AtomicLongFieldUpdater<ReaderMetrics> RAW_BUFFER_GROWTHS = updater("rawBufferGrowths");
+    private static final AtomicLongFieldUpdater<ReaderMetrics> COLUMN_ARRAY_GROWTHS = updater("columnArrayGrowths");
+    private static final AtomicLongFieldUpdater<ReaderMetrics> DATA_BUFFER_GROWTHS = updater("dataBufferGrowths");
+    private static final AtomicLongFieldUpdater<ReaderMetrics> READ_NANOS = updater("readNanos");
+    private static final AtomicLongFieldUpdater<ReaderMetrics> PARSE_NANOS = updater("parseNanos");
+
+    private volatile long records = 0;
+    private volatile long fields = 0;
+    private volatile long skippedRecords = 0;
+    private volatile long charsRead = 0;
+    private volatile long bytesRead = 0;
+    private volatile long refills = 0;
+    private volatile long columnBufferGrowths = 0;
+    private volatile long rawBufferGrowths = 0;
+    private volatile long columnArrayGrowths = 0;
+    private volatile long dataBufferGrowths = 0;
+    private volatile long readNanos = 0;
+    private volatile long parseNanos = 0;
+    // when the record being parsed was started, and how long had been spent
+    // waiting for data by then
+    private long parseStart = 0;
+    private long readNanosAtStart = 0;
+    private int recordsStarted = 0;
+
+    ReaderMetrics() {
+    }
+
+    /**
+     * Copies the counters as they are now.
+     *
+     * @return A copy of the counters.
+     */
+    public ReaderMetrics snapshot() {
+        ReaderMetrics snapshot = new ReaderMetrics();
+
+        snapshot.records = records;
+        snapshot.fields = fields;
+        snapshot.skippedRecords = skippedRecords;
+        snapshot.charsRead = charsRead;
+        snapshot.bytesRead = bytesRead;
+        snapshot.refills = refills;
+        snapshot.columnBufferGrowths = columnBufferGrowths;
+        snapshot.rawBufferGrowths = rawBufferGrowths;
+        snapshot.columnArrayGrowths = columnArrayGrowths;
+        snapshot.dataBufferGrowths = dataBufferGrowths;
+        snapshot.readNanos = readNanos;
+        snapshot.parseNanos = parseNanos;
+
+        return snapshot;
+    }
+
+    @Override
+    public long getRecords() {
+        return records;
+    }
+
+    @Override
+    public long getFields() {
+        return fields;
+    }
+
+    @Override
+    public long getSkippedRecords() {
+        return skippedRecords;
+    }
+
+    @Override
+    public long getCharsRead() {
+        return charsRead;
+    }
+
+    @Override
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    @Override
+    public long getRefills() {
+        return refills;
+    }
+
+    @Override
+    public long getColumnBufferGrowths() {
+        return columnBufferGrowths;
+    }
+
+    @Override
+    public long getRawBufferGrowths() {
+        return rawBufferGrowths;
+    }
+
+    @Override
+    public long getColumnArrayGrowths() {
+        return columnArrayGrowths;
+    }
+
+    @Override
+    public long getDataBufferGrowths() {
+        return dataBufferGrowths;
+    }
+
+    @Override
+    public long getReadNanos() {
+        return readNanos;
+    }
+
+    @Override
+    public long getParseNanos() {
+        return parseNanos;
+    }
+
+    /**
+     * Counts a record read.
+     *
+     * @param fieldCount The number of columns in it.
+     */
+    void recordRead(int fieldCount) {
+        add(RECORDS, 1);
+        add(FIELDS, fieldCount);
+    }
+
+    void recordsSkipped(long count) {
+        add(SKIPPED_RECORDS, count);
+    }
+
+    /**
+     * Counts characters that were in memory from the start.
+     */
+    void charsRead(long count) {
+        add(CHARS_READ, count);
+    }
+
+    void columnBufferGrew() {
+        add(COLUMN_BUFFER_GROWTHS, 1);
+    }
+
+    void rawBufferGrew() {
+        add(RAW_BUFFER_GROWTHS, 1);
+    }
+
+    void columnArrayGrew() {
+        add(COLUMN_ARRAY_GROWTHS, 1);
+    }
+
+    void dataBufferGrew() {
+        add(DATA_BUFFER_GROWTHS, 1);
+    }
+
+    /**
+     * Starts timing the record about to be read, if it's one of those timed.
+     *
+     * @return Whether it's timed.
+     */
+    boolean startRecord() {
+        if ((++recordsStarted & (TIMED_RECORDS - 1)) != 0) {
+            return false;
+        }
+
+        startParsing();
+
+        return true;
+    }
+
+    void startParsing() {
+        parseStart = System.nanoTime();
+        readNanosAtStart = readNanos;
+    }
+
+    /**
+     * @param scale How many times the time spent parsing is counted, to make
+     *              up for what wasn't timed.
+     */
+    void stopParsing(int scale) {
+        add(PARSE_NANOS, (System.nanoTime() - parseStart - (readNanos - readNanosAtStart)) * scale);
+    }
+
+    /**
+     * Counts a refill of the data buffer.
+     *
+     * @param started When reading from the data source started.
+     * @param count   What was read, -1 at the end of the data.
+     * @param bytes   Whether bytes were read rather than characters.
+     */
+    void refilled(long started, int count, boolean bytes) {
+        add(READ_NANOS, System.nanoTime() - started);
+        add(REFILLS, 1);
+
+        if (count > 0) {
+            add(bytes ? BYTES_READ : CHARS_READ, count);
+        }
+    }
+
+    /**
+     * Adds to a counter. Only the thread reading writes the counters, so a
+     * lazySet is enough to publish the sum, without the fence a volatile
+     * write costs.
+     */
+    private void add(AtomicLongFieldUpdater<ReaderMetrics> counter, long amount) {
+        counter.lazySet(this, counter.get(this) + amount);
+    }
+
+    private static AtomicLongFieldUpdater<ReaderMetrics> updater(String fieldName) {
+        return AtomicLongFieldUpdater.newUpdater(ReaderMetrics.class, fieldName);
+    }
+}
@@ -0,0 +1,75 @@
+package com.csvreader;
+
+/**
+ * The counters of a {@link CsvReader} as seen through JMX, see
+ * {@link ReaderMetrics}. Lengths are in characters, or in bytes when the data
+ * is parsed as bytes, and times in nanoseconds.
+ */
+public interface ReaderMetricsMXBean {
+    /**
+     * Gets the number of records read, headers included.
+     */
+    long getRecords();
+
+    /**
+     * Gets the number of columns in the records read.
+     */
+    long getFields();
+
+    /**
+     * Gets the number of records passed over by
+     * {@link CsvReader#skipRecords(long)}.
+     */
+    long getSkippedRecords();
+
+    /**
+     * Gets the number of characters taken from the data source by the
+     * character parser.
+     */
+    long getCharsRead();
+
+    /**
+     * Gets the number of bytes taken from the data source when the data is
+     * parsed as bytes.
+     */
+    long getBytesRead();
+
+    /**
+     * Gets how often the data buffer was refilled from the data source.
+     */
+    long getRefills();
+
+    /**
+     * Gets how often the buffer holding copied column data had to grow.
+     */
+    long getColumnBufferGrowths();
+
+    /**
+     * Gets how often the buffer holding the raw record had to grow.
+     */
+    long getRawBufferGrowths();
+
+    /**
+     * Gets how often the arrays holding the columns of a record had to grow
+     * for a record with more columns.
+     */
+    long getColumnArrayGrowths();
+
+    /**
+     * Gets how often the data buffer grew, for a record that didn't fit or to
+     * follow the average record.
+     */
+    long getDataBufferGrowths();
+
+    /**
+     * Gets the time spent waiting for the data source.
+     */
+    long getReadNanos();
+
+    /**
+     * Gets the time spent reading and skipping records, without the time
+     * spent waiting for the data source. Records read are timed by sample, so
+     * this is an estimate.
+     */
+    long getParseNanos();
+}
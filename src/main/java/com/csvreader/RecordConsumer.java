@@ -0,0 +1,16 @@
+package com.csvreader;
+
+import java.io.IOException;
+
+/**
+ * Handles the records of a {@link CsvReader}, see
+ * {@link CsvReader#forEach(RecordConsumer)}.
+ */
+public interface RecordConsumer {
+    /**
+     * @param record The current record, which is the same object for every
+     *               record and only valid until this returns.
+     * @exception IOException Thrown if the record can not be handled.
+     */
+    void accept(CsvRecord record) throws IOException;
+}
@@ -0,0 +1,127 @@
+package com.csvreader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * A {@link java.util.Spliterator Spliterator} over the records in a range of a
+ * file, which splits by cutting the range in two at a record boundary. Each
+ * part is parsed by its own {@link CsvReader}.
+ * <p>
+ * A range is split at the first record that can be told for certain to start
+ * after its middle, found by following the structure of the data from the
+ * middle on, see {@link RecordStructure#resync(FileChannel, long, long)}, so
+ * splitting never reads what comes before the middle. That's only possible
+ * when the structural characters are single bytes, otherwise the range isn't
+ * split.
+ */
+final class RecordSpliterator implements Spliterator<String[]> {
+    private final FileChannel channel;
+    private final Charset charset;
+    private final UserSettings userSettings;
+    private final boolean useCustomRecordDelimiter;
+    // compressed files are read whole, see InflatingInputStream
+    private final boolean compressed;
+    private final boolean splittable;
+    private final int minSplitSize;
+    private long start;
+    private final long end;
+    // only opened once the first record is needed
+    private CsvReader reader = null;
+
+    /**
+     * @param minSplitSize The smallest range in bytes that is still split.
+     */
+    RecordSpliterator(FileChannel channel, Charset charset, UserSettings userSettings,
+            boolean useCustomRecordDelimiter, boolean compressed, long start, long end, int minSplitSize) {
+        this.channel = channel;
+        this.charset = charset;
+        this.userSettings = userSettings;
+        this.useCustomRecordDelimiter = useCustomRecordDelimiter;
+        this.compressed = compressed;
+        this.splittable = !compressed && RecordStructure.isExact(charset, userSettings, useCustomRecordDelimiter);
+        this.minSplitSize = minSplitSize;
+        this.start = start;
+        this.end = end;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super String[]> action) {
+        try {
+            if (reader == null) {
+                InputStream stream = new FileRangeInputStream(channel, start, end);
+
+                reader = new CsvReader(compressed ? InflatingInputStream.open(stream, userSettings.threadFactory()) : stream, charset,
+                        userSettings, useCustomRecordDelimiter);
+            }
+
+            if (reader.readRecord()) {
+                action.accept(reader.getValues());
+
+                return true;
+            }
+
+            reader.close();
+
+            return false;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public Spliterator<String[]> trySplit() {
+        if (reader != null || !splittable || end - start < minSplitSize * 2L) {
+            return null;
+        }
+
+        long boundary;
+
+        try {
+            boundary = new RecordStructure(userSettings, useCustomRecordDelimiter).resync(channel,
+                    start + (end - start) / 2, end);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+
+        if (boundary == -1) {
+            return null;
+        }
+
+        RecordSpliterator prefix = new RecordSpliterator(channel, charset, userSettings, useCustomRecordDelimiter,
+                false, start, boundary, minSplitSize);
+
+        start = boundary;
+
+        return prefix;
+    }
+
+    /**
+     * Gets the number of bytes left, which is more than the number of records
+     * left.
+     */
+    @Override
+    public long estimateSize() {
+        return end - start;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL;
+    }
+
+    /**
+     * Closes the reader when it's still open, which stops the inflating of a
+     * compressed file.
+     */
+    void close() {
+        if (reader != null) {
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.csvreader;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+/**
+ * Finds where records start in a file by following the structure of the data,
+ * from a position where a record is known to start or from anywhere, the same
+ * way the parser for doubled escapes does but without keeping any values.
+ * That's only exact when the structural characters are single bytes, see
+ * {@link #isExact(Charset, UserSettings, boolean)}.
+ */
+final class RecordStructure {
+    // the state of the data at the current byte
+    private static final int RECORD_START = 0;
+    private static final int COLUMN_START = 1;
+    private static final int PLAIN = 2;
+    private static final int QUALIFIED = 3;
+    private static final int QUALIFIER = 4;
+    private static final int JUNK = 5;
+    private static final int COMMENT = 6;
+    // right after a CR that ended a record, where the next record only starts
+    // when the CR isn't followed by an LF, as the parser would see an empty
+    // line there
+    private static final int AFTER_CR = 7;
+    private static final int STATES = 8;
+    // set on the state after a byte that ended a record
+    private static final int ENDED = 8;
+
+    private final boolean useCustomRecordDelimiter;
+    private final byte delimiter;
+    private final byte textQualifier;
+    private final byte recordDelimiter;
+    private final byte comment;
+    private final boolean useTextQualifier;
+    private final boolean useComments;
+    private final boolean trimWhitespace;
+    // where the last record before the position looked for starts
+    private long lastStart = -1;
+
+    RecordStructure(UserSettings userSettings, boolean useCustomRecordDelimiter) {
+        this.useCustomRecordDelimiter = useCustomRecordDelimiter;
+        this.delimiter = (byte) userSettings.delimiter();
+        this.textQualifier = (byte) userSettings.textQualifier();
+        this.recordDelimiter = (byte) userSettings.recordDelimiter;
+        this.comment = (byte) userSettings.comment;
+        this.useTextQualifier = userSettings.useTextQualifier;
+        this.useComments = userSettings.useComments;
+        this.trimWhitespace = userSettings.trimWhitespace();
+    }
+
+    /**
+     * Whether the records found are exactly those a {@link CsvReader} reads
+     * with the same settings.
+     */
+    static boolean isExact(Charset charset, UserSettings userSettings, boolean useCustomRecordDelimiter) {
+        return ByteRecordParser.supports(charset, userSettings, useCustomRecordDelimiter);
+    }
+
+    /**
+     * Gets where the last record that starts before the position given to
+     * the last call to {@link #find(FileChannel, long, long, long)} starts,
+     * which is the record that position is in.
+     */
+    long lastStart() {
+        return lastStart;
+    }
+
+    /**
+     * Finds the first record that starts at or after a position and before
+     * the end of a range.
+     *
+     * @param start Where a record starts, which is where the search starts.
+     * @return Where the record starts, or -1 when there is none.
+     */
+    long find(FileChannel channel, long start, long from, long end) throws IOException {
+        lastStart = start;
+
+        return search(channel, new int[] { RECORD_START }, start, from, end);
+    }
+
+    /**
+     * Finds a record that starts at or after a position and before the end of
+     * a range without knowing what the data at the position is. The search
+     * follows the structure from every state the data could be in at once
+     * until they all agree, which they do within a column or two as a text
+     * qualifier only opens a qualified column at the start of one, and the
+     * first record that starts after that is certain.
+     *
+     * @return Where the record starts, or -1 when there is none or it can't
+     *         be told.
+     */
+    long resync(FileChannel channel, long from, long end) throws IOException {
+        // without comments no data is in a comment line, which would keep
+        // the states from agreeing until the next CR or LF
+        int[] states = new int[useComments ? STATES : STATES - 1];
+
+        for (int i = 0, state = 0; i < states.length; state++) {
+            if (useComments || state != COMMENT) {
+                states[i++] = state;
+            }
+        }
+
+        return search(channel, states, from, from, end);
+    }
+
+    /**
+     * Follows the structure of the data from the given states, until only one
+     * is left, and from there to the first record that starts at or after a
+     * position.
+     */
+    private long search(FileChannel channel, int[] states, long start, long from, long end) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(StaticSettings.MAX_BYTE_BUFFER_SIZE);
+        byte[] bytes = buffer.array();
+        int stateCount = states.length;
+        int state = states[0];
+        long position = start;
+
+        while (position < end) {
+            buffer.clear();
+            buffer.limit((int) Math.min(bytes.length, end - position));
+
+            int read = channel.read(buffer, position);
+
+            if (read == -1) {
+                break;
+            }
+
+            for (int i = 0; i < read; i++) {
+                byte letter = bytes[i];
+
+                if (stateCount > 1) {
+                    boolean agreed = true;
+
+                    for (int j = 0; j < stateCount; j++) {
+                        states[j] = next(states[j], letter) & ~ENDED;
+                        agreed &= states[j] == states[0];
+                    }
+
+                    if (agreed) {
+                        stateCount = 1;
+                        state = states[0];
+                    }
+
+                    continue;
+                }
+
+                if (state == AFTER_CR && letter != Letters.LF && started(position + i, from)) {
+                    return position + i;
+                }
+
+                state = next(state, letter);
+
+                if ((state & ENDED) != 0) {
+                    state &= ~ENDED;
+
+                    if (state == RECORD_START && position + i + 1 < end && started(position + i + 1, from)) {
+                        return position + i + 1;
+                    }
+                }
+            }
+
+            position += read;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Gets the state after a byte.
+     *
+     * @return The state, with {@link #ENDED} set when the byte ended a record.
+     */
+    private int next(int state, byte letter) {
+        boolean recordEnd = useCustomRecordDelimiter ? letter == recordDelimiter
+                : letter == Letters.CR || letter == Letters.LF;
+
+        switch (state) {
+            case RECORD_START:
+            case AFTER_CR:
+            case COLUMN_START:
+                if (useTextQualifier && letter == textQualifier) {
+                    return QUALIFIED;
+                } else if (letter == delimiter) {
+                    return COLUMN_START;
+                } else if (recordEnd) {
+                    return ended(letter);
+                } else if (useComments && state != COLUMN_START && letter == comment) {
+                    return COMMENT;
+                } else if (!trimWhitespace || (letter != Letters.SPACE && letter != Letters.TAB)) {
+                    return PLAIN;
+                }
+
+                return state == AFTER_CR ? RECORD_START : state;
+            case PLAIN:
+            case JUNK:
+                if (letter == delimiter) {
+                    return COLUMN_START;
+                } else if (recordEnd) {
+                    return ended(letter);
+                }
+
+                return state;
+            case QUALIFIED:
+                return letter == textQualifier ? QUALIFIER : QUALIFIED;
+            case QUALIFIER:
+                if (letter == textQualifier) {
+                    // a doubled qualifier
+                    return QUALIFIED;
+                } else if (letter == delimiter) {
+                    return COLUMN_START;
+                } else if (recordEnd) {
+                    return ended(letter);
+                }
+
+                return JUNK;
+            default:
+                // comments always end at the end of the line
+                return letter == Letters.CR || letter == Letters.LF ? ended(letter) : COMMENT;
+        }
+    }
+
+    private int ended(byte letter) {
+        return (!useCustomRecordDelimiter && letter == Letters.CR ? AFTER_CR : RECORD_START) | ENDED;
+    }
+
+    /**
+     * Notes that a record starts at a position.
+     *
+     * @return Whether it's the one looked for.
+     */
+    private boolean started(long recordStart, long from) {
+        if (recordStart >= from) {
+            return true;
+        }
+
+        lastStart = recordStart;
+
+        return false;
+    }
+}
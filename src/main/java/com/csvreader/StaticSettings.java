@@ -6,6 +6,20 @@ public class StaticSettings {
 	// CsvReader construction
 	public static final int MAX_BUFFER_SIZE = 1024;
 	public static final int MAX_FILE_BUFFER_SIZE = 4 * 1024;
+	public static final int MAX_BYTE_BUFFER_SIZE = 64 * 1024;
 	public static final int INITIAL_COLUMN_COUNT = 10;
 	public static final int INITIAL_COLUMN_BUFFER_SIZE = 50;
+	// upper bound for buffers sized by UserSettings.withAdaptiveBuffers
+	public static final int MAX_ADAPTIVE_BUFFER_SIZE = 1024 * 1024;
+	// records in a row that have to fit in the initial buffer sizes before
+	// buffers grown by a larger record are shrunk back
+	public static final int SHRINK_AFTER_RECORDS = 1000;
+	// FileChannel.map can't map more than Integer.MAX_VALUE bytes at once
+	public static final int MAX_MAPPED_WINDOW_SIZE = Integer.MAX_VALUE;
+	// how much of a file each task of a ParallelCsvReader parses
+	public static final int PARALLEL_CHUNK_SIZE = 256 * 1024;
+	// how many distinct values are interned per column, see CsvReader.setInterned
+	public static final int MAX_INTERNED_VALUES = 1024;
+	// how many closed readers each thread keeps, see CsvReaderPool
+	public static final int MAX_IDLE_READERS = 4;
 }
\ No newline at end of file
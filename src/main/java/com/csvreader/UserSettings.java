@@ -1,5 +1,7 @@
 package com.csvreader;
 
+import java.util.concurrent.ThreadFactory;
+
 public class UserSettings {
     // having these as publicly accessible members will prevent
     // the overhead of the method call that exists on properties
@@ -13,6 +15,22 @@ public class UserSettings {
 
     private EscapeMode escapeMode;
     private boolean trimWhitespace;
+    private boolean memoryMapping;
+    private boolean byteParsing;
+    private int bufferSize;
+    private int fileBufferSize;
+    private int initialColumnCount;
+    private int initialColumnBufferSize;
+    private boolean adaptiveBuffers;
+    private int shrinkAfterRecords;
+    private boolean lazyColumns;
+    private boolean readAhead;
+    private int maxColumnLength;
+    private int maxRecordLength;
+    private int maxBufferedLength;
+    private boolean metrics;
+    // null for BackgroundThreads.DEFAULT
+    private ThreadFactory threadFactory;
 
     public boolean useTextQualifier;
     public char recordDelimiter;
@@ -34,6 +52,21 @@ public class UserSettings {
         skipEmptyRecords = true;
         captureRawRecord = true;
         forceQualifier = false;
+        memoryMapping = false;
+        byteParsing = false;
+        bufferSize = StaticSettings.MAX_BUFFER_SIZE;
+        fileBufferSize = StaticSettings.MAX_FILE_BUFFER_SIZE;
+        initialColumnCount = StaticSettings.INITIAL_COLUMN_COUNT;
+        initialColumnBufferSize = StaticSettings.INITIAL_COLUMN_BUFFER_SIZE;
+        adaptiveBuffers = false;
+        shrinkAfterRecords = StaticSettings.SHRINK_AFTER_RECORDS;
+        lazyColumns = false;
+        readAhead = false;
+        maxColumnLength = Integer.MAX_VALUE;
+        maxRecordLength = Integer.MAX_VALUE;
+        maxBufferedLength = Integer.MAX_VALUE;
+        metrics = false;
+        threadFactory = null;
 
         updateDelimiter(Letters.COMMA);
         updateTextQualifier(Letters.QUOTE);
@@ -127,6 +160,368 @@ public class UserSettings {
         return this;
     }
 
+    /**
+     * Gets whether file data sources are read through a memory mapping of the
+     * file instead of a buffered stream. Default is false.
+     * 
+     * @return Whether file data sources are memory mapped.
+     */
+    public boolean memoryMapping() {
+        return memoryMapping;
+    }
+
+    /**
+     * Sets whether file data sources should be read through a memory mapping
+     * of the file instead of a buffered stream. Only takes effect for readers
+     * created from a file name, and only before the first record is read.
+     * Default is false.
+     * 
+     * @param memoryMapping Whether file data sources should be memory mapped.
+     */
+    public UserSettings withMemoryMapping(boolean memoryMapping) {
+        this.memoryMapping = memoryMapping;
+        return this;
+    }
+
+    /**
+     * Gets whether byte based data sources are parsed without decoding them to
+     * characters first. Default is false.
+     * 
+     * @return Whether byte based data sources are parsed as bytes.
+     */
+    public boolean byteParsing() {
+        return byteParsing;
+    }
+
+    /**
+     * Sets whether files and {@link java.io.InputStream InputStream} data
+     * sources should be parsed directly as bytes, decoding only the column
+     * values that are actually requested. Only used for UTF-8, ISO-8859-1 and
+     * US-ASCII data with the {@link EscapeMode#DOUBLED DOUBLED} escape mode,
+     * when the delimiter, text qualifier, comment and record delimiter are all
+     * encoded as a single byte. Other combinations fall back to decoding the
+     * data first. Only takes effect before the first record is read. Default is
+     * false.
+     * 
+     * @param byteParsing Whether byte based data sources should be parsed as
+     *                    bytes.
+     */
+    public UserSettings withByteParsing(boolean byteParsing) {
+        this.byteParsing = byteParsing;
+        return this;
+    }
+
+    /**
+     * Gets the size of the buffer the parser reads data into.
+     * 
+     * @return The size of the data buffer.
+     */
+    public int bufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * Sets the size of the buffer the parser reads data into, in characters.
+     * When parsing bytes, this is the size in bytes, but never less than 64 KB.
+     * Only takes effect before the first record is read. Default is 1,024.
+     * 
+     * @param bufferSize The size of the data buffer.
+     */
+    public UserSettings withBufferSize(int bufferSize) {
+        this.bufferSize = checkSize(bufferSize, "bufferSize");
+        return this;
+    }
+
+    /**
+     * Gets the size of the buffer used when reading from a file.
+     * 
+     * @return The size of the file buffer.
+     */
+    public int fileBufferSize() {
+        return fileBufferSize;
+    }
+
+    /**
+     * Sets the size of the buffer used when reading from a file, in
+     * characters. Only takes effect before the first record is read. Default
+     * is 4,096.
+     * 
+     * @param fileBufferSize The size of the file buffer.
+     */
+    public UserSettings withFileBufferSize(int fileBufferSize) {
+        this.fileBufferSize = checkSize(fileBufferSize, "fileBufferSize");
+        return this;
+    }
+
+    /**
+     * Gets the number of columns space is initially reserved for.
+     * 
+     * @return The initial column count.
+     */
+    public int initialColumnCount() {
+        return initialColumnCount;
+    }
+
+    /**
+     * Sets the number of columns space is initially reserved for. Records with
+     * more columns grow the space as needed. Only takes effect before the first
+     * record is read. Default is 10.
+     * 
+     * @param initialColumnCount The initial column count.
+     */
+    public UserSettings withInitialColumnCount(int initialColumnCount) {
+        this.initialColumnCount = checkSize(initialColumnCount, "initialColumnCount");
+        return this;
+    }
+
+    /**
+     * Gets the initial size of the buffer holding column data that had to be
+     * copied out of the data buffer.
+     * 
+     * @return The initial column buffer size.
+     */
+    public int initialColumnBufferSize() {
+        return initialColumnBufferSize;
+    }
+
+    /**
+     * Sets the initial size of the buffer holding column data that had to be
+     * copied out of the data buffer, because it was escaped or spanned a refill
+     * of the data buffer. The buffer grows as needed. Only takes effect before
+     * the first record is read. Default is 50.
+     * 
+     * @param initialColumnBufferSize The initial column buffer size.
+     */
+    public UserSettings withInitialColumnBufferSize(int initialColumnBufferSize) {
+        this.initialColumnBufferSize = checkSize(initialColumnBufferSize, "initialColumnBufferSize");
+        return this;
+    }
+
+    /**
+     * Gets whether buffers are resized to follow the length of the records and
+     * columns read so far. Default is false.
+     * 
+     * @return Whether buffers are adaptively sized.
+     */
+    public boolean adaptiveBuffers() {
+        return adaptiveBuffers;
+    }
+
+    /**
+     * Sets whether buffers should be resized to follow the length of the
+     * records and columns read so far. The data buffer then grows to hold a
+     * number of average records, up to 1 MB, and the data, column and raw
+     * record buffers are shrunk back once an oversized record is no longer
+     * representative of the data. The configured sizes act as the minimums.
+     * Only takes effect before the first record is read. Default is false.
+     * 
+     * @param adaptiveBuffers Whether buffers should be adaptively sized.
+     */
+    public UserSettings withAdaptiveBuffers(boolean adaptiveBuffers) {
+        this.adaptiveBuffers = adaptiveBuffers;
+        return this;
+    }
+
+    /**
+     * Gets after how many smaller records buffers grown by a larger record are
+     * shrunk back.
+     *
+     * @return The number of records.
+     */
+    public int shrinkAfterRecords() {
+        return shrinkAfterRecords;
+    }
+
+    /**
+     * Sets how many records in a row have to fit in the initial buffer sizes
+     * before the column, raw record and byte stream buffers that grew for a
+     * larger record are shrunk back to those sizes, so that a single oversized
+     * record doesn't keep its memory for the rest of the reader's life. Use
+     * {@link Integer#MAX_VALUE} to never shrink them. Buffers that are
+     * adaptively sized follow the average record instead. Default is 1000.
+     *
+     * @param shrinkAfterRecords The number of records.
+     */
+    public UserSettings withShrinkAfterRecords(int shrinkAfterRecords) {
+        this.shrinkAfterRecords = checkSize(shrinkAfterRecords, "shrinkAfterRecords");
+        return this;
+    }
+
+    /**
+     * Gets whether reading a record only records where the columns are, and
+     * leaves unescaping them until they're requested. Default is false.
+     * 
+     * @return Whether columns are unescaped lazily.
+     */
+    public boolean lazyColumns() {
+        return lazyColumns;
+    }
+
+    /**
+     * Sets whether reading a record should only record where the columns are,
+     * including text qualified columns. A qualified column is then kept as it
+     * appears in the data and only unescaped the first time it's requested,
+     * so columns that are never requested cost nothing beyond the scan. Only
+     * applies to {@link main.java.com.csvreader.EscapeMode#DOUBLED DOUBLED}
+     * escaping, the byte parser always works this way. Default is false.
+     * 
+     * @param lazyColumns Whether columns should be unescaped lazily.
+     */
+    public UserSettings withLazyColumns(boolean lazyColumns) {
+        this.lazyColumns = lazyColumns;
+        return this;
+    }
+
+    /**
+     * Gets whether byte based data sources are read ahead on a thread of
+     * their own. Default is false.
+     * 
+     * @return Whether data is read ahead.
+     */
+    public boolean readAhead() {
+        return readAhead;
+    }
+
+    /**
+     * Sets whether files and {@link java.io.InputStream InputStream} data
+     * sources should be read ahead on a thread of their own, so that waiting
+     * for slow storage or a network happens while the data read before is
+     * parsed. One buffer is read ahead. Doesn't apply to memory mapped files,
+     * nor to compressed data, which is always inflated ahead. Only takes
+     * effect before the first record is read. Default is false.
+     * 
+     * @param readAhead Whether data should be read ahead.
+     */
+    public UserSettings withReadAhead(boolean readAhead) {
+        this.readAhead = readAhead;
+        return this;
+    }
+
+    /**
+     * Gets the length a column can have at most.
+     * 
+     * @return The maximum column length.
+     */
+    public int maxColumnLength() {
+        return maxColumnLength;
+    }
+
+    /**
+     * Sets the length a column can have at most, in characters, or in bytes
+     * when the data is parsed as bytes. Reading a longer column closes the
+     * reader and throws an {@link java.io.IOException IOException}. Unlike the
+     * safety switch, this applies however the switch is set. Default is no
+     * limit.
+     * 
+     * @param maxColumnLength The maximum column length.
+     */
+    public UserSettings withMaxColumnLength(int maxColumnLength) {
+        this.maxColumnLength = checkSize(maxColumnLength, "maxColumnLength");
+        return this;
+    }
+
+    /**
+     * Gets the length a record can have at most.
+     * 
+     * @return The maximum record length.
+     */
+    public int maxRecordLength() {
+        return maxRecordLength;
+    }
+
+    /**
+     * Sets the length a record can have at most, in characters, or in bytes
+     * when the data is parsed as bytes, not counting the record delimiter.
+     * Reading a longer record closes the reader and throws an
+     * {@link java.io.IOException IOException}, at the latest when the data
+     * buffer has to be refilled in the middle of it. Default is no limit.
+     * 
+     * @param maxRecordLength The maximum record length.
+     */
+    public UserSettings withMaxRecordLength(int maxRecordLength) {
+        this.maxRecordLength = checkSize(maxRecordLength, "maxRecordLength");
+        return this;
+    }
+
+    /**
+     * Gets how large the buffers of a reader can grow in total.
+     * 
+     * @return The maximum buffered length.
+     */
+    public int maxBufferedLength() {
+        return maxBufferedLength;
+    }
+
+    /**
+     * Sets how large the data, column and raw record buffers of a reader can
+     * grow in total, in characters, or in bytes when the data is parsed as
+     * bytes. A buffer that would have to grow beyond that closes the reader
+     * and throws an {@link java.io.IOException IOException} instead. Data in
+     * memory that is parsed in place doesn't count. Default is no limit.
+     * 
+     * @param maxBufferedLength The maximum buffered length.
+     */
+    public UserSettings withMaxBufferedLength(int maxBufferedLength) {
+        this.maxBufferedLength = checkSize(maxBufferedLength, "maxBufferedLength");
+        return this;
+    }
+
+    /**
+     * Gets whether readers and writers keep counters of what they do.
+     * 
+     * @return Whether metrics are kept.
+     */
+    public boolean metrics() {
+        return metrics;
+    }
+
+    /**
+     * Sets whether readers and writers keep counters of records, refills,
+     * buffer growth and of the time spent waiting for the data source or
+     * output stream, see {@link CsvReader#getMetrics()} and
+     * {@link CsvWriter#getMetrics()}. Default is false.
+     * 
+     * @param metrics Whether metrics should be kept.
+     */
+    public UserSettings withMetrics(boolean metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
+    /**
+     * Gets the factory of the threads that read ahead and inflate compressed
+     * data.
+     * 
+     * @return The thread factory.
+     */
+    public ThreadFactory threadFactory() {
+        return threadFactory != null ? threadFactory : BackgroundThreads.DEFAULT;
+    }
+
+    /**
+     * Sets the factory of the threads that read ahead and inflate compressed
+     * data, see {@link #withReadAhead(boolean)}. Default creates virtual
+     * threads when the JVM has them, and daemon threads otherwise.
+     * 
+     * @param threadFactory The thread factory.
+     */
+    public UserSettings withThreadFactory(ThreadFactory threadFactory) {
+        if (threadFactory == null) {
+            throw new IllegalArgumentException("Parameter threadFactory can not be null.");
+        }
+
+        this.threadFactory = threadFactory;
+        return this;
+    }
+
+    private static int checkSize(int size, String name) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Parameter " + name + " must be greater than zero.");
+        }
+
+        return size;
+    }
+
     private void updateTextQualifier(char newTextQualifier) {
         if (this.escapeMode == EscapeMode.BACKSLASH) {
             this.textQualifierEscaped = Letters.BACKSLASH + (this.textQualifierPattern = String.valueOf(this.textQualifier = newTextQualifier));
@@ -0,0 +1,109 @@
+package com.csvreader;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * The counters a {@link CsvWriter} keeps once
+ * {@link UserSettings#withMetrics(boolean)} is set, see
+ * {@link CsvWriter#getMetrics()}. Like {@link ReaderMetrics}, they are
+ * updated as the writer goes, only by the thread writing and with ordered
+ * writes, can be registered as an MXBean as they are and read from any thread,
+ * and {@link #snapshot()} gives a copy that stays the same.
+ * <p>
+ * Bytes and the time spent writing them can only be counted when the writer
+ * encodes the data itself, which it does when it's given a file name or an
+ * {@link java.io.OutputStream OutputStream}, not a
+ * {@link java.io.Writer Writer}.
+ */
+public final class WriterMetrics implements WriterMetricsMXBean {
+    private static final AtomicLongFieldUpdater<WriterMetrics> RECORDS = updater("records");
+    private static final AtomicLongFieldUpdater<WriterMetrics> FIELDS = updater("fields");
+    private static final AtomicLongFieldUpdater<WriterMetrics> BYTES_WRITTEN = updater("bytesWritten");
+    private static final AtomicLongFieldUpdater<WriterMetrics> FLUSHES = updater("flushes");
+    private static final AtomicLongFieldUpdater<WriterMetrics> WRITE_NANOS = updater("writeNanos");
+
+    private volatile long records = 0;
+    private volatile long fields = 0;
+    private volatile long bytesWritten = 0;
+    private volatile long flushes = 0;
+    private volatile long writeNanos = 0;
+
+    WriterMetrics() {
+    }
+
+    /**
+     * Copies the counters as they are now.
+     *
+     * @return A copy of the counters.
+     */
+    public WriterMetrics snapshot() {
+        WriterMetrics snapshot = new WriterMetrics();
+
+        snapshot.records = records;
+        snapshot.fields = fields;
+        snapshot.bytesWritten = bytesWritten;
+        snapshot.flushes = flushes;
+        snapshot.writeNanos = writeNanos;
+
+        return snapshot;
+    }
+
+    @Override
+    public long getRecords() {
+        return records;
+    }
+
+    @Override
+    public long getFields() {
+        return fields;
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    @Override
+    public long getFlushes() {
+        return flushes;
+    }
+
+    @Override
+    public long getWriteNanos() {
+        return writeNanos;
+    }
+
+    void recordWritten() {
+        add(RECORDS, 1);
+    }
+
+    void fieldWritten() {
+        add(FIELDS, 1);
+    }
+
+    void flushed() {
+        add(FLUSHES, 1);
+    }
+
+    /**
+     * Counts what was handed to the output stream.
+     *
+     * @param started When the stream was handed the bytes.
+     * @param count   The number of bytes.
+     */
+    void written(long started, int count) {
+        add(WRITE_NANOS, System.nanoTime() - started);
+        add(BYTES_WRITTEN, count);
+    }
+
+    /**
+     * Adds to a counter, see {@link ReaderMetrics}.
+     */
+    private void add(AtomicLongFieldUpdater<WriterMetrics> counter, long amount) {
+        counter.lazySet(this, counter.get(this) + amount);
+    }
+
+    private static AtomicLongFieldUpdater<WriterMetrics> updater(String fieldName) {
+        return AtomicLongFieldUpdater.newUpdater(WriterMetrics.class, fieldName);
+    }
+}
@@ -0,0 +1,34 @@
+package com.csvreader;
+
+/**
+ * The counters of a {@link CsvWriter} as seen through JMX, see
+ * {@link WriterMetrics}. Times are in nanoseconds.
+ */
+public interface WriterMetricsMXBean {
+    /**
+     * Gets the number of records ended.
+     */
+    long getRecords();
+
+    /**
+     * Gets the number of columns written.
+     */
+    long getFields();
+
+    /**
+     * Gets the number of bytes handed to the output stream, which is only
+     * counted when the writer encodes the data itself.
+     */
+    long getBytesWritten();
+
+    /**
+     * Gets how often the writer was flushed.
+     */
+    long getFlushes();
+
+    /**
+     * Gets the time spent waiting for the output stream to take data or to
+     * flush, which is only measured when the writer encodes the data itself.
+     */
+    long getWriteNanos();
+}
@@ -1,5 +1,40 @@
 package com.csvreader;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
@@ -14,6 +49,88 @@ class CsvReaderTest {
         return buffer.toString();
     }
 
+    private static String generateData(long seed, int length) {
+        String[] pieces = { "a", "bc", "\u00e9", "\u20ac", ",", ",", "\"", "\"\"", "\r", "\n", "\r\n", " ", "\t",
+                "#", ";" };
+        Random random = new Random(seed);
+        StringBuilder buffer = new StringBuilder(length);
+        while (buffer.length() < length) {
+            buffer.append(pieces[random.nextInt(pieces.length)]);
+        }
+        return buffer.toString();
+    }
+
+    private static String generateEscapedData(long seed, int length) {
+        String[] pieces = { "a", "bc", "\u20ac", ",", "\"", "\r\n", "\n", " ", "#", "\\", "\\\\", "\\n", "\\t",
+                "\\\"", "\\x4", "\\u00e", "\\d06", "\\o1", "\\12", "7", "F", "\\q" };
+        Random random = new Random(seed);
+        StringBuilder buffer = new StringBuilder(length);
+        while (buffer.length() < length) {
+            buffer.append(pieces[random.nextInt(pieces.length)]);
+        }
+        return buffer.toString();
+    }
+
+    private static void addRecords(CRC32 checksum, String data, Consumer<CsvReader> configure) throws Exception {
+        byte[] bytes = data.getBytes(StandardCharsets.UTF_8);
+        try (CsvReader reader = new CsvReader(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8)) {
+            configure.accept(reader);
+            while (reader.readRecord()) {
+                StringBuilder record = new StringBuilder().append(reader.getCurrentRecord()).append('\0')
+                        .append(reader.getRawRecord());
+                for (int i = 0; i < reader.getColumnCount(); i++) {
+                    record.append('\0').append(reader.isQualified(i)).append(reader.get(i)).append('\0')
+                            .append(reader.getCharSequence(i));
+                }
+                checksum.update(record.toString().getBytes(StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    private static void assertSameAsCharParser(String data, Charset charset, Consumer<CsvReader> configure)
+            throws Exception {
+        assertSameRecords(data, charset, configure, reader -> reader.userSettings().withByteParsing(true));
+    }
+
+    private static void assertSameRecords(String data, Charset charset, Consumer<CsvReader> configure,
+            Consumer<CsvReader> configureActual) throws Exception {
+        byte[] bytes = data.getBytes(charset);
+        try (CsvReader expected = new CsvReader(new ByteArrayInputStream(bytes), charset);
+                CsvReader actual = new CsvReader(new ByteArrayInputStream(bytes), charset)) {
+            configure.accept(expected);
+            configure.accept(actual);
+            configureActual.accept(actual);
+
+            assertSameRecords(expected, actual);
+        }
+    }
+
+    private static void assertSameRecords(CsvReader expected, CsvReader actual) throws Exception {
+        boolean hasRecord;
+        do {
+            hasRecord = expected.readRecord();
+            Assertions.assertEquals(hasRecord, actual.readRecord());
+            Assertions.assertEquals(expected.getCurrentRecord(), actual.getCurrentRecord());
+            Assertions.assertEquals(expected.getColumnCount(), actual.getColumnCount());
+            Assertions.assertEquals(expected.getRawRecord(), actual.getRawRecord());
+            for (int i = 0; i < expected.getColumnCount(); i++) {
+                Assertions.assertEquals(expected.get(i), actual.getCharSequence(i).toString());
+                Assertions.assertEquals(expected.get(i), actual.get(i));
+                Assertions.assertEquals(expected.isQualified(i), actual.isQualified(i));
+            }
+        } while (hasRecord);
+    }
+
+    private static void splitAll(Spliterator<String[]> spliterator, List<String> records) {
+        Spliterator<String[]> prefix = spliterator.trySplit();
+        if (prefix != null) {
+            splitAll(prefix, records);
+            splitAll(spliterator, records);
+        } else {
+            spliterator.forEachRemaining(values -> records.add(String.join("|", values)));
+        }
+    }
+
     @BeforeAll
     static void setup() {
         // this library was developed in Window
@@ -548,4 +665,1978 @@ class CsvReaderTest {
         Assertions.assertFalse(reader.readRecord());
         reader.close();
     }
+
+    @Test
+    void test175() throws Exception {
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream("mapped.csv"), StandardCharsets.UTF_8)) {
+            writer.write("id,name\r\n1,\"Zoë, \"\"the\"\" one\"\r\n2,Ünal\n");
+        }
+
+        try (CsvReader reader = new CsvReader("mapped.csv", ',', StandardCharsets.UTF_8)) {
+            reader.userSettings().withMemoryMapping(true);
+            Assertions.assertTrue(reader.readHeaders());
+            Assertions.assertTrue(reader.readRecord());
+            Assertions.assertEquals("1", reader.get("id"));
+            Assertions.assertEquals("Zoë, \"the\" one", reader.get("name"));
+            Assertions.assertEquals("1,\"Zoë, \"\"the\"\" one\"", reader.getRawRecord());
+            Assertions.assertTrue(reader.readRecord());
+            Assertions.assertEquals("Ünal", reader.get(1));
+            Assertions.assertEquals(1L, reader.getCurrentRecord());
+            Assertions.assertFalse(reader.readRecord());
+        } finally {
+            new File("mapped.csv").delete();
+        }
+    }
+
+    @Test
+    void test176() throws Exception {
+        // multi byte characters straddling the window boundaries
+        String data = generateString('\u00e9', 50) + "," + generateString('\u20ac', 50) + "\r\n";
+
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream("mapped.csv"), StandardCharsets.UTF_8)) {
+            writer.write(data);
+        }
+
+        try (MappedFileReader mapped = new MappedFileReader("mapped.csv", StandardCharsets.UTF_8, 17)) {
+            Assertions.assertEquals(253L, mapped.size());
+
+            StringBuilder read = new StringBuilder();
+            char[] buffer = new char[7];
+            int count;
+
+            while ((count = mapped.read(buffer, 0, buffer.length)) != -1) {
+                read.append(buffer, 0, count);
+            }
+
+            Assertions.assertEquals(data, read.toString());
+        } finally {
+            new File("mapped.csv").delete();
+        }
+    }
+
+    @Test
+    void test177() throws Exception {
+        new File("mapped.csv").createNewFile();
+
+        try (CsvReader reader = new CsvReader("mapped.csv")) {
+            reader.userSettings().withMemoryMapping(true);
+            Assertions.assertFalse(reader.readRecord());
+        } finally {
+            new File("mapped.csv").delete();
+        }
+    }
+
+    @Test
+    void test178() throws Exception {
+        String data = "user_id,name\r\n1,\"Zo\u00eb, \"\"the\"\" one\"\r\n\r\n 2 ,  \u00dcnal\t\n\"3\" junk,\"\"\n4,\"open";
+        byte[] bytes = data.getBytes(StandardCharsets.UTF_8);
+
+        try (CsvReader reader = new CsvReader(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8)) {
+            reader.userSettings().withByteParsing(true);
+            Assertions.assertTrue(reader.readHeaders());
+            Assertions.assertEquals("user_id,name", reader.getRawRecord());
+            Assertions.assertTrue(reader.readRecord());
+            Assertions.assertEquals("1", reader.get("user_id"));
+            Assertions.assertEquals("Zo\u00eb, \"the\" one", reader.get("name"));
+            Assertions.assertTrue(reader.isQualified(1));
+            Assertions.assertTrue(reader.readRecord());
+            Assertions.assertEquals(1L, reader.getCurrentRecord());
+            Assertions.assertArrayEquals(new String[] { "2", "\u00dcnal" }, reader.getValues());
+            Assertions.assertEquals(" 2 ,  \u00dcnal\t", reader.getRawRecord());
+            Assertions.assertTrue(reader.readRecord());
+            Assertions.assertEquals("3", reader.get(0));
+            Assertions.assertEquals("", reader.get(1));
+            Assertions.assertTrue(reader.readRecord());
+            Assertions.assertEquals("4", reader.get(0));
+            Assertions.assertEquals("open", reader.get(1));
+            Assertions.assertFalse(reader.readRecord());
+        }
+    }
+
+    @Test
+    void test179() throws Exception {
+        for (long seed = 0; seed < 50; seed++) {
+            String data = generateData(seed, 2000);
+
+            assertSameAsCharParser(data, StandardCharsets.UTF_8, reader -> {
+            });
+            assertSameAsCharParser(data, StandardCharsets.ISO_8859_1, reader -> {
+                reader.userSettings().withTrimWhitespace(false);
+                reader.setSkipEmptyRecords(false);
+            });
+            assertSameAsCharParser(data, StandardCharsets.UTF_8, reader -> {
+                reader.setUseComments(true);
+                reader.setRecordDelimiter(';');
+            });
+            assertSameAsCharParser(data, StandardCharsets.UTF_8, reader -> {
+                reader.setUseTextQualifier(false);
+                reader.setUseComments(true);
+            });
+        }
+    }
+
+    @Test
+    void test180() throws Exception {
+        // records spanning several buffer refills
+        assertSameAsCharParser(generateData(42, 500000), StandardCharsets.UTF_8, reader -> {
+        });
+        assertSameAsCharParser("\"" + generateString('a', 90000) + "\"\"\",x\r\n" + generateString('b', 90000),
+                StandardCharsets.UTF_8, reader -> {
+                });
+    }
+
+    @Test
+    void test181() throws Exception {
+        String data = generateData(7, 300000);
+
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream("mapped.csv"), StandardCharsets.UTF_8)) {
+            writer.write(data);
+        }
+
+        try (CsvReader expected = CsvReader.parse(data);
+                CsvReader actual = new CsvReader("mapped.csv", ',', StandardCharsets.UTF_8)) {
+            actual.userSettings().withByteParsing(true).withMemoryMapping(true);
+
+            while (expected.readRecord()) {
+                Assertions.assertTrue(actual.readRecord());
+                Assertions.assertArrayEquals(expected.getValues(), actual.getValues());
+                Assertions.assertEquals(expected.getRawRecord(), actual.getRawRecord());
+            }
+
+            Assertions.assertFalse(actual.readRecord());
+        } finally {
+            new File("mapped.csv").delete();
+        }
+    }
+
+    @Test
+    void test182() throws Exception {
+        // indented comment lines used to leave a column started, which turned
+        // the comment into a record
+        CsvReader reader = CsvReader.parse("\t#comment\r\n1");
+        reader.setUseComments(true);
+        Assertions.assertTrue(reader.readRecord());
+        Assertions.assertEquals("1", reader.get(0));
+        Assertions.assertEquals(0L, reader.getCurrentRecord());
+        Assertions.assertEquals(1, reader.getColumnCount());
+        Assertions.assertEquals("1", reader.getRawRecord());
+        Assertions.assertFalse(reader.readRecord());
+        reader.close();
+    }
+
+    @Test
+    void test183() throws Exception {
+        Consumer<CsvReader> tinyBuffers = reader -> reader.userSettings().withBufferSize(3).withFileBufferSize(5)
+                .withInitialColumnCount(1).withInitialColumnBufferSize(1);
+
+        for (long seed = 0; seed < 20; seed++) {
+            String data = generateData(seed, 2000);
+
+            assertSameRecords(data, StandardCharsets.UTF_8, reader -> {
+            }, tinyBuffers);
+            assertSameRecords(data, StandardCharsets.UTF_8, reader -> {
+            }, tinyBuffers.andThen(reader -> reader.userSettings().withByteParsing(true)));
+        }
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new UserSettings().withBufferSize(0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new UserSettings().withInitialColumnCount(-1));
+    }
+
+    @Test
+    void test184() throws Exception {
+        // a huge record between short ones makes the buffers grow and then
+        // shrink back again
+        String data = generateData(3, 20000) + "\r\n\"" + generateString('a', 200000) + "\",b\r\n"
+                + generateData(4, 200000);
+
+        Consumer<CsvReader> adaptive = reader -> reader.userSettings().withAdaptiveBuffers(true);
+
+        assertSameRecords(data, StandardCharsets.UTF_8, reader -> {
+        }, adaptive);
+        assertSameRecords(data, StandardCharsets.UTF_8, reader -> {
+        }, adaptive.andThen(reader -> reader.userSettings().withByteParsing(true)));
+    }
+    @Test
+    void test185() throws Exception {
+        String data = "\"bob said, \"\"Hey!\"\"\",2, 3 ,\u00e9t\u00e9\r\nname,\"\",,last";
+
+        for (int bufferSize : new int[] { 3, 1024 }) {
+            for (boolean byteParsing : new boolean[] { false, true }) {
+                CsvReader reader = new CsvReader(new ByteArrayInputStream(data.getBytes(StandardCharsets.UTF_8)),
+                        StandardCharsets.UTF_8);
+                reader.userSettings().withBufferSize(bufferSize).withByteParsing(byteParsing);
+
+                Assertions.assertTrue(reader.readRecord());
+                CharSequence first = reader.getCharSequence(0);
+                Assertions.assertEquals(16, first.length());
+                Assertions.assertEquals('b', first.charAt(0));
+                Assertions.assertEquals("\"Hey!\"", first.subSequence(10, 16).toString());
+                Assertions.assertEquals("bob said, \"Hey!\"", first.toString());
+                Assertions.assertEquals("2", reader.getCharSequence(1).toString());
+                Assertions.assertEquals("3", reader.getCharSequence(2).toString());
+                Assertions.assertEquals("\u00e9t\u00e9", reader.getCharSequence(3).toString());
+                Assertions.assertEquals("", reader.getCharSequence(4).toString());
+                Assertions.assertThrows(IndexOutOfBoundsException.class, () -> first.charAt(16));
+
+                Assertions.assertTrue(reader.readRecord());
+                Assertions.assertEquals("name", reader.getCharSequence(0).toString());
+                Assertions.assertEquals(0, reader.getCharSequence(1).length());
+                Assertions.assertEquals(0, reader.getCharSequence(2).length());
+                Assertions.assertEquals("last", reader.getCharSequence(3).toString());
+                Assertions.assertEquals("name", reader.get(0));
+                Assertions.assertFalse(reader.readRecord());
+                reader.close();
+            }
+        }
+    }
+
+    @Test
+    void test186() throws Exception {
+        CsvReader reader = CsvReader.parse("id,name\r\n1,\"a\\\"b\"\r\n");
+        reader.userSettings().withEscapeMode(EscapeMode.BACKSLASH);
+        Assertions.assertTrue(reader.readHeaders());
+        Assertions.assertTrue(reader.readRecord());
+        Assertions.assertTrue("1".contentEquals(reader.getCharSequence("id")));
+        Assertions.assertEquals("a\"b", reader.getCharSequence("name").toString());
+        Assertions.assertEquals("", reader.getCharSequence("missing").toString());
+        reader.close();
+        Assertions.assertThrows(IOException.class, () -> reader.getCharSequence(0));
+    }
+
+    @Test
+    void test187() throws Exception {
+        Consumer<CsvReader> lazy = reader -> reader.userSettings().withLazyColumns(true);
+
+        for (long seed = 0; seed < 50; seed++) {
+            String data = generateData(seed, 2000);
+
+            assertSameRecords(data, StandardCharsets.UTF_8, reader -> {
+            }, lazy);
+            assertSameRecords(data, StandardCharsets.UTF_8, reader -> reader.userSettings().withBufferSize(5),
+                    lazy);
+            assertSameRecords(data, StandardCharsets.UTF_8, reader -> {
+                reader.userSettings().withTrimWhitespace(false);
+                reader.setUseComments(true);
+                reader.setRecordDelimiter(';');
+            }, lazy);
+            assertSameRecords(data, StandardCharsets.UTF_8,
+                    reader -> reader.userSettings().withEscapeMode(EscapeMode.BACKSLASH), lazy);
+        }
+
+        CsvReader reader = CsvReader.parse("\"a\"\"b\"junk,\"c\"\"\"\r\n\"unclosed\"\"");
+        reader.userSettings().withLazyColumns(true);
+        Assertions.assertTrue(reader.readRecord());
+        Assertions.assertEquals("a\"b", reader.getCharSequence(0).toString());
+        Assertions.assertEquals("c\"", reader.get(1));
+        Assertions.assertTrue(reader.isQualified(1));
+        Assertions.assertTrue(reader.readRecord());
+        Assertions.assertEquals("unclosed\"", reader.get(0));
+        Assertions.assertFalse(reader.readRecord());
+        reader.close();
+    }
+
+    @Test
+    void test188() throws Exception {
+        int[] projection = { 3, 0, 7 };
+
+        for (long seed = 0; seed < 30; seed++) {
+            byte[] bytes = generateData(seed, 2000).getBytes(StandardCharsets.UTF_8);
+
+            for (int variant = 0; variant < 3; variant++) {
+                try (CsvReader expected = new CsvReader(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8);
+                        CsvReader actual = new CsvReader(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8)) {
+                    actual.userSettings().withBufferSize(7).withByteParsing(variant == 1)
+                            .withLazyColumns(variant == 2);
+                    actual.setProjection(projection);
+
+                    boolean hasRecord;
+                    do {
+                        hasRecord = expected.readRecord();
+                        Assertions.assertEquals(hasRecord, actual.readRecord());
+                        Assertions.assertEquals(expected.getCurrentRecord(), actual.getCurrentRecord());
+                        Assertions.assertEquals(expected.getRawRecord(), actual.getRawRecord());
+                        Assertions.assertEquals(hasRecord ? projection.length : 0, actual.getColumnCount());
+                        for (int i = 0; i < actual.getColumnCount(); i++) {
+                            Assertions.assertEquals(expected.get(projection[i]), actual.getCharSequence(i).toString());
+                            Assertions.assertEquals(expected.get(projection[i]), actual.get(i));
+                            Assertions.assertEquals(expected.isQualified(projection[i]), actual.isQualified(i));
+                        }
+                    } while (hasRecord);
+                }
+            }
+        }
+    }
+
+    @Test
+    void test189() throws Exception {
+        CsvReader reader = CsvReader.parse("id,name,\"city\",zip\r\n1,\"Bob\",\" Paris \",75001\r\n2,Sue\r\n");
+        Assertions.assertTrue(reader.readHeaders());
+        reader.setProjection("zip", "name");
+        Assertions.assertEquals(1, reader.getIndex("name"));
+        Assertions.assertEquals(-1, reader.getIndex("city"));
+        Assertions.assertTrue(reader.readRecord());
+        Assertions.assertEquals(2, reader.getColumnCount());
+        Assertions.assertArrayEquals(new String[] { "75001", "Bob" }, reader.getValues());
+        Assertions.assertEquals("Bob", reader.get("name"));
+        Assertions.assertEquals("", reader.get("city"));
+        Assertions.assertTrue(reader.isQualified(1));
+        Assertions.assertTrue(reader.readRecord());
+        Assertions.assertArrayEquals(new String[] { "", "Sue" }, reader.getValues());
+        Assertions.assertEquals("id", reader.getHeader(0));
+        Assertions.assertFalse(reader.readRecord());
+        reader.clearProjection();
+        Assertions.assertEquals(2, reader.getIndex("city"));
+        reader.close();
+
+        CsvReader other = CsvReader.parse("1,2");
+        Assertions.assertThrows(IllegalArgumentException.class, () -> other.setProjection("missing"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> other.setProjection(1, -1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> other.setProjection(1, 1));
+        other.close();
+    }
+    @Test
+    void test190() throws Exception {
+        String data = "id,amount,price,active\r\n"
+                + "42, -9223372036854775808 ,\" 3.25 \",TRUE\r\n"
+                + "-2147483648,9223372036854775807,1e-5,false\r\n"
+                + "2147483648,12x,abc,yes\r\n";
+
+        for (boolean byteParsing : new boolean[] { false, true }) {
+            CsvReader reader = new CsvReader(new ByteArrayInputStream(data.getBytes(StandardCharsets.UTF_8)),
+                    StandardCharsets.UTF_8);
+            reader.userSettings().withByteParsing(byteParsing);
+            Assertions.assertTrue(reader.readHeaders());
+
+            Assertions.assertTrue(reader.readRecord());
+            Assertions.assertEquals(42, reader.getInt("id"));
+            Assertions.assertEquals(Long.MIN_VALUE, reader.getLong(1));
+            Assertions.assertEquals(3.25, reader.getDouble("price"));
+            Assertions.assertTrue(reader.getBoolean(3));
+
+            Assertions.assertTrue(reader.readRecord());
+            Assertions.assertEquals(Integer.MIN_VALUE, reader.getInt(0));
+            Assertions.assertEquals(Long.MAX_VALUE, reader.getLong("amount"));
+            Assertions.assertEquals(1e-5, reader.getDouble(2));
+            Assertions.assertFalse(reader.getBoolean("active"));
+
+            Assertions.assertTrue(reader.readRecord());
+            NumberFormatException ex = Assertions.assertThrows(NumberFormatException.class, () -> reader.getInt(0));
+            Assertions.assertEquals("Value \"2147483648\" in column 0 in record 2 is not a valid int.",
+                    ex.getMessage());
+            Assertions.assertThrows(NumberFormatException.class, () -> reader.getLong(1));
+            Assertions.assertThrows(NumberFormatException.class, () -> reader.getDouble(2));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> reader.getBoolean(3));
+            Assertions.assertThrows(NumberFormatException.class, () -> reader.getInt(9));
+            Assertions.assertFalse(reader.readRecord());
+            reader.close();
+        }
+
+        CsvReader reader = CsvReader.parse("\" 7\"");
+        reader.userSettings().withTrimWhitespace(false);
+        Assertions.assertTrue(reader.readRecord());
+        Assertions.assertThrows(NumberFormatException.class, () -> reader.getInt(0));
+        reader.close();
+    }
+
+    @Test
+    void test191() throws Exception {
+        Random random = new Random(1);
+        StringBuilder data = new StringBuilder();
+        String[] specials = { "NaN", "-Infinity", "1.5d", "0x1p3", "-0", "0.", ".5", "1e400", "4.9e-324",
+                "123456789012345678901234", "9007199254740993", "1E22", "1e23", "00012.50" };
+
+        for (String special : specials) {
+            data.append(special).append("\r\n");
+        }
+
+        for (int i = 0; i < 2000; i++) {
+            double value = random.nextInt(4) == 0 ? random.nextGaussian() * 1e6
+                    : Math.round(random.nextDouble() * 1e6) / 100.0;
+            data.append(random.nextBoolean() ? Double.toString(value) : String.valueOf((float) value))
+                    .append("\r\n");
+        }
+
+        CsvReader reader = CsvReader.parse(data.toString());
+        while (reader.readRecord()) {
+            Assertions.assertEquals(Double.doubleToLongBits(Double.parseDouble(reader.get(0))),
+                    Double.doubleToLongBits(reader.getDouble(0)), reader.get(0));
+        }
+        reader.close();
+    }
+    @Test
+    void test192() throws Exception {
+        // long runs of plain letters between the special ones, so that whole
+        // words get skipped at every alignment
+        Random random = new Random(5);
+        for (long seed = 0; seed < 20; seed++) {
+            StringBuilder data = new StringBuilder();
+
+            for (int i = 0; i < 40; i++) {
+                data.append(generateData(seed * 100 + i, 20));
+                data.append(generateString('x', random.nextInt(40)));
+            }
+
+            assertSameAsCharParser(data.toString(), StandardCharsets.UTF_8, reader -> {
+            });
+            assertSameAsCharParser(data.toString(), StandardCharsets.ISO_8859_1, reader -> {
+                reader.setRecordDelimiter(';');
+            });
+            assertSameRecords(data.toString(), StandardCharsets.UTF_8, reader -> {
+            }, reader -> reader.userSettings().withBufferSize(13));
+        }
+
+        for (boolean byteParsing : new boolean[] { false, true }) {
+            for (String data : new String[] { generateString('a', 100010), "\"" + generateString('a', 100010) + "\"" }) {
+                CsvReader reader = new CsvReader(new ByteArrayInputStream(data.getBytes(StandardCharsets.UTF_8)),
+                        StandardCharsets.UTF_8);
+                reader.userSettings().withByteParsing(byteParsing);
+                IOException ex = Assertions.assertThrows(IOException.class, reader::readRecord);
+                Assertions.assertTrue(ex.getMessage().startsWith("Maximum column length of 100,000 exceeded in column 0 in record 0."));
+            }
+        }
+    }
+
+    @Test
+    void test193() throws Exception {
+        // what backslash escapes give, also when cut off or invalid
+        String[][] cases = { { "a\\nb,\"c\\td\"", "a\\nb|c\td" },
+                { "\\\\,\"\\\\\",\\\"", "\\\\|\\|\\\"" },
+                { "\"\\x41\\x4a2\",\"\\x4g\"", "AJ2|P" },
+                { "\"\\u00e9\\u20ACx\",\"\\u00E\"", "\u00e9\u20acx|\u00d2" },
+                { "\"\\d065\\d06\",\"\\d6\"", "A.," },
+                { "\"\\o101\\o1\",\"\\101\\12\",\"\\0\"", "A\uffccAB|" },
+                { "\"\\q\\e\\a\\f\\v\\b\\r\\n\\t\"", "q\u001b\u0007\f\u000b\b\r\n\t" },
+                { "\"a\\\"b\",\"c\"\"d\"", "a\"b|c" },
+                { "\"a\\\nb\",c\\\nd", "a\nb|c\\", "d" },
+                { "\"end\\", "end" },
+                { "\"\\x4", "" } };
+
+        for (String[] test : cases) {
+            for (int bufferSize : new int[] { 1, 2, 3, 5, 1024 }) {
+                CsvReader reader = new CsvReader(new StringReader(test[0]));
+                reader.userSettings().withEscapeMode(EscapeMode.BACKSLASH).withBufferSize(bufferSize);
+                for (int i = 1; i < test.length; i++) {
+                    Assertions.assertTrue(reader.readRecord());
+                    Assertions.assertEquals(test[i], String.join("|", reader.getValues()), test[0]);
+                }
+                Assertions.assertFalse(reader.readRecord());
+                reader.close();
+            }
+        }
+
+        // checksums of the records that the generic parser, which the
+        // specialized ones replaced, read from the random data with each of
+        // the settings below
+        CRC32[] checksums = { new CRC32(), new CRC32(), new CRC32(), new CRC32() };
+
+        for (long seed = 0; seed < 50; seed++) {
+            boolean useTextQualifier = seed % 2 == 0;
+            String data = generateEscapedData(seed, 2000);
+
+            addRecords(checksums[0], data, reader -> reader.userSettings().withEscapeMode(EscapeMode.BACKSLASH));
+            addRecords(checksums[1], data, reader -> {
+                reader.userSettings().withEscapeMode(EscapeMode.BACKSLASH).withBufferSize(5).withLazyColumns(true);
+                reader.setUseTextQualifier(useTextQualifier);
+            });
+            addRecords(checksums[2], data, reader -> {
+                reader.userSettings().withEscapeMode(EscapeMode.BACKSLASH).withTrimWhitespace(false);
+                reader.setUseComments(true);
+                reader.setRecordDelimiter(';');
+            });
+            addRecords(checksums[3], data, reader -> {
+                reader.userSettings().withEscapeMode(EscapeMode.BACKSLASH).withBufferSize(3);
+                reader.setSkipEmptyRecords(false);
+                reader.setUseComments(true);
+                reader.setUseTextQualifier(useTextQualifier);
+                reader.setProjection(2, 0);
+            });
+
+            // doubled escapes are checked against the byte parser
+            data = generateData(seed, 2000);
+            assertSameAsCharParser(data, StandardCharsets.UTF_8, reader -> {
+                reader.userSettings().withBufferSize(5).withLazyColumns(true);
+                reader.setUseTextQualifier(useTextQualifier);
+            });
+            assertSameAsCharParser(data, StandardCharsets.UTF_8, reader -> {
+                reader.userSettings().withBufferSize(3);
+                reader.setSkipEmptyRecords(false);
+                reader.setUseComments(true);
+                reader.setUseTextQualifier(useTextQualifier);
+                reader.setProjection(2, 0);
+            });
+        }
+
+        Assertions.assertEquals(0x2b2df36bL, checksums[0].getValue());
+        Assertions.assertEquals(0x50084e99L, checksums[1].getValue());
+        Assertions.assertEquals(0x9b28e385L, checksums[2].getValue());
+        Assertions.assertEquals(0x0a3b5c01L, checksums[3].getValue());
+    }
+
+    @Test
+    void test194() throws Exception {
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        try {
+            for (long seed = 0; seed < 20; seed++) {
+                String data = generateData(seed, 3000);
+
+                try (Writer writer = new OutputStreamWriter(new FileOutputStream("parallel.csv"),
+                        StandardCharsets.UTF_8)) {
+                    writer.write(data);
+                }
+
+                for (int variant = 0; variant < 6; variant++) {
+                    List<String> expected = new ArrayList<String>();
+                    try (CsvReader reader = new CsvReader("parallel.csv", ',', StandardCharsets.UTF_8)) {
+                        reader.userSettings().withByteParsing(variant == 1)
+                                .withEscapeMode(variant == 2 ? EscapeMode.BACKSLASH : EscapeMode.DOUBLED);
+                        reader.setUseComments(variant == 3);
+                        reader.setUseTextQualifier(variant != 4);
+                        if (variant == 5) {
+                            reader.setRecordDelimiter(';');
+                        }
+                        while (reader.readRecord()) {
+                            expected.add(reader.getCurrentRecord() + String.join("|", reader.getValues()));
+                        }
+                    }
+
+                    ParallelCsvReader reader = new ParallelCsvReader("parallel.csv", ',', StandardCharsets.UTF_8);
+                    reader.userSettings().withByteParsing(variant == 1)
+                            .withEscapeMode(variant == 2 ? EscapeMode.BACKSLASH : EscapeMode.DOUBLED);
+                    reader.userSettings().useComments = variant == 3;
+                    reader.userSettings().useTextQualifier = variant != 4;
+                    if (variant == 5) {
+                        reader.setRecordDelimiter(';');
+                    }
+                    reader.setPool(pool);
+                    reader.setChunkSize(1 + (int) seed * 50);
+
+                    List<String> actual = new ArrayList<String>();
+                    Assertions.assertEquals(expected.size(), reader.forEach(
+                            (recordNumber, values) -> actual.add(recordNumber + String.join("|", values))));
+                    Assertions.assertEquals(expected, actual);
+
+                    List<String> unordered = Collections.synchronizedList(new ArrayList<String>());
+                    reader.setOrdered(false);
+                    reader.forEach((recordNumber, values) -> unordered.add(recordNumber + String.join("|", values)));
+                    Collections.sort(unordered);
+                    Collections.sort(expected);
+                    Assertions.assertEquals(expected, unordered);
+                }
+            }
+
+            ParallelCsvReader reader = new ParallelCsvReader("parallel.csv");
+            Assertions.assertThrows(IllegalArgumentException.class, () -> reader.setChunkSize(0));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> reader.forEach(null));
+            Assertions.assertThrows(FileNotFoundException.class, () -> new ParallelCsvReader("missing.csv"));
+        } finally {
+            pool.shutdown();
+            new File("parallel.csv").delete();
+        }
+    }
+
+    @Test
+    void test195() throws Exception {
+        try {
+            for (long seed = 0; seed < 10; seed++) {
+                try (Writer writer = new OutputStreamWriter(new FileOutputStream("indexed.csv"),
+                        StandardCharsets.UTF_8)) {
+                    writer.write(generateData(seed, 5000));
+                }
+
+                List<String> expected = new ArrayList<String>();
+                try (CsvReader reader = new CsvReader("indexed.csv", ',', StandardCharsets.UTF_8)) {
+                    while (reader.readRecord()) {
+                        expected.add(String.join("|", reader.getValues()));
+                    }
+                }
+
+                ParallelCsvReader builder = new ParallelCsvReader("indexed.csv", ',', StandardCharsets.UTF_8);
+                builder.setChunkSize(64);
+                CsvIndex index = builder.buildIndex(3);
+                Assertions.assertEquals(expected.size(), index.getRecordCount());
+                index.write(CsvIndex.sidecarFileName("indexed.csv"));
+
+                Random random = new Random(seed);
+                for (int variant = 0; variant < 3; variant++) {
+                    try (CsvReader reader = new CsvReader("indexed.csv", ',', StandardCharsets.UTF_8)) {
+                        reader.userSettings().withByteParsing(variant == 1).withMemoryMapping(variant == 2);
+                        for (int i = 0; i < 20; i++) {
+                            int record = random.nextInt(expected.size() + 2);
+                            reader.seekToRecord(record);
+                            if (record < expected.size()) {
+                                Assertions.assertTrue(reader.readRecord());
+                                Assertions.assertEquals(record, reader.getCurrentRecord());
+                                Assertions.assertEquals(expected.get(record), String.join("|", reader.getValues()));
+                            } else {
+                                Assertions.assertFalse(reader.readRecord());
+                            }
+                        }
+                    }
+                }
+
+                try (CsvReader reader = new CsvReader("indexed.csv", ',', StandardCharsets.UTF_8)) {
+                    reader.readHeaders();
+                    reader.seekToRecord(expected.size() - 2);
+                    Assertions.assertTrue(reader.readRecord());
+                    Assertions.assertEquals(expected.size() - 2, reader.getCurrentRecord());
+                    Assertions.assertEquals(expected.get(expected.size() - 1), String.join("|", reader.getValues()));
+                }
+
+                try (CsvReader reader = new CsvReader("indexed.csv", ',', StandardCharsets.UTF_8)) {
+                    reader.setUseComments(true);
+                    Assertions.assertThrows(IOException.class, () -> reader.seekToRecord(1));
+                }
+            }
+
+            CsvReader reader = CsvReader.parse("a\nb\nc");
+            Assertions.assertThrows(IOException.class, () -> reader.seekToRecord(1));
+            Assertions.assertThrows(IOException.class, () -> CsvIndex.read("indexed.csv"));
+        } finally {
+            new File("indexed.csv").delete();
+            new File(CsvIndex.sidecarFileName("indexed.csv")).delete();
+        }
+    }
+
+    @Test
+    void test196() throws Exception {
+        try {
+            for (long seed = 0; seed < 20; seed++) {
+                try (Writer writer = new OutputStreamWriter(new FileOutputStream("stream.csv"),
+                        StandardCharsets.UTF_8)) {
+                    writer.write(generateData(seed, 3000));
+                }
+
+                for (int variant = 0; variant < 7; variant++) {
+                    UserSettings settings = new UserSettings();
+                    settings.useComments = variant == 1;
+                    settings.recordDelimiter = variant == 2 ? ';' : Letters.NULL;
+                    settings.withTrimWhitespace(variant != 3);
+                    settings.skipEmptyRecords = variant != 4;
+                    settings.useTextQualifier = variant != 5;
+                    settings.withEscapeMode(variant == 6 ? EscapeMode.BACKSLASH : EscapeMode.DOUBLED);
+
+                    List<String> expected = new ArrayList<String>();
+                    try (CsvReader reader = new CsvReader("stream.csv", ',', StandardCharsets.UTF_8)) {
+                        reader.setUseComments(settings.useComments);
+                        if (variant == 2) {
+                            reader.setRecordDelimiter(';');
+                        }
+                        reader.userSettings().withTrimWhitespace(settings.trimWhitespace())
+                                .withEscapeMode(settings.escapeMode());
+                        reader.setSkipEmptyRecords(settings.skipEmptyRecords);
+                        reader.setUseTextQualifier(settings.useTextQualifier);
+                        while (reader.readRecord()) {
+                            expected.add(String.join("|", reader.getValues()));
+                        }
+                    }
+
+                    try (FileChannel channel = FileChannel.open(Paths.get("stream.csv"))) {
+                        List<String> actual = new ArrayList<String>();
+                        splitAll(new RecordSpliterator(channel, StandardCharsets.UTF_8, settings, variant == 2, false,
+                                0, channel.size(), 8), actual);
+                        Assertions.assertEquals(expected, actual);
+                    }
+
+                    try (Stream<String[]> stream = CsvReader.lines(Paths.get("stream.csv"), StandardCharsets.UTF_8,
+                            settings)) {
+                        Assertions.assertEquals(expected, stream.parallel().map(values -> String.join("|", values))
+                                .collect(Collectors.toList()));
+                    }
+                }
+
+                List<String> expected = new ArrayList<String>();
+                try (CsvReader reader = new CsvReader("stream.csv", ',', StandardCharsets.UTF_8)) {
+                    while (reader.readRecord()) {
+                        expected.add(String.join("|", reader.getValues()));
+                    }
+                }
+
+                CsvReader reader = new CsvReader("stream.csv", ',', StandardCharsets.UTF_8);
+                try (Stream<String[]> stream = reader.stream()) {
+                    Assertions.assertEquals(expected, stream.map(values -> String.join("|", values))
+                            .collect(Collectors.toList()));
+                }
+                Assertions.assertThrows(IOException.class, reader::readRecord);
+
+                reader = new CsvReader("stream.csv", ',', StandardCharsets.UTF_8);
+                reader.readHeaders();
+                try (Stream<String[]> stream = reader.stream()) {
+                    Assertions.assertEquals(expected.subList(Math.min(1, expected.size()), expected.size()),
+                            stream.map(values -> String.join("|", values)).collect(Collectors.toList()));
+                }
+            }
+        } finally {
+            new File("stream.csv").delete();
+        }
+    }
+
+    @Test
+    void test197() throws Exception {
+        String data = "name,age,active\r\n\"Bob, Jr.\",42,true\r\nAlice,7,false\r\n\"Eve \"\"E\"\"\",,true";
+
+        List<String> expected = new ArrayList<String>();
+        CsvReader reader = CsvReader.parse(data);
+        Assertions.assertTrue(reader.readHeaders());
+        while (reader.readRecord()) {
+            expected.add(reader.getCurrentRecord() + ":" + String.join("|", reader.getValues()));
+        }
+        reader.close();
+
+        List<String> actual = new ArrayList<String>();
+        List<CsvRecord> seen = new ArrayList<CsvRecord>();
+        reader = CsvReader.parse(data);
+        Assertions.assertTrue(reader.readHeaders());
+        long count = reader.forEach(record -> {
+            seen.add(record);
+            actual.add(record.getRecordNumber() + ":" + String.join("|", record.getValues()));
+            Assertions.assertEquals(3, record.getColumnCount());
+            Assertions.assertEquals(record.get(0), record.get("name"));
+            Assertions.assertEquals(record.get("name"), record.getCharSequence("name").toString());
+            Assertions.assertEquals(record.get(2).equals("true"), record.getBoolean("active"));
+            if (!record.get("age").isEmpty()) {
+                Assertions.assertEquals(Integer.parseInt(record.get(1)), record.getInt("age"));
+                Assertions.assertEquals(Long.parseLong(record.get(1)), record.getLong(1));
+            }
+        });
+        Assertions.assertEquals(3L, count);
+        Assertions.assertEquals(expected, actual);
+        Assertions.assertSame(seen.get(0), seen.get(1));
+        Assertions.assertSame(seen.get(0), seen.get(2));
+        Assertions.assertThrows(IOException.class, () -> seen.get(0).get(0));
+        Assertions.assertEquals(0L, reader.forEach(record -> Assertions.fail("no records are left")));
+        reader.close();
+
+        reader = CsvReader.parse(data);
+        CsvReader failing = reader;
+        Assertions.assertThrows(IOException.class, () -> failing.forEach(record -> {
+            throw new IOException("stop");
+        }));
+        Assertions.assertEquals("name", reader.get(0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> failing.forEach(null));
+        reader.close();
+        Assertions.assertThrows(IOException.class, () -> failing.forEach(record -> {
+        }));
+    }
+
+    @Test
+    void test198() throws Exception {
+        StringBuilder data = new StringBuilder("id,country,status\n");
+        for (int i = 0; i < 3000; i++) {
+            data.append(i).append(',').append(i % 3 == 0 ? "BR" : i % 3 == 1 ? "\"U\"\"S\"" : "DE")
+                    .append(',').append(i % 2 == 0 ? "open" : "closed").append('\n');
+        }
+
+        for (boolean bytes : new boolean[] { false, true }) {
+            CsvReader reader = bytes
+                    ? new CsvReader(new ByteArrayInputStream(data.toString().getBytes(StandardCharsets.UTF_8)),
+                            StandardCharsets.UTF_8)
+                    : CsvReader.parse(data.toString());
+            Assertions.assertTrue(reader.readHeaders());
+            reader.setInterned("country");
+            reader.setInterned(0);
+            List<String[]> records = new ArrayList<String[]>();
+            while (reader.readRecord()) {
+                records.add(reader.getValues());
+            }
+            reader.close();
+
+            Assertions.assertEquals(3000, records.size());
+            for (int i = 0; i < records.size(); i++) {
+                String[] values = records.get(i);
+                Assertions.assertEquals(String.valueOf(i), values[0]);
+                Assertions.assertEquals(i % 3 == 0 ? "BR" : i % 3 == 1 ? "U\"S" : "DE", values[1]);
+                Assertions.assertEquals(i % 2 == 0 ? "open" : "closed", values[2]);
+                // every distinct value is kept once
+                Assertions.assertSame(records.get(i % 3)[1], values[1]);
+            }
+            Assertions.assertNotSame(records.get(0)[2], records.get(2)[2]);
+            // the id column has more distinct values than are kept, the
+            // ones after that are still read
+            Assertions.assertEquals("2999", records.get(2999)[0]);
+        }
+
+        CsvReader reader = CsvReader.parse("a,b\nx,y\nx,y\n");
+        reader.readHeaders();
+        Assertions.assertThrows(IllegalArgumentException.class, () -> reader.setInterned("c"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> reader.setInterned(-1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> reader.setInterned((int[]) null));
+        reader.setInterned("b");
+        reader.clearInterned();
+        reader.readRecord();
+        String first = reader.get(1);
+        reader.readRecord();
+        Assertions.assertNotSame(first, reader.get(1));
+        reader.close();
+    }
+
+    @Test
+    void test199() throws Exception {
+        StringBuilder header = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            header.append(i == 0 ? "" : ",").append("col").append(i);
+        }
+        CsvReader reader = CsvReader.parse(header + ",col7\n");
+        Assertions.assertTrue(reader.readHeaders());
+        for (int i = 0; i < 40; i++) {
+            // the last of a duplicated name wins
+            Assertions.assertEquals(i == 7 ? 40 : i, reader.getIndex("col" + i));
+        }
+        Assertions.assertEquals(-1, reader.getIndex("col40"));
+        Assertions.assertEquals(-1, reader.getIndex(""));
+        Assertions.assertEquals(-1, reader.getIndex(null));
+        reader.close();
+
+        reader = CsvReader.parse("\"Aa\",BB,name,count,ok\nx,y,\"Bob\",12,true\nz,w,Eve,-3,false\n");
+        Assertions.assertTrue(reader.readHeaders());
+        // "Aa" and "BB" have the same String hash
+        Assertions.assertEquals(0, reader.getIndex("Aa"));
+        Assertions.assertEquals(1, reader.getIndex("BB"));
+        ColumnHandle name = reader.getColumnHandle("name");
+        ColumnHandle count = reader.getColumnHandle("count");
+        ColumnHandle ok = reader.getColumnHandle("ok");
+        Assertions.assertEquals("name", name.getHeaderName());
+        Assertions.assertEquals(3, count.getIndex());
+        Assertions.assertTrue(reader.readRecord());
+        Assertions.assertEquals("Bob", name.get());
+        Assertions.assertTrue(name.isQualified());
+        Assertions.assertEquals("Bob", name.getCharSequence().toString());
+        Assertions.assertEquals(12, count.getInt());
+        Assertions.assertEquals(12L, count.getLong());
+        Assertions.assertEquals(12.0, count.getDouble());
+        Assertions.assertTrue(ok.getBoolean());
+        Assertions.assertTrue(reader.readRecord());
+        Assertions.assertEquals("Eve", name.get());
+        Assertions.assertEquals(-3, count.getInt());
+        Assertions.assertFalse(ok.getBoolean());
+
+        CsvReader closing = reader;
+        Assertions.assertThrows(IllegalArgumentException.class, () -> closing.getColumnHandle("missing"));
+        reader.setProjection("ok", "name");
+        Assertions.assertEquals(0, reader.getColumnHandle("ok").getIndex());
+        Assertions.assertEquals(1, reader.getIndex("name"));
+        Assertions.assertEquals(-1, reader.getIndex("count"));
+        reader.setHeaders(new String[] { "a", null });
+        Assertions.assertEquals(-1, reader.getIndex("name"));
+        reader.clearProjection();
+        Assertions.assertEquals(1, reader.getIndex(null));
+        reader.close();
+        Assertions.assertThrows(IOException.class, () -> closing.getColumnHandle("a"));
+        Assertions.assertThrows(IOException.class, () -> name.get());
+    }
+
+    @Test
+    void test200() throws Exception {
+        StringBuilder text = new StringBuilder("id,name,note\r\n");
+        for (int i = 0; i < 20000; i++) {
+            text.append(i).append(",\"name ").append(i).append("\",\"a \"\"quoted\"\"\r\nnote\"\r\n");
+        }
+        byte[] data = text.toString().getBytes(StandardCharsets.UTF_8);
+        List<String> expected = new ArrayList<String>();
+        try (CsvReader reader = new CsvReader(new ByteArrayInputStream(data), StandardCharsets.UTF_8)) {
+            while (reader.readRecord()) {
+                expected.add(String.join("|", reader.getValues()));
+            }
+        }
+
+        ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+        try (GZIPOutputStream output = new GZIPOutputStream(gzip)) {
+            output.write(data, 0, data.length / 2);
+        }
+        // a second member, like concatenated gzip files
+        try (GZIPOutputStream output = new GZIPOutputStream(gzip)) {
+            output.write(data, data.length / 2, data.length - data.length / 2);
+        }
+
+        for (byte[] compressed : new byte[][] { gzip.toByteArray(), bgzf(data) }) {
+            try (FileOutputStream output = new FileOutputStream("compressed.csv.gz")) {
+                output.write(compressed);
+            }
+
+            try {
+                for (boolean byteParsing : new boolean[] { false, true }) {
+                    List<String> actual = new ArrayList<String>();
+                    try (CsvReader reader = new CsvReader("compressed.csv.gz", ',', StandardCharsets.UTF_8)) {
+                        reader.userSettings().withByteParsing(byteParsing);
+                        while (reader.readRecord()) {
+                            actual.add(String.join("|", reader.getValues()));
+                        }
+                    }
+                    Assertions.assertEquals(expected, actual);
+
+                    actual.clear();
+                    try (CsvReader reader = new CsvReader(new ByteArrayInputStream(compressed),
+                            StandardCharsets.UTF_8)) {
+                        reader.userSettings().withByteParsing(byteParsing);
+                        while (reader.readRecord()) {
+                            actual.add(String.join("|", reader.getValues()));
+                        }
+                    }
+                    Assertions.assertEquals(expected, actual);
+                }
+
+                try (Stream<String[]> stream = CsvReader.lines(Paths.get("compressed.csv.gz"), StandardCharsets.UTF_8,
+                        new UserSettings().withDelimiter(','))) {
+                    Assertions.assertEquals(expected, stream.parallel().map(values -> String.join("|", values))
+                            .collect(Collectors.toList()));
+                }
+
+                List<String> actual = Collections.synchronizedList(new ArrayList<String>());
+                ParallelCsvReader parallel = new ParallelCsvReader("compressed.csv.gz", ',', StandardCharsets.UTF_8);
+                Assertions.assertEquals(expected.size(), parallel.forEach((recordNumber, values) -> {
+                    Assertions.assertEquals(expected.get((int) recordNumber), String.join("|", values));
+                    actual.add(String.join("|", values));
+                }));
+                Assertions.assertEquals(expected, actual);
+                Assertions.assertThrows(IOException.class, () -> parallel.buildIndex(100));
+            } finally {
+                new File("compressed.csv.gz").delete();
+            }
+        }
+
+        byte[] corrupt = gzip.toByteArray();
+        // the length in the trailer of the last member
+        corrupt[corrupt.length - 1] ^= 1;
+        try (CsvReader reader = new CsvReader(new ByteArrayInputStream(corrupt), StandardCharsets.UTF_8)) {
+            Assertions.assertThrows(IOException.class, () -> {
+                while (reader.readRecord()) {
+                }
+            });
+        }
+
+        // data that only starts like gzip isn't touched
+        try (CsvReader reader = new CsvReader(new ByteArrayInputStream(new byte[] { 0x1F, 'a', ',', 'b' }),
+                StandardCharsets.ISO_8859_1)) {
+            Assertions.assertTrue(reader.readRecord());
+            Assertions.assertEquals("\u001Fa", reader.get(0));
+            Assertions.assertEquals("b", reader.get(1));
+        }
+    }
+
+    /**
+     * Compresses data into BGZF blocks, which say how long they are.
+     */
+    private static byte[] bgzf(byte[] data) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        byte[] compressed = new byte[70000];
+
+        for (int start = 0; start <= data.length; start += 60000) {
+            // the last block is the empty end of file marker
+            int length = Math.min(60000, data.length - start);
+            Deflater deflater = new Deflater(6, true);
+            deflater.setInput(data, start, length);
+            deflater.finish();
+            int size = deflater.deflate(compressed);
+            deflater.end();
+            CRC32 crc = new CRC32();
+            crc.update(data, start, length);
+            int blockSize = 18 + size + 8;
+
+            output.write(new byte[] { 0x1F, (byte) 0x8B, 8, 4, 0, 0, 0, 0, 0, (byte) 0xFF, 6, 0, 'B', 'C', 2, 0,
+                    (byte) (blockSize - 1), (byte) ((blockSize - 1) >> 8) });
+            output.write(compressed, 0, size);
+            for (long value : new long[] { crc.getValue(), length }) {
+                for (int i = 0; i < 4; i++) {
+                    output.write((int) (value >> (8 * i)));
+                }
+            }
+            if (length == 0) {
+                break;
+            }
+        }
+
+        return output.toByteArray();
+    }
+
+    @Test
+    void test201() throws Exception {
+        Random random = new Random(201);
+        List<String> lines = new ArrayList<String>();
+        for (int i = 0; i < 300; i++) {
+            StringBuilder line = new StringBuilder();
+            int columns = 1 + random.nextInt(5);
+            for (int j = 0; j < columns; j++) {
+                if (j > 0) {
+                    line.append(',');
+                }
+                if (random.nextBoolean()) {
+                    line.append("\"q").append(random.nextInt(1000)).append("\"\"x\"");
+                } else {
+                    // never empty, as empty lines are skipped
+                    for (int k = 1 + random.nextInt(30); k > 0; k--) {
+                        line.append((char) ('a' + random.nextInt(26)));
+                    }
+                }
+            }
+            lines.add(line.toString());
+        }
+        String data = String.join("\n", lines);
+
+        for (int bufferSize : new int[] { 1, 7, 64, 1024 }) {
+            for (boolean adaptive : new boolean[] { false, true }) {
+                CsvReader reader = new CsvReader(new StringReader(data));
+                reader.userSettings().withBufferSize(bufferSize).withAdaptiveBuffers(adaptive);
+                for (int i = 0; i < lines.size(); i++) {
+                    Assertions.assertTrue(reader.readRecord());
+                    // not every raw record is asked for
+                    if (i % 3 != 1) {
+                        Assertions.assertEquals(lines.get(i), reader.getRawRecord());
+                        Assertions.assertSame(reader.getRawRecord(), reader.getRawRecord());
+                    }
+                }
+                reader.close();
+                // kept when the reader lets go of its buffers
+                Assertions.assertEquals(lines.get(lines.size() - 1), reader.getRawRecord());
+            }
+        }
+
+        CsvReader reader = CsvReader.parse("a,b\nc,d");
+        Assertions.assertTrue(reader.readRecord());
+        reader.setCaptureRawRecord(false);
+        Assertions.assertTrue(reader.readRecord());
+        Assertions.assertEquals("", reader.getRawRecord());
+        reader.close();
+    }
+
+    @Test
+    void test202() throws Exception {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 50000; i++) {
+            text.append(i).append(",\"value ").append(i).append("\"\"\",tail\n");
+        }
+        byte[] data = text.toString().getBytes(StandardCharsets.UTF_8);
+        try (FileOutputStream output = new FileOutputStream("readahead.csv")) {
+            output.write(data);
+        }
+
+        List<Thread> threads = Collections.synchronizedList(new ArrayList<Thread>());
+        try {
+            for (boolean byteParsing : new boolean[] { false, true }) {
+                for (boolean file : new boolean[] { false, true }) {
+                    CsvReader reader = file ? new CsvReader("readahead.csv", ',', StandardCharsets.UTF_8)
+                            : new CsvReader(new ByteArrayInputStream(data), StandardCharsets.UTF_8);
+                    reader.userSettings().withByteParsing(byteParsing).withReadAhead(true)
+                            .withThreadFactory(runnable -> {
+                                Thread thread = new Thread(runnable);
+                                thread.setDaemon(true);
+                                threads.add(thread);
+                                return thread;
+                            });
+                    int count = 0;
+                    while (reader.readRecord()) {
+                        Assertions.assertEquals(String.valueOf(count), reader.get(0));
+                        Assertions.assertEquals("value " + count + "\"", reader.get(1));
+                        Assertions.assertEquals("tail", reader.get(2));
+                        count++;
+                    }
+                    Assertions.assertEquals(50000, count);
+                    reader.close();
+                }
+            }
+            Assertions.assertEquals(4, threads.size());
+
+            // stopping early leaves no thread behind
+            CsvReader reader = new CsvReader("readahead.csv", ',', StandardCharsets.UTF_8);
+            reader.userSettings().withReadAhead(true);
+            Assertions.assertTrue(reader.readRecord());
+            reader.close();
+
+            // a failing source fails the reader
+            InputStream failing = new InputStream() {
+                private int count = 0;
+
+                @Override
+                public int read() throws IOException {
+                    return read(new byte[1], 0, 1) == -1 ? -1 : 'a';
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) throws IOException {
+                    if (count++ == 3) {
+                        throw new IOException("broken");
+                    }
+                    Arrays.fill(buffer, offset, offset + length, (byte) 'a');
+                    buffer[offset + length - 1] = '\n';
+                    return length;
+                }
+            };
+            CsvReader broken = new CsvReader(failing, StandardCharsets.ISO_8859_1);
+            broken.userSettings().withReadAhead(true);
+            Assertions.assertThrows(IOException.class, () -> {
+                while (broken.readRecord()) {
+                }
+            });
+            Assertions.assertThrows(IllegalArgumentException.class,
+                    () -> new UserSettings().withThreadFactory(null));
+        } finally {
+            new File("readahead.csv").delete();
+        }
+
+        for (Thread thread : threads) {
+            thread.join(10000);
+            Assertions.assertFalse(thread.isAlive());
+        }
+    }
+
+    @Test
+    void test203() throws Exception {
+        String[] pieces = { "a", "bc", " d ", ",", ",", "\"q,\r\nx\"", "\"\"\"\"", "\"a\"junk", "\r\n", "\n", "\r",
+                "\r\n\r\n", "#c,\"\n", "\t", ";", "\"" };
+        Random random = new Random(203);
+
+        for (int round = 0; round < 200; round++) {
+            StringBuilder data = new StringBuilder();
+            for (int i = 50 + random.nextInt(100); i > 0; i--) {
+                data.append(pieces[random.nextInt(pieces.length)]);
+            }
+            boolean comments = random.nextBoolean();
+            boolean skipEmpty = random.nextBoolean();
+            boolean trim = random.nextBoolean();
+            boolean custom = random.nextInt(4) == 0;
+            int bufferSize = new int[] { 1, 7, 1024 }[random.nextInt(3)];
+
+            CsvReader[] readers = new CsvReader[2];
+            for (int i = 0; i < 2; i++) {
+                readers[i] = new CsvReader(new StringReader(data.toString()));
+                readers[i].userSettings().withBufferSize(bufferSize).withTrimWhitespace(trim);
+                readers[i].setUseComments(comments);
+                readers[i].setSkipEmptyRecords(skipEmpty);
+                if (custom) {
+                    readers[i].setRecordDelimiter(';');
+                }
+            }
+            CsvReader expected = readers[0];
+            CsvReader reader = readers[1];
+            long skippedTotal = 0;
+
+            while (true) {
+                int count = random.nextInt(4);
+                long skipped = 0;
+                String raw = reader.getRawRecord();
+                while (skipped < count && expected.readRecord()) {
+                    raw = expected.getRawRecord();
+                    skipped++;
+                }
+                if (count > 0 && skipped == 0) {
+                    raw = expected.getRawRecord();
+                }
+                if (count == 1) {
+                    Assertions.assertEquals(skipped == 1, reader.skipRecord());
+                } else {
+                    Assertions.assertEquals(skipped, reader.skipRecords(count));
+                }
+                skippedTotal += skipped;
+                // the last skipped record
+                Assertions.assertEquals(raw, reader.getRawRecord());
+                Assertions.assertEquals(0, reader.getColumnCount());
+
+                boolean read = expected.readRecord();
+                Assertions.assertEquals(read, reader.readRecord());
+                if (!read) {
+                    break;
+                }
+                Assertions.assertArrayEquals(expected.getValues(), reader.getValues());
+                Assertions.assertEquals(expected.getRawRecord(), reader.getRawRecord());
+                // skipped records aren't counted
+                Assertions.assertEquals(expected.getCurrentRecord() - skippedTotal, reader.getCurrentRecord());
+            }
+            Assertions.assertEquals(0, reader.skipRecords(5));
+            expected.close();
+            reader.close();
+        }
+
+        // the data ends in a comment line
+        for (String data : new String[] { "a\n#comment", "#comment", "a\n#x,", "a\n\n#x\"y" }) {
+            for (int bufferSize : new int[] { 1, 1024 }) {
+                CsvReader expected = new CsvReader(new StringReader(data));
+                CsvReader reader = new CsvReader(new StringReader(data));
+                for (CsvReader each : new CsvReader[] { expected, reader }) {
+                    each.userSettings().withBufferSize(bufferSize);
+                    each.setUseComments(true);
+                }
+                long records = 0;
+                while (expected.readRecord()) {
+                    records++;
+                }
+                Assertions.assertFalse(expected.readRecord());
+                for (long i = 0; i < records; i++) {
+                    Assertions.assertTrue(reader.skipRecord());
+                }
+                Assertions.assertFalse(reader.skipRecord());
+                Assertions.assertEquals(expected.getRawRecord(), reader.getRawRecord());
+                Assertions.assertEquals("", reader.getRawRecord());
+                expected.close();
+                reader.close();
+            }
+        }
+
+        CsvReader reader = CsvReader.parse("a\nb\nc\nd");
+        Assertions.assertThrows(IllegalArgumentException.class, () -> reader.skipRecords(-1));
+        Assertions.assertEquals(0, reader.skipRecords(0));
+        Assertions.assertEquals(3, reader.skipRecords(3));
+        Assertions.assertEquals(-1, reader.getCurrentRecord());
+        Assertions.assertTrue(reader.readRecord());
+        Assertions.assertEquals("d", reader.get(0));
+        Assertions.assertEquals(0, reader.getCurrentRecord());
+        reader.close();
+    }
+
+    @Test
+    void test204() throws Exception {
+        CsvReader reader = new CsvReader(new StringReader("h1,h2\n1,2\n3,4"));
+        reader.userSettings().withBufferSize(7);
+        Assertions.assertTrue(reader.readHeaders());
+        Assertions.assertTrue(reader.readRecord());
+        Assertions.assertEquals("2", reader.get("h2"));
+
+        // a payload that's cut off in the middle of a qualified column
+        reader.reset(new StringReader("a,\"b\r\nc"));
+        Assertions.assertEquals(0, reader.getHeaderCount());
+        Assertions.assertEquals(-1, reader.getIndex("h2"));
+        Assertions.assertTrue(reader.readRecord());
+        Assertions.assertArrayEquals(new String[] { "a", "b\r\nc" }, reader.getValues());
+        Assertions.assertEquals(0, reader.getCurrentRecord());
+        Assertions.assertFalse(reader.readRecord());
+
+        // the buffers are kept through close
+        reader.close();
+        reader.reset("x,y\n\"5\",6,7,8,9,10,11,12,13,14,15,16".getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+        Assertions.assertTrue(reader.readHeaders());
+        Assertions.assertEquals(1, reader.getIndex("y"));
+        Assertions.assertTrue(reader.readRecord());
+        Assertions.assertEquals(12, reader.getColumnCount());
+        Assertions.assertEquals("5", reader.get("x"));
+        Assertions.assertEquals("x,y", reader.getHeaders()[0] + "," + reader.getHeaders()[1]);
+        reader.reset(new ByteArrayInputStream("z".getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8);
+        Assertions.assertTrue(reader.readRecord());
+        Assertions.assertEquals("z", reader.get(0));
+        Assertions.assertEquals("z", reader.getRawRecord());
+        reader.close();
+
+        CsvReaderPool pool = new CsvReaderPool(';');
+        CsvReader first = pool.acquire("a;b".getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+        CsvReader second = pool.acquire(new StringReader("c;d"));
+        Assertions.assertNotSame(first, second);
+        Assertions.assertTrue(first.readRecord());
+        Assertions.assertTrue(second.readRecord());
+        Assertions.assertEquals("b", first.get(1));
+        Assertions.assertEquals("d", second.get(1));
+        first.close();
+        Assertions.assertThrows(IOException.class, () -> first.readRecord());
+        try (CsvReader third = pool.acquire(new StringReader("e;f"))) {
+            // a new reader with the buffers of the first one
+            Assertions.assertNotSame(first, third);
+            Assertions.assertTrue(third.readRecord());
+            Assertions.assertArrayEquals(new String[] { "e", "f" }, third.getValues());
+        }
+        second.close();
+
+        // every thread has its own readers
+        CsvReader[] other = new CsvReader[1];
+        Thread thread = new Thread(() -> other[0] = pool.acquire(new StringReader("g")));
+        thread.start();
+        thread.join();
+        Assertions.assertNotSame(first, other[0]);
+        Assertions.assertNotSame(second, other[0]);
+
+        pool.setMaxIdle(0);
+        CsvReader fourth = pool.acquire(new StringReader("h"));
+        fourth.close();
+        Assertions.assertNotSame(fourth, pool.acquire(new StringReader("i")));
+    }
+
+    @Test
+    void test205() throws Exception {
+        for (long seed = 0; seed < 20; seed++) {
+            String data = generateData(seed, 500);
+            List<String> expected = new ArrayList<String>();
+            try (CsvReader reader = new CsvReader(new StringReader(data))) {
+                while (reader.readRecord()) {
+                    expected.add(String.join("|", reader.getValues()) + "/" + reader.getRawRecord());
+                }
+            }
+
+            char[] chars = data.toCharArray();
+            char[] padded = ("xx" + data + "yy").toCharArray();
+            List<CsvReader> readers = new ArrayList<CsvReader>();
+            readers.add(CsvReader.parse(data));
+            readers.add(CsvReader.parse(CharBuffer.wrap(chars)));
+            readers.add(CsvReader.parse(new StringBuilder(data)));
+            readers.add(CsvReader.parse(CharBuffer.wrap(padded, 2, data.length())));
+            readers.add(CsvReader.parse(CharBuffer.wrap(data).asReadOnlyBuffer()));
+            readers.add(CsvReader.parse(new StringBuffer(data)));
+            CsvReader small = CsvReader.parse(data);
+            small.userSettings().withBufferSize(7);
+            readers.add(small);
+            for (CsvReader reader : readers) {
+                List<String> actual = new ArrayList<String>();
+                while (reader.readRecord()) {
+                    actual.add(String.join("|", reader.getValues()) + "/" + reader.getRawRecord());
+                }
+                reader.close();
+                Assertions.assertEquals(expected, actual);
+            }
+            // read in place, never written to
+            Assertions.assertArrayEquals(data.toCharArray(), chars);
+
+            CsvReader reader = CsvReader.parse(data);
+            Assertions.assertEquals(10, reader.skipRecords(10));
+            Assertions.assertTrue(reader.readRecord());
+            Assertions.assertEquals(expected.get(10), String.join("|", reader.getValues()) + "/" + reader.getRawRecord());
+
+            // back and forth between in-memory data and streams
+            reader.reset(new StringReader(data));
+            Assertions.assertTrue(reader.readRecord());
+            Assertions.assertEquals(expected.get(0), String.join("|", reader.getValues()) + "/" + reader.getRawRecord());
+            reader.reset(CharBuffer.wrap(chars));
+            Assertions.assertTrue(reader.readRecord());
+            Assertions.assertEquals(expected.get(0), String.join("|", reader.getValues()) + "/" + reader.getRawRecord());
+            reader.reset(new StringReader(data));
+            while (reader.readRecord()) {
+            }
+            Assertions.assertArrayEquals(data.toCharArray(), chars);
+            reader.close();
+        }
+
+        CsvReader empty = CsvReader.parse(CharBuffer.wrap("abc", 3, 3));
+        Assertions.assertFalse(empty.readRecord());
+        empty.close();
+
+        CsvReaderPool pool = new CsvReaderPool();
+        try (CsvReader reader = pool.acquire("a,\"b\"\"c\"\n")) {
+            Assertions.assertTrue(reader.readRecord());
+            Assertions.assertArrayEquals(new String[] { "a", "b\"c" }, reader.getValues());
+            Assertions.assertFalse(reader.readRecord());
+        }
+    }
+
+    @Test
+    void test206() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Random random = new Random(206);
+        for (int i = 0; i < 20000; i++) {
+            int letter = random.nextInt(256);
+            bytes.write(letter == ',' || letter == '"' || letter == '\r' || letter == '\n' || random.nextInt(20) == 0
+                    ? (random.nextBoolean() ? ',' : '\n') : letter);
+        }
+        byte[] data = bytes.toByteArray();
+        try (FileOutputStream output = new FileOutputStream("latin1.csv")) {
+            output.write(data);
+        }
+
+        try {
+            for (Charset charset : new Charset[] { StandardCharsets.ISO_8859_1, StandardCharsets.US_ASCII }) {
+                List<String> expected = new ArrayList<String>();
+                try (CsvReader reader = new CsvReader(
+                        new InputStreamReader(new ByteArrayInputStream(data), charset))) {
+                    while (reader.readRecord()) {
+                        expected.add(String.join("|", reader.getValues()));
+                    }
+                }
+
+                for (int variant = 0; variant < 3; variant++) {
+                    CsvReader reader = variant == 0 ? new CsvReader("latin1.csv", ',', charset)
+                            : new CsvReader(new ByteArrayInputStream(data), charset);
+                    reader.userSettings().withBufferSize(variant == 2 ? 5 : 1024);
+                    List<String> actual = new ArrayList<String>();
+                    while (reader.readRecord()) {
+                        actual.add(String.join("|", reader.getValues()));
+                    }
+                    reader.close();
+                    Assertions.assertEquals(expected, actual);
+                }
+            }
+
+            CsvReader reader = new CsvReader(new ByteArrayInputStream(new byte[] { 'a', (byte) 0xE9 }),
+                    StandardCharsets.US_ASCII);
+            Assertions.assertTrue(reader.readRecord());
+            Assertions.assertEquals("a\uFFFD", reader.get(0));
+            reader.reset(new byte[] { 'b', (byte) 0xE9 }, StandardCharsets.ISO_8859_1);
+            Assertions.assertTrue(reader.readRecord());
+            Assertions.assertEquals("b\u00E9", reader.get(0));
+            reader.close();
+        } finally {
+            new File("latin1.csv").delete();
+        }
+    }
+
+    @Test
+    void test207() throws Exception {
+        byte[] unterminated = new byte[1024 * 1024];
+        Arrays.fill(unterminated, (byte) 'x');
+        unterminated[0] = 'a';
+        unterminated[1] = ',';
+        unterminated[2] = '"';
+
+        for (boolean byteParsing : new boolean[] { false, true }) {
+            final int[] read = new int[1];
+            InputStream stream = new ByteArrayInputStream(unterminated) {
+                @Override
+                public synchronized int read(byte[] b, int off, int len) {
+                    int count = super.read(b, off, len);
+                    read[0] += Math.max(count, 0);
+                    return count;
+                }
+            };
+            CsvReader reader = new CsvReader(stream, StandardCharsets.US_ASCII);
+            reader.userSettings().withByteParsing(byteParsing).withMaxBufferedLength(64 * 1024);
+            IOException ex = Assertions.assertThrows(IOException.class, reader::readRecord);
+            Assertions.assertEquals("Maximum buffered length of 65,536 exceeded in record 0.", ex.getMessage());
+            // fails long before the end of the data
+            Assertions.assertTrue(read[0] < 256 * 1024, String.valueOf(read[0]));
+            Assertions.assertThrows(IOException.class, reader::readRecord);
+
+            reader = new CsvReader(new ByteArrayInputStream(unterminated), StandardCharsets.US_ASCII);
+            reader.userSettings().withByteParsing(byteParsing).withMaxColumnLength(1000);
+            ex = Assertions.assertThrows(IOException.class, reader::readRecord);
+            Assertions.assertEquals("Maximum column length of 1,000 exceeded in column 1 in record 0.", ex.getMessage());
+            Assertions.assertThrows(IOException.class, reader::readRecord);
+
+            for (int bufferSize : new int[] { 3, 1024 }) {
+                byte[] data = "abcde,f\r\n\"abcde\",g\nabcdef,g\n".getBytes(StandardCharsets.US_ASCII);
+                reader = new CsvReader(new ByteArrayInputStream(data), StandardCharsets.US_ASCII);
+                reader.userSettings().withByteParsing(byteParsing).withBufferSize(bufferSize).withMaxColumnLength(5);
+                Assertions.assertTrue(reader.readRecord());
+                Assertions.assertTrue(reader.readRecord());
+                Assertions.assertEquals("abcde", reader.get(0));
+                ex = Assertions.assertThrows(IOException.class, reader::readRecord);
+                Assertions.assertEquals("Maximum column length of 5 exceeded in column 0 in record 2.", ex.getMessage());
+
+                data = "abc,def\r\na,b,c,d\nabc,defg\n".getBytes(StandardCharsets.US_ASCII);
+                reader = new CsvReader(new ByteArrayInputStream(data), StandardCharsets.US_ASCII);
+                reader.userSettings().withByteParsing(byteParsing).withBufferSize(bufferSize).withMaxRecordLength(7);
+                Assertions.assertTrue(reader.readRecord());
+                Assertions.assertEquals("def", reader.get(1));
+                Assertions.assertTrue(reader.readRecord());
+                Assertions.assertEquals("d", reader.get(3));
+                ex = Assertions.assertThrows(IOException.class, reader::readRecord);
+                Assertions.assertEquals("Maximum record length of 7 exceeded in record 2.", ex.getMessage());
+                Assertions.assertThrows(IOException.class, reader::readRecord);
+            }
+        }
+
+        CsvReader reader = CsvReader.parse("abc,def\nabcd,defg");
+        reader.userSettings().withMaxRecordLength(8).withMaxBufferedLength(1);
+        Assertions.assertTrue(reader.readRecord());
+        IOException ex = Assertions.assertThrows(IOException.class, reader::readRecord);
+        Assertions.assertEquals("Maximum record length of 8 exceeded in record 1.", ex.getMessage());
+
+        UserSettings settings = new UserSettings();
+        Assertions.assertThrows(IllegalArgumentException.class, () -> settings.withMaxColumnLength(0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> settings.withMaxRecordLength(-1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> settings.withMaxBufferedLength(0));
+    }
+
+    @Test
+    void test208() throws Exception {
+        char[] letters = new char[90000];
+        Arrays.fill(letters, 'x');
+        String big = new String(letters);
+        StringBuilder data = new StringBuilder("a,b\n\"" + big + "\",c\n");
+        for (int i = 0; i < 20000; i++) {
+            data.append(i).append(",small\n");
+        }
+
+        for (boolean byteParsing : new boolean[] { false, true }) {
+            CsvReader reader = new CsvReader(new ByteArrayInputStream(data.toString().getBytes(StandardCharsets.US_ASCII)),
+                    StandardCharsets.US_ASCII);
+            reader.userSettings().withByteParsing(byteParsing).withShrinkAfterRecords(3);
+            Assertions.assertTrue(reader.readRecord());
+            long initial = reader.getBufferCapacity();
+            Assertions.assertTrue(initial > 0);
+            Assertions.assertTrue(reader.readRecord());
+            Assertions.assertTrue(reader.getBufferCapacity() > big.length());
+            // what the current record needs is kept
+            reader.trimBuffers();
+            Assertions.assertEquals(big, reader.get(0));
+            Assertions.assertEquals("\"" + big + "\",c", reader.getRawRecord());
+            for (int i = 0; i < 20000; i++) {
+                Assertions.assertTrue(reader.readRecord());
+                Assertions.assertEquals(String.valueOf(i), reader.get(0));
+                Assertions.assertEquals(i + ",small", reader.getRawRecord());
+            }
+            Assertions.assertFalse(reader.readRecord());
+            Assertions.assertEquals(initial, reader.getBufferCapacity());
+            Assertions.assertTrue(reader.getPeakBufferCapacity() > big.length());
+            reader.close();
+
+            // not shrunk before enough smaller records
+            reader = new CsvReader(new ByteArrayInputStream(data.toString().getBytes(StandardCharsets.US_ASCII)),
+                    StandardCharsets.US_ASCII);
+            reader.userSettings().withByteParsing(byteParsing).withShrinkAfterRecords(Integer.MAX_VALUE);
+            Assertions.assertTrue(reader.skipRecords(2) == 2);
+            Assertions.assertTrue(reader.readRecord());
+            long grown = reader.getBufferCapacity();
+            Assertions.assertTrue(grown > big.length());
+            Assertions.assertTrue(reader.skipRecords(20000) == 19999);
+            Assertions.assertEquals(grown, reader.getBufferCapacity());
+            reader.trimBuffers();
+            Assertions.assertTrue(reader.getBufferCapacity() < grown);
+            reader.close();
+        }
+
+        CsvReaderPool pool = new CsvReaderPool();
+        CsvReader reader = pool.acquire(new StringReader(data.toString()));
+        Assertions.assertTrue(reader.skipRecord());
+        Assertions.assertTrue(reader.readRecord());
+        Assertions.assertTrue(reader.getBufferCapacity() > big.length());
+        reader.close();
+        reader = pool.acquire(new StringReader("1,2"));
+        Assertions.assertTrue(reader.getBufferCapacity() < big.length());
+        Assertions.assertTrue(reader.readRecord());
+        Assertions.assertEquals("2", reader.get(1));
+        Assertions.assertEquals(reader.getBufferCapacity(), reader.getPeakBufferCapacity());
+        reader.close();
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new UserSettings().withShrinkAfterRecords(0));
+    }
+
+    @Test
+    void test209() throws Exception {
+        char[] letters = new char[70000];
+        Arrays.fill(letters, 'x');
+        StringBuilder data = new StringBuilder("h1,h2\n\"" + new String(letters) + "\",b\n");
+        for (int i = 0; i < 100; i++) {
+            data.append(i).append(",small\n");
+        }
+        data.append("1,2,3,4,5,6,7,8,9,10,11,12,13,14,15,16,17,18,19,20\n");
+        byte[] bytes = data.toString().getBytes(StandardCharsets.US_ASCII);
+
+        for (boolean byteParsing : new boolean[] { false, true }) {
+            CsvReader reader = new CsvReader(new ByteArrayInputStream(bytes), StandardCharsets.US_ASCII);
+            Assertions.assertNull(reader.getMetrics());
+            reader.userSettings().withByteParsing(byteParsing).withBufferSize(64).withMetrics(true);
+            ReaderMetrics metrics = reader.getMetrics();
+            Assertions.assertSame(metrics, reader.getMetrics());
+            Assertions.assertTrue(reader.readHeaders());
+            Assertions.assertTrue(reader.readRecord());
+            Assertions.assertEquals(50, reader.skipRecords(50));
+            ReaderMetrics snapshot = metrics.snapshot();
+            while (reader.readRecord()) {
+            }
+            reader.close();
+
+            Assertions.assertEquals(2, snapshot.getRecords());
+            Assertions.assertEquals(53, metrics.getRecords());
+            Assertions.assertEquals(50, metrics.getSkippedRecords());
+            Assertions.assertEquals(2 + 2 + 50 * 2 + 20, metrics.getFields());
+            Assertions.assertEquals(byteParsing ? 0 : bytes.length, metrics.getCharsRead());
+            Assertions.assertEquals(byteParsing ? bytes.length : 0, metrics.getBytesRead());
+            Assertions.assertTrue(metrics.getRefills() > 1);
+            Assertions.assertEquals(1, metrics.getColumnArrayGrowths());
+            if (byteParsing) {
+                Assertions.assertTrue(metrics.getDataBufferGrowths() > 0);
+            } else {
+                Assertions.assertTrue(metrics.getColumnBufferGrowths() > 0);
+                Assertions.assertTrue(metrics.getRawBufferGrowths() > 0);
+            }
+            Assertions.assertTrue(metrics.getReadNanos() > 0);
+            Assertions.assertTrue(metrics.getParseNanos() > 0);
+        }
+
+        CsvReader reader = CsvReader.parse("a,b\nc,d");
+        reader.userSettings().withMetrics(true);
+        while (reader.readRecord()) {
+        }
+        Assertions.assertEquals(2, reader.getMetrics().getRecords());
+        Assertions.assertEquals(7, reader.getMetrics().getCharsRead());
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName("com.csvreader:type=CsvReader,name=test209");
+        server.registerMBean(reader.getMetrics(), name);
+        try {
+            Assertions.assertEquals(4L, server.getAttribute(name, "Fields"));
+        } finally {
+            server.unregisterMBean(name);
+        }
+        reader.close();
+    }
+
+    @Test
+    void test210() throws Exception {
+        StringBuilder data = new StringBuilder();
+        for (int i = 0; i < 3000; i++) {
+            data.append(i).append(i % 700 == 10 ? ",ab\"c" : ",abc").append(",\"line one\nline ").append(i)
+                    .append("\",end\n");
+        }
+
+        try {
+            try (Writer writer = new OutputStreamWriter(new FileOutputStream("stray.csv"), StandardCharsets.UTF_8)) {
+                writer.write(data.toString());
+            }
+
+            for (EscapeMode escapeMode : EscapeMode.values()) {
+                List<String> expected = new ArrayList<String>();
+                try (CsvReader reader = new CsvReader("stray.csv", ',', StandardCharsets.UTF_8)) {
+                    reader.userSettings().withEscapeMode(escapeMode);
+                    while (reader.readRecord()) {
+                        expected.add(reader.getCurrentRecord() + String.join("|", reader.getValues()));
+                    }
+                }
+                Assertions.assertEquals(3000, expected.size());
+
+                for (int chunkSize : new int[] { 16, 256, 4096 }) {
+                    ParallelCsvReader reader = new ParallelCsvReader("stray.csv", ',', StandardCharsets.UTF_8);
+                    reader.userSettings().withEscapeMode(escapeMode);
+                    reader.setChunkSize(chunkSize);
+
+                    List<String> actual = new ArrayList<String>();
+                    Assertions.assertEquals(expected.size(), reader.forEach(
+                            (recordNumber, values) -> actual.add(recordNumber + String.join("|", values))));
+                    Assertions.assertEquals(expected, actual);
+                    Assertions.assertEquals(expected.size(), reader.buildIndex(100).getRecordCount());
+                }
+            }
+
+            ParallelCsvReader builder = new ParallelCsvReader("stray.csv", ',', StandardCharsets.UTF_8);
+            builder.setChunkSize(256);
+            builder.buildIndex(100).write(CsvIndex.sidecarFileName("stray.csv"));
+            try (CsvReader reader = new CsvReader("stray.csv", ',', StandardCharsets.UTF_8)) {
+                reader.seekToRecord(2500);
+                Assertions.assertTrue(reader.readRecord());
+                Assertions.assertEquals("2500|abc|line one\nline 2500|end", String.join("|", reader.getValues()));
+            }
+        } finally {
+            new File("stray.csv").delete();
+            new File(CsvIndex.sidecarFileName("stray.csv")).delete();
+        }
+    }
+
+    @Test
+    void test211() throws Exception {
+        try {
+            for (long seed = 0; seed < 10; seed++) {
+                try (Writer writer = new OutputStreamWriter(new FileOutputStream("resync.csv"),
+                        StandardCharsets.UTF_8)) {
+                    writer.write(generateData(seed, 2000));
+                }
+
+                for (int variant = 0; variant < 4; variant++) {
+                    UserSettings settings = new UserSettings();
+                    settings.useComments = variant == 1;
+                    settings.recordDelimiter = variant == 2 ? ';' : Letters.NULL;
+                    settings.withTrimWhitespace(variant != 3);
+
+                    try (FileChannel channel = FileChannel.open(Paths.get("resync.csv"))) {
+                        long size = channel.size();
+                        int found = 0;
+                        for (long from = 1; from < size; from++) {
+                            RecordStructure structure = new RecordStructure(settings, variant == 2);
+                            long recordStart = structure.resync(channel, from, size);
+                            if (recordStart != -1) {
+                                found++;
+                                Assertions.assertTrue(recordStart >= from);
+                                // a record known to start is found again from the start of the file
+                                Assertions.assertEquals(recordStart, structure.find(channel, 0, recordStart, size));
+                            }
+                        }
+                        Assertions.assertTrue(found > size / 2);
+                    }
+                }
+            }
+
+            StringBuilder data = new StringBuilder();
+            for (int i = 0; i < 1000; i++) {
+                data.append(i).append(i % 300 == 10 ? ",ab\"c" : ",abc").append(",\"line one\nline ").append(i)
+                        .append("\",end\n");
+            }
+            try (Writer writer = new OutputStreamWriter(new FileOutputStream("resync.csv"), StandardCharsets.UTF_8)) {
+                writer.write(data.toString());
+            }
+
+            List<String> expected = new ArrayList<String>();
+            try (CsvReader reader = new CsvReader("resync.csv", ',', StandardCharsets.UTF_8)) {
+                while (reader.readRecord()) {
+                    expected.add(String.join("|", reader.getValues()));
+                }
+            }
+
+            try (FileChannel channel = FileChannel.open(Paths.get("resync.csv"))) {
+                RecordSpliterator spliterator = new RecordSpliterator(channel, StandardCharsets.UTF_8,
+                        new UserSettings(), false, false, 0, channel.size(), 64);
+                List<String> actual = new ArrayList<String>();
+                Spliterator<String[]> prefix = spliterator.trySplit();
+                Assertions.assertNotNull(prefix);
+                splitAll(prefix, actual);
+                splitAll(spliterator, actual);
+                Assertions.assertEquals(expected, actual);
+            }
+        } finally {
+            new File("resync.csv").delete();
+        }
+    }
+
+    @Test
+    void test212() throws Exception {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 200000; i++) {
+            text.append(i).append(",name ").append(i).append("\r\n");
+        }
+        ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+        try (GZIPOutputStream output = new GZIPOutputStream(gzip)) {
+            output.write(text.toString().getBytes(StandardCharsets.UTF_8));
+        }
+
+        List<Thread> threads = Collections.synchronizedList(new ArrayList<Thread>());
+        CsvReader reader = new CsvReader(new ByteArrayInputStream(gzip.toByteArray()), StandardCharsets.UTF_8);
+        reader.userSettings().withThreadFactory(runnable -> {
+            Thread thread = new Thread(runnable);
+            thread.setDaemon(true);
+            threads.add(thread);
+            return thread;
+        });
+        Assertions.assertTrue(reader.readRecord());
+        Assertions.assertEquals("0", reader.get(0));
+        Assertions.assertEquals(1, threads.size());
+
+        // dropped without being closed, with the queue of inflated data full
+        reader = null;
+        Thread inflater = threads.get(0);
+        for (int i = 0; i < 100 && inflater.isAlive(); i++) {
+            System.gc();
+            inflater.join(100);
+        }
+        Assertions.assertFalse(inflater.isAlive());
+    }
+
+    @Test
+    void test213() throws Exception {
+        boolean[] closed = new boolean[2];
+        CsvReaderPool pool = new CsvReaderPool();
+        CsvReader first = pool.acquire(new StringReader("a,b\nc,d") {
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        });
+        Assertions.assertTrue(first.readRecord());
+        first.close();
+        Assertions.assertTrue(closed[0]);
+
+        CsvReader second = pool.acquire(new StringReader("e,f\ng,h") {
+            @Override
+            public void close() {
+                closed[1] = true;
+            }
+        });
+        Assertions.assertNotSame(first, second);
+        Assertions.assertTrue(second.readRecord());
+
+        // a stale close neither closes the input of the new owner nor puts
+        // the reader back in the pool while it's in use
+        first.close();
+        Assertions.assertFalse(closed[1]);
+        Assertions.assertThrows(IOException.class, first::readRecord);
+        CsvReader third = pool.acquire(new StringReader("i,j"));
+        Assertions.assertNotSame(first, third);
+        Assertions.assertNotSame(second, third);
+        Assertions.assertTrue(third.readRecord());
+        Assertions.assertArrayEquals(new String[] { "i", "j" }, third.getValues());
+        Assertions.assertTrue(second.readRecord());
+        Assertions.assertArrayEquals(new String[] { "g", "h" }, second.getValues());
+        second.close();
+        Assertions.assertTrue(closed[1]);
+        third.close();
+    }
+
+    @Test
+    void test214() throws Exception {
+        StringBuilder data = new StringBuilder();
+        for (int i = 0; i < 200000; i++) {
+            data.append(i).append(",b,c\n");
+        }
+
+        CsvReader reader = CsvReader.parse(data);
+        reader.userSettings().withMetrics(true);
+        ReaderMetrics metrics = reader.getMetrics();
+        AtomicBoolean done = new AtomicBoolean(false);
+        AtomicBoolean wentBack = new AtomicBoolean(false);
+        // reads the counters the way JMX would, while the records are read
+        Thread watcher = new Thread(() -> {
+            long last = 0;
+            while (!done.get()) {
+                long records = metrics.snapshot().getRecords();
+                if (records < last) {
+                    wentBack.set(true);
+                }
+                last = records;
+            }
+        });
+        watcher.start();
+        while (reader.readRecord()) {
+        }
+        done.set(true);
+        watcher.join();
+        reader.close();
+
+        Assertions.assertFalse(wentBack.get());
+        Assertions.assertEquals(200000, metrics.getRecords());
+        Assertions.assertEquals(600000, metrics.getFields());
+    }
+
+    @Test
+    void test215() throws Exception {
+        String data = "\" 15\",\"15 \",\" 1.5\",\"1.5 \",\"\tNaN\",\" true\"\r\n"
+                + "\u000b15,15\u000b,\u000b1.5,1e400\u000b,\u000bNaN,true\u000b\r\n";
+
+        for (boolean trimWhitespace : new boolean[] { false, true }) {
+            for (boolean byteParsing : new boolean[] { false, true }) {
+                CsvReader reader = new CsvReader(
+                        new ByteArrayInputStream(data.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8);
+                reader.userSettings().withTrimWhitespace(trimWhitespace).withByteParsing(byteParsing);
+
+                Assertions.assertTrue(reader.readRecord());
+                if (trimWhitespace) {
+                    Assertions.assertEquals(15, reader.getInt(0));
+                    Assertions.assertEquals(15L, reader.getLong(1));
+                    Assertions.assertEquals(1.5, reader.getDouble(2));
+                    Assertions.assertEquals(1.5, reader.getDouble(3));
+                    Assertions.assertTrue(Double.isNaN(reader.getDouble(4)));
+                    Assertions.assertTrue(reader.getBoolean(5));
+                } else {
+                    Assertions.assertThrows(NumberFormatException.class, () -> reader.getInt(0));
+                    Assertions.assertThrows(NumberFormatException.class, () -> reader.getLong(1));
+                    Assertions.assertThrows(NumberFormatException.class, () -> reader.getDouble(2));
+                    Assertions.assertThrows(NumberFormatException.class, () -> reader.getDouble(3));
+                    Assertions.assertThrows(NumberFormatException.class, () -> reader.getDouble(4));
+                    Assertions.assertThrows(IllegalArgumentException.class, () -> reader.getBoolean(5));
+                }
+
+                // only spaces and tabs are ever trimmed
+                Assertions.assertTrue(reader.readRecord());
+                Assertions.assertThrows(NumberFormatException.class, () -> reader.getInt(0));
+                Assertions.assertThrows(NumberFormatException.class, () -> reader.getLong(1));
+                Assertions.assertThrows(NumberFormatException.class, () -> reader.getDouble(2));
+                Assertions.assertThrows(NumberFormatException.class, () -> reader.getDouble(3));
+                Assertions.assertThrows(NumberFormatException.class, () -> reader.getDouble(4));
+                Assertions.assertThrows(IllegalArgumentException.class, () -> reader.getBoolean(5));
+                Assertions.assertFalse(reader.readRecord());
+                reader.close();
+            }
+        }
+    }
+
+    @Test
+    void test216() throws Exception {
+        // a custom record delimiter inside a comment line doesn't end it
+        for (String data : new String[] { "a;#x;y\n;b", "a;#x;y\n;b;\"c;#\";#d;e\r\nf;g\n;h;" }) {
+            try {
+                try (Writer writer = new OutputStreamWriter(new FileOutputStream("comments.csv"),
+                        StandardCharsets.UTF_8)) {
+                    writer.write(data);
+                }
+
+                List<String> expected = new ArrayList<String>();
+                try (CsvReader reader = new CsvReader("comments.csv", ',', StandardCharsets.UTF_8)) {
+                    reader.setRecordDelimiter(';');
+                    reader.setUseComments(true);
+                    while (reader.readRecord()) {
+                        expected.add(reader.getCurrentRecord() + String.join("|", reader.getValues()));
+                    }
+                }
+                if (data.length() == 9) {
+                    Assertions.assertEquals(Arrays.asList("0a", "1b"), expected);
+                }
+
+                for (int chunkSize = 1; chunkSize <= data.length(); chunkSize++) {
+                    ParallelCsvReader reader = new ParallelCsvReader("comments.csv", ',', StandardCharsets.UTF_8);
+                    reader.setRecordDelimiter(';');
+                    reader.userSettings().useComments = true;
+                    reader.setChunkSize(chunkSize);
+
+                    List<String> actual = new ArrayList<String>();
+                    Assertions.assertEquals(expected.size(), reader.forEach(
+                            (recordNumber, values) -> actual.add(recordNumber + String.join("|", values))));
+                    Assertions.assertEquals(expected, actual);
+                    Assertions.assertEquals(expected.size(), reader.buildIndex(1).getRecordCount());
+                }
+
+                UserSettings settings = new UserSettings();
+                settings.recordDelimiter = ';';
+                settings.useComments = true;
+                try (FileChannel channel = FileChannel.open(Paths.get("comments.csv"))) {
+                    List<String> actual = new ArrayList<String>();
+                    splitAll(new RecordSpliterator(channel, StandardCharsets.UTF_8, settings, true, false, 0,
+                            channel.size(), 1), actual);
+                    for (int i = 0; i < actual.size(); i++) {
+                        actual.set(i, i + actual.get(i));
+                    }
+                    Assertions.assertEquals(expected, actual);
+                }
+            } finally {
+                new File("comments.csv").delete();
+            }
+        }
+    }
+
+    @Test
+    void test217() throws Exception {
+        CsvReaderPool pool = new CsvReaderPool();
+        CsvReader first = pool.acquire("x,y,z");
+        first.setProjection(2);
+        first.setInterned(0);
+        Assertions.assertTrue(first.readRecord());
+        Assertions.assertArrayEquals(new String[] { "z" }, first.getValues());
+        String interned = first.get(0);
+        first.close();
+
+        // the next lease starts with the defaults, not with what the last one set
+        CsvReader second = pool.acquire("z,y,x");
+        Assertions.assertTrue(second.readRecord());
+        Assertions.assertArrayEquals(new String[] { "z", "y", "x" }, second.getValues());
+        Assertions.assertNotSame(interned, second.get(0));
+        second.close();
+    }
+
+    @Test
+    void test218() throws Exception {
+        for (boolean byteParsing : new boolean[] { false, true }) {
+            CsvReaderPool pool = new CsvReaderPool();
+            pool.userSettings().withByteParsing(byteParsing);
+            CsvReader first = pool.acquire("a,b\nc,d".getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+            Assertions.assertTrue(first.readRecord());
+            first.close();
+
+            // the raw record outlives the buffers handed out with the next lease
+            CsvReader second = pool.acquire("e,f".getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+            Assertions.assertTrue(second.readRecord());
+            Assertions.assertEquals("a,b", first.getRawRecord());
+            Assertions.assertEquals("e,f", second.getRawRecord());
+            second.close();
+        }
+    }
+
+    @Test
+    void test219() throws Exception {
+        StringBuilder data = new StringBuilder("id,name\n");
+        for (int i = 0; i < 100; i++) {
+            data.append(i).append(",\"name\n").append(i).append("\"\n");
+        }
+
+        try {
+            try (Writer writer = new OutputStreamWriter(new FileOutputStream("seek.csv"), StandardCharsets.UTF_8)) {
+                writer.write(data.toString());
+            }
+
+            for (boolean byteParsing : new boolean[] { false, true }) {
+                try (CsvReader reader = new CsvReader("seek.csv", ',', StandardCharsets.UTF_8)) {
+                    reader.userSettings().withMetrics(true).withByteParsing(byteParsing);
+                    reader.readHeaders();
+                    reader.seekToRecord(60);
+
+                    // the records before the one sought, and the headers as
+                    // the file is read again from its start, are only skipped
+                    Assertions.assertEquals(1, reader.getMetrics().getRecords());
+                    Assertions.assertEquals(61, reader.getMetrics().getSkippedRecords());
+                    Assertions.assertEquals(59, reader.getCurrentRecord());
+                    Assertions.assertEquals("", reader.getRawRecord());
+                    Assertions.assertTrue(reader.readRecord());
+                    Assertions.assertEquals(60, reader.getCurrentRecord());
+                    Assertions.assertEquals("60|name\n60", String.join("|", reader.getValues()));
+                }
+            }
+        } finally {
+            new File("seek.csv").delete();
+        }
+    }
 }
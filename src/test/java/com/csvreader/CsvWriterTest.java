@@ -11,6 +11,7 @@ import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.io.Reader;
+import java.io.StringWriter;
 import java.io.Writer;
 import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
@@ -1569,4 +1570,47 @@ class CsvWriterTest {
 
         new File("temp.csv").delete();
     }
+
+    @Test
+    void test175() throws Exception {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        CsvWriter writer = new CsvWriter(stream, ',', StandardCharsets.UTF_8);
+        Assertions.assertNull(writer.getMetrics());
+        writer.userSettings().withMetrics(true);
+        WriterMetrics metrics = writer.getMetrics();
+        writer.setRecordDelimiter('\n');
+        writer.writeRecord(new String[] { "1", "\u00E9" });
+        writer.write("3");
+        writer.endRecord();
+        writer.flush();
+        int flushed = stream.size();
+        WriterMetrics snapshot = metrics.snapshot();
+        writer.write("4");
+        writer.close();
+
+        Assertions.assertEquals(2, snapshot.getRecords());
+        Assertions.assertEquals(3, snapshot.getFields());
+        Assertions.assertEquals(1, snapshot.getFlushes());
+        Assertions.assertEquals(flushed, snapshot.getBytesWritten());
+        Assertions.assertEquals(stream.size(), metrics.getBytesWritten());
+        Assertions.assertEquals(4, metrics.getFields());
+
+        // only characters are handed to a Writer
+        writer = new CsvWriter(new StringWriter(), ',');
+        writer.userSettings().withMetrics(true);
+        writer.write("1");
+        writer.endRecord();
+        Assertions.assertEquals(1, writer.getMetrics().getRecords());
+        Assertions.assertEquals(0, writer.getMetrics().getBytesWritten());
+        writer.close();
+
+        writer = new CsvWriter("temp.csv");
+        writer.userSettings().withMetrics(true);
+        writer.setRecordDelimiter('\n');
+        writer.writeRecord(new String[] { "a", "b" });
+        writer.close();
+        Assertions.assertEquals(4, writer.getMetrics().getBytesWritten());
+        Assertions.assertEquals(4, new File("temp.csv").length());
+        new File("temp.csv").delete();
+    }
 }